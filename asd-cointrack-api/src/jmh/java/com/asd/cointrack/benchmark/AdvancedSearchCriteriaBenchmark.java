@@ -0,0 +1,86 @@
+package com.asd.cointrack.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.TextMatchMode;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+import com.asd.cointrack.service.CoinQueries;
+
+/**
+ * Cost of turning an advanced search filter into the MongoDB query sent by
+ * {@code CoinService.advancedSearch}: building the criteria (text
+ * normalization, regex escaping, range validation) and mapping them against
+ * the {@link Coin} entity as {@code MongoTemplate} does before every find.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AdvancedSearchCriteriaBenchmark {
+
+	/** Filter shape: no conditions, text fragments only, every condition. */
+	@Param({ "EMPTY", "TEXT", "FULL" })
+	public String shape;
+
+	private final Pageable pageable = PageRequest.of(2, 20, Sort.by("name"));
+	private CoinSearchFilter filter;
+	private QueryMapper queryMapper;
+	private MongoPersistentEntity<?> entity;
+
+	@Setup
+	public void setUp() {
+		filter = switch (shape) {
+			case "EMPTY" -> CoinSearchFilter.none();
+			case "TEXT" -> new CoinSearchFilter("Màrengo", "oro", null, null, null, null, null, null, null, null);
+			case "FULL" -> new CoinSearchFilter("Màrengo", "oro", null, List.of(NumismaticRarity.R3, NumismaticRarity.R4),
+					List.of(OptionConservation.FDC, OptionConservation.SPL), 1800, 1950, 10.0, 5000.0,
+					TextMatchMode.PREFIX);
+			default -> throw new IllegalArgumentException("unknown shape " + shape);
+		};
+		// Wired as Spring Boot does, so that java.time types are not mapped as entities
+		MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+		MongoMappingContext mappingContext = new MongoMappingContext();
+		mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		mappingContext.afterPropertiesSet();
+		MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+		converter.setCustomConversions(conversions);
+		converter.afterPropertiesSet();
+		queryMapper = new QueryMapper(converter);
+		entity = mappingContext.getRequiredPersistentEntity(Coin.class);
+	}
+
+	@Benchmark
+	public Query buildQuery() {
+		return CoinQueries.query(filter).with(pageable);
+	}
+
+	@Benchmark
+	public Document buildAndMapQuery() {
+		Query query = CoinQueries.query(filter).with(pageable);
+		queryMapper.getMappedSort(query.getSortObject(), entity);
+		return queryMapper.getMappedObject(query.getQueryObject(), entity);
+	}
+}
@@ -0,0 +1,65 @@
+package com.asd.cointrack.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.asd.cointrack.dto.CoinSummary;
+import com.asd.cointrack.load.SyntheticCoins;
+import com.asd.cointrack.model.Coin;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Jackson serialization of the pages returned by the listing and search
+ * endpoints, with full coins and with the {@code SUMMARY} projection.
+ * <p>
+ * The mapper is built like the one Spring Boot configures (Java time module,
+ * ISO dates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CoinPageSerializationBenchmark {
+
+	/** Page size, from the default to the maximum accepted by the API. */
+	@Param({ "20", "100" })
+	public int pageSize;
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private Page<Coin> coins;
+	private Page<CoinSummary> summaries;
+
+	@Setup
+	public void setUp() {
+		List<Coin> content = SyntheticCoins.generate(pageSize, SyntheticCoins.SEED);
+		PageRequest pageable = PageRequest.of(3, pageSize);
+		coins = new PageImpl<>(content, pageable, 10_000);
+		summaries = new PageImpl<>(content.stream()
+				.map(coin -> new CoinSummary(coin.getID(), coin.getName(), coin.getYear(), coin.getMaterial(),
+						coin.getPrice(), coin.getDegree()))
+				.toList(), pageable, 10_000);
+	}
+
+	@Benchmark
+	public byte[] fullPage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(coins);
+	}
+
+	@Benchmark
+	public byte[] summaryPage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(summaries);
+	}
+}
@@ -0,0 +1,65 @@
+package com.asd.cointrack.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.asd.cointrack.load.SyntheticCoins;
+import com.asd.cointrack.model.Coin;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Bean Validation of a {@link Coin}, as run on every create, replace and
+ * imported record, including the {@code MaxCurrentYearValidator} constraint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CoinValidationBenchmark {
+
+	private ValidatorFactory validatorFactory;
+	private Validator validator;
+	private Coin valid;
+	private Coin invalid;
+
+	@Setup
+	public void setUp() {
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+		validator = validatorFactory.getValidator();
+		valid = SyntheticCoins.generate(1, SyntheticCoins.SEED).get(0);
+		invalid = valid.toBuilder().name(" ").year(9999).price(-1).build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		validatorFactory.close();
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Coin>> validCoin() {
+		return validator.validate(valid);
+	}
+
+	/** Three violations, each with its message interpolated. */
+	@Benchmark
+	public Set<ConstraintViolation<Coin>> invalidCoin() {
+		return validator.validate(invalid);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Coin>> yearOnly() {
+		return validator.validateValue(Coin.class, "year", valid.getYear());
+	}
+}
@@ -0,0 +1,85 @@
+package com.asd.cointrack.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.asd.cointrack.config.StatsSketchProperties;
+import com.asd.cointrack.dto.CoinDimension;
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.CoinsPriceDistribution;
+import com.asd.cointrack.load.SyntheticCoins;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.service.CoinPriceSketches;
+
+/**
+ * Price distributions served by {@link CoinPriceSketches}: by rarity from the
+ * maintained sketches, filtered by streaming the matching coins into temporary
+ * sketches, and the per-write delta that keeps the sketches current.
+ * <p>
+ * The database is stubbed: every stream returns the whole synthetic dataset,
+ * so the filtered case measures the sketch updates of a full scan without the
+ * cost of the cursor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PriceSketchBenchmark {
+
+	/** Number of coins in the catalogue. */
+	@Param({ "100000", "1000000" })
+	public int size;
+
+	private CoinPriceSketches sketches;
+	private CoinSearchFilter filter;
+	private Coin before;
+	private Coin after;
+
+	@Setup
+	public void setUp() {
+		List<Coin> coins = SyntheticCoins.generate(size, SyntheticCoins.SEED);
+		MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+		when(mongoTemplate.stream(any(Query.class), eq(Coin.class))).thenAnswer(invocation -> coins.stream());
+		sketches = new CoinPriceSketches(mongoTemplate, new StatsSketchProperties(true, 0.01));
+		sketches.rebuild();
+
+		filter = new CoinSearchFilter(null, null, null, List.of(NumismaticRarity.R, NumismaticRarity.NC), null,
+				null, null, null, null, null);
+		before = coins.get(0);
+		after = before.toBuilder().price(before.getPrice() * 2).build();
+	}
+
+	@Benchmark
+	public List<CoinsPriceDistribution> distributionByDegree() {
+		return sketches.distribution(CoinDimension.DEGREE, List.of(50.0, 90.0, 99.0),
+				List.of(0.0, 10.0, 100.0, 1000.0, 10000.0, 100000.0), CoinSearchFilter.none());
+	}
+
+	@Benchmark
+	public List<CoinsPriceDistribution> distributionFiltered() {
+		return sketches.distribution(null, List.of(50.0, 90.0, 99.0),
+				List.of(0.0, 10.0, 100.0, 1000.0, 10000.0, 100000.0), filter);
+	}
+
+	@Benchmark
+	public void applyChange() {
+		sketches.applyChange(before, after);
+		sketches.applyChange(after, before);
+	}
+}
@@ -0,0 +1,99 @@
+package com.asd.cointrack.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.asd.cointrack.config.StatsColumnsProperties;
+import com.asd.cointrack.dto.CoinDimension;
+import com.asd.cointrack.dto.CoinMeasure;
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.CoinsHistogramBucket;
+import com.asd.cointrack.dto.CoinsPercentiles;
+import com.asd.cointrack.dto.CoinsPivotCell;
+import com.asd.cointrack.dto.CoinsStatsOverview;
+import com.asd.cointrack.load.SyntheticCoins;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.service.CoinStatsColumns;
+
+/**
+ * Analytics scans of the {@link CoinStatsColumns} snapshot: the overview used
+ * by {@code /stats/*} (unfiltered and filtered), a year by material pivot,
+ * price percentiles by rarity and a price histogram.
+ * <p>
+ * The snapshot starts from an empty load (the database is stubbed) and is
+ * then fed the synthetic dataset through the same delta path used by writes.
+ * The overview is computed without most expensive coins, which would be read
+ * from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatsColumnsBenchmark {
+
+	/** Number of coins in the catalogue. */
+	@Param({ "100000", "1000000" })
+	public int size;
+
+	private CoinStatsColumns columns;
+	private CoinSearchFilter filter;
+
+	@Setup
+	public void setUp() {
+		MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+		when(mongoTemplate.getCollectionName(Coin.class)).thenReturn("coins");
+		when(mongoTemplate.stream(any(Query.class), eq(Document.class), anyString()))
+				.thenAnswer(invocation -> Stream.empty());
+		columns = new CoinStatsColumns(mongoTemplate, new StatsColumnsProperties(true, 16384));
+		columns.rebuild();
+
+		SyntheticCoins.generate(size, SyntheticCoins.SEED).forEach(coin -> columns.applyChange(null, coin));
+		filter = new CoinSearchFilter(null, "arg", null, List.of(NumismaticRarity.R, NumismaticRarity.NC), null,
+				1800, 1950, 10.0, null, null);
+	}
+
+	@Benchmark
+	public CoinsStatsOverview overview() {
+		return columns.overview(CoinSearchFilter.none(), 0);
+	}
+
+	@Benchmark
+	public CoinsStatsOverview overviewFiltered() {
+		return columns.overview(filter, 0);
+	}
+
+	@Benchmark
+	public List<CoinsPivotCell> pivotYearByMaterial() {
+		return columns.pivot(CoinDimension.YEAR, CoinDimension.MATERIAL, CoinSearchFilter.none());
+	}
+
+	@Benchmark
+	public List<CoinsPercentiles> pricePercentilesByDegree() {
+		return columns.percentiles(CoinMeasure.PRICE, CoinDimension.DEGREE, List.of(50.0, 90.0, 99.0),
+				CoinSearchFilter.none());
+	}
+
+	@Benchmark
+	public List<CoinsHistogramBucket> priceHistogram() {
+		return columns.histogram(CoinMeasure.PRICE, 50, CoinSearchFilter.none());
+	}
+}
@@ -0,0 +1,95 @@
+package com.asd.cointrack.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.asd.cointrack.config.StatsColumnsProperties;
+import com.asd.cointrack.config.StatsSketchProperties;
+import com.asd.cointrack.config.StatsViewProperties;
+import com.asd.cointrack.dto.CoinsByDegreeStats;
+import com.asd.cointrack.dto.CoinsByMaterialStats;
+import com.asd.cointrack.dto.CoinsByYearStats;
+import com.asd.cointrack.load.SyntheticCoins;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.service.CoinPriceSketches;
+import com.asd.cointrack.service.CoinStatsColumns;
+import com.asd.cointrack.service.CoinStatsView;
+
+/**
+ * In-memory statistics served by {@code getStatsByYear}, {@code getStatsByDegree}
+ * and {@code getStatsByMaterial} once the {@link CoinStatsView} is ready, and
+ * the per-write delta that keeps them current.
+ * <p>
+ * The view starts from an empty rebuild (the database is stubbed) and is then
+ * fed the synthetic dataset through the same delta path used by writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatsViewBenchmark {
+
+	/** Number of coins in the catalogue. */
+	@Param({ "1000", "100000" })
+	public int size;
+
+	private CoinStatsView view;
+	private Coin before;
+	private Coin after;
+
+	@Setup
+	public void setUp() {
+		MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+		when(mongoTemplate.stream(any(Query.class), eq(Coin.class))).thenAnswer(invocation -> Stream.empty());
+		CoinStatsColumns columns = new CoinStatsColumns(mongoTemplate, new StatsColumnsProperties(false, 16384));
+		CoinPriceSketches priceSketches = new CoinPriceSketches(mongoTemplate, new StatsSketchProperties(false, 0.01));
+		view = new CoinStatsView(mongoTemplate,
+				new StatsViewProperties(true, Duration.ofMinutes(15), Duration.ofSeconds(5)), columns, priceSketches);
+		view.rebuild();
+
+		List<Coin> coins = SyntheticCoins.generate(size, SyntheticCoins.SEED);
+		coins.forEach(coin -> view.applyChange(null, coin));
+		before = coins.get(0);
+		after = before.toBuilder().year(before.getYear() + 1).price(before.getPrice() * 2).material("Oro").build();
+	}
+
+	@Benchmark
+	public List<CoinsByYearStats> byYear() {
+		return view.getStatsByYear();
+	}
+
+	@Benchmark
+	public List<CoinsByDegreeStats> byDegree() {
+		return view.getStatsByDegree();
+	}
+
+	@Benchmark
+	public List<CoinsByMaterialStats> byMaterial() {
+		return view.getStatsByMaterial();
+	}
+
+	/** An update moving a coin between groups, applied and reverted. */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public void applyUpdate() {
+		view.applyChange(before, after);
+		view.applyChange(after, before);
+	}
+}
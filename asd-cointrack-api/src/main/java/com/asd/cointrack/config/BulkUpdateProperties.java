@@ -0,0 +1,14 @@
+package com.asd.cointrack.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the id-based bulk coin updates.
+ *
+ * @param batchSize number of per-coin updates sent to the database in a single
+ *                  unordered bulk write
+ */
+@ConfigurationProperties(prefix = "cointrack.bulk-update")
+public record BulkUpdateProperties(@DefaultValue("1000") int batchSize) {
+}
@@ -0,0 +1,33 @@
+package com.asd.cointrack.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the in-process read-through cache for single coin and collection
+ * lookups.
+ * <p>
+ * The Caffeine specification (maximum size, TTL) and the cache names are set
+ * through the standard {@code spring.cache.*} properties; statistics are
+ * recorded so that hits, misses and evictions are published by the actuator
+ * under the {@code cache.*} metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Coins by id. */
+    public static final String COINS = "coins";
+
+    /** Audit information of coins by id. */
+    public static final String COIN_AUDIT = "coinAudit";
+
+    /** Collections by id, also used for the existence check of collection endpoints. */
+    public static final String COLLECTIONS = "collections";
+
+    /** The full list of collections, stored under a single key. */
+    public static final String COLLECTION_LIST = "collectionList";
+
+    /** Statistics of every collection, stored under a single key and dropped by any coin or collection write. */
+    public static final String COLLECTION_SUMMARIES = "collectionSummaries";
+}
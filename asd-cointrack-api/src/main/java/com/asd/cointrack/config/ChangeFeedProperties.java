@@ -0,0 +1,74 @@
+package com.asd.cointrack.config;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the feed propagating writes made by other API instances to
+ * the local caches and statistics view.
+ *
+ * @param mode                    how changes are detected
+ * @param nodeId                  identifier of this instance, key of its stored
+ *                                resume token; must be unique among the
+ *                                instances and stable across restarts.
+ *                                Defaults to the host name, required when
+ *                                the feed is on and it cannot be resolved
+ * @param checkpointInterval      minimum delay between two writes of the
+ *                                resume token
+ * @param retryDelay              delay before reopening a failed change stream
+ * @param minStatsRebuildInterval minimum delay between two statistics rebuilds
+ *                                caused by changes that cannot be applied as
+ *                                deltas
+ * @param pollInterval            delay between two polls in {@code POLLING}
+ *                                mode
+ * @param maxClockSkew            how far back each poll looks before the last
+ *                                modification seen, to tolerate instances
+ *                                whose clocks are behind
+ */
+@ConfigurationProperties(prefix = "cointrack.change-feed")
+public record ChangeFeedProperties(
+        @DefaultValue("OFF") Mode mode,
+        String nodeId,
+        @DefaultValue("PT1S") Duration checkpointInterval,
+        @DefaultValue("PT5S") Duration retryDelay,
+        @DefaultValue("PT5S") Duration minStatsRebuildInterval,
+        @DefaultValue("PT5S") Duration pollInterval,
+        @DefaultValue("PT5S") Duration maxClockSkew) {
+
+    public ChangeFeedProperties {
+        if (mode != Mode.OFF && (nodeId == null || nodeId.isBlank())) {
+            nodeId = localHostName();
+        }
+    }
+
+    /**
+     * Returns the host name, distinct for every replica of a container
+     * deployment, where {@code HOSTNAME} is often not exported to the JVM.
+     */
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(
+                    "cointrack.change-feed.node-id is required: the host name cannot be resolved", e);
+        }
+    }
+
+    /**
+     * Change detection strategy.
+     */
+    public enum Mode {
+        /** Single instance: no feed. */
+        OFF,
+        /** Change streams on a replica set or sharded cluster, polling on a standalone server. */
+        AUTO,
+        /** Change streams only (replica set or sharded cluster required). */
+        CHANGE_STREAM,
+        /** Periodic queries on the audit timestamps, for standalone servers. */
+        POLLING
+    }
+}
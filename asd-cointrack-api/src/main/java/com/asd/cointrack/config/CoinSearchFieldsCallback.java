@@ -0,0 +1,22 @@
+package com.asd.cointrack.config;
+
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.service.SearchTextNormalizer;
+
+/**
+ * Entity callback keeping the normalized search fields of a {@link Coin} in
+ * sync with {@code name} and {@code material} every time the entity is written.
+ */
+@Component
+public class CoinSearchFieldsCallback implements BeforeConvertCallback<Coin> {
+
+    @Override
+    public Coin onBeforeConvert(Coin coin, String collection) {
+        coin.setSearchName(SearchTextNormalizer.normalize(coin.getName()));
+        coin.setSearchMaterial(SearchTextNormalizer.normalize(coin.getMaterial()));
+        return coin;
+    }
+}
@@ -0,0 +1,14 @@
+package com.asd.cointrack.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the bulk coin import.
+ *
+ * @param batchSize number of coins sent to the database in a single unordered
+ *                  bulk write
+ */
+@ConfigurationProperties(prefix = "cointrack.import")
+public record ImportProperties(@DefaultValue("1000") int batchSize) {
+}
@@ -0,0 +1,22 @@
+package com.asd.cointrack.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MongoDB client configuration applying {@link MongoPoolProperties} on top of
+ * the settings derived from {@code spring.data.mongodb.*}.
+ */
+@Configuration
+public class MongoClientConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(MongoPoolProperties properties) {
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(properties.maxPoolSize())
+                .maxWaitTime(properties.maxWaitTime().toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
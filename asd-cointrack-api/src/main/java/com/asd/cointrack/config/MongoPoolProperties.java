@@ -0,0 +1,20 @@
+package com.asd.cointrack.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Connection pool settings of the MongoDB client.
+ *
+ * @param maxPoolSize maximum number of connections; with virtual threads the
+ *                    pool, not the request thread pool, bounds the number of
+ *                    concurrent queries
+ * @param maxWaitTime maximum time a request waits for a free connection
+ */
+@ConfigurationProperties(prefix = "cointrack.mongo")
+public record MongoPoolProperties(
+        @DefaultValue("100") int maxPoolSize,
+        @DefaultValue("PT2M") Duration maxWaitTime) {
+}
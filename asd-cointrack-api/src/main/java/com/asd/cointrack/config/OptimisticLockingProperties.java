@@ -0,0 +1,22 @@
+package com.asd.cointrack.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the retries of server-side writes that lose an optimistic
+ * locking race.
+ *
+ * @param maxAttempts    number of attempts, including the first one
+ * @param initialBackoff upper bound of the random delay before the first retry,
+ *                       doubled at every further retry
+ * @param maxBackoff     upper bound of the random delay before any retry
+ */
+@ConfigurationProperties(prefix = "cointrack.optimistic-locking")
+public record OptimisticLockingProperties(
+        @DefaultValue("10") int maxAttempts,
+        @DefaultValue("PT0.01S") Duration initialBackoff,
+        @DefaultValue("PT0.5S") Duration maxBackoff) {
+}
@@ -0,0 +1,12 @@
+package com.asd.cointrack.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs (statistics reconciliation, ...).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
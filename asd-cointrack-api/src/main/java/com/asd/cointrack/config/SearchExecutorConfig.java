@@ -0,0 +1,43 @@
+package com.asd.cointrack.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor of the total counts that the advanced search runs alongside the
+ * page query.
+ * <p>
+ * The counts get their own bounded pool rather than the shared application
+ * task executor, which also runs the MVC async requests (streaming exports)
+ * and queues without limit: a count waiting behind a long export would make
+ * the search slower than counting sequentially. When every thread is busy and
+ * the queue ({@code cointrack.search.count-queue-capacity}, none by default)
+ * is full, the count runs inline on the request thread, as before the
+ * parallel count was introduced.
+ */
+@Configuration
+public class SearchExecutorConfig {
+
+    /** Bean name of the search count executor. */
+    public static final String SEARCH_COUNT_EXECUTOR = "searchCountExecutor";
+
+    // Not a default candidate, so the auto-configured application task executor does not back off
+    @Bean(name = SEARCH_COUNT_EXECUTOR, defaultCandidate = false)
+    public ThreadPoolTaskExecutor searchCountExecutor(SearchProperties properties, Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.countThreads());
+        executor.setMaxPoolSize(properties.countThreads());
+        executor.setQueueCapacity(properties.countQueueCapacity());
+        executor.setThreadNamePrefix("search-count-");
+        // Unlike CallerRunsPolicy, also runs the count after shutdown instead of dropping it
+        executor.setRejectedExecutionHandler((task, pool) -> task.run());
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("search-count-").getVirtualThreadFactory());
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,21 @@
+package com.asd.cointrack.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the coin search endpoints.
+ *
+ * @param countCap           maximum number of documents counted when an
+ *                           estimated total is requested for a filtered search
+ * @param countThreads       threads counting the total of an advanced search
+ *                           while the page is read
+ * @param countQueueCapacity counts waiting for a thread; beyond it the count
+ *                           runs on the request thread
+ */
+@ConfigurationProperties(prefix = "cointrack.search")
+public record SearchProperties(
+        @DefaultValue("10000") int countCap,
+        @DefaultValue("16") int countThreads,
+        @DefaultValue("0") int countQueueCapacity) {
+}
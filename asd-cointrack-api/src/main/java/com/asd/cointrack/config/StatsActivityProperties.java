@@ -0,0 +1,24 @@
+package com.asd.cointrack.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the catalogue activity statistics.
+ *
+ * @param maxBuckets      maximum number of buckets a single request can span
+ * @param cacheSize       maximum number of closed buckets kept in memory over
+ *                        all granularities and time zones; 0 disables the
+ *                        cache
+ * @param closedBucketTtl age after which a cached closed bucket is
+ *                        recomputed, bounding the staleness caused by writes
+ *                        of other instances or made outside the API
+ */
+@ConfigurationProperties(prefix = "cointrack.stats.activity")
+public record StatsActivityProperties(
+        @DefaultValue("1000") int maxBuckets,
+        @DefaultValue("100000") int cacheSize,
+        @DefaultValue("PT1H") Duration closedBucketTtl) {
+}
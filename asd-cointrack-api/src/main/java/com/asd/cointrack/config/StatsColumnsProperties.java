@@ -0,0 +1,19 @@
+package com.asd.cointrack.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the in-memory columnar snapshot of the coins used by the
+ * analytics queries.
+ *
+ * @param enabled   whether the snapshot is loaded and maintained; it holds
+ *                  every coin in memory (roughly 150 bytes each)
+ * @param chunkSize number of rows scanned by a single fork-join task; smaller
+ *                  snapshots are scanned by the calling thread
+ */
+@ConfigurationProperties(prefix = "cointrack.stats.columns")
+public record StatsColumnsProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("16384") int chunkSize) {
+}
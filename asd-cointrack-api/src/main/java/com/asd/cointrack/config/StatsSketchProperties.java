@@ -0,0 +1,21 @@
+package com.asd.cointrack.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the price quantile sketches behind the price distribution
+ * statistics.
+ *
+ * @param enabled          whether the unfiltered sketches are kept in memory
+ *                         and maintained; filtered requests always stream the
+ *                         matching prices into temporary sketches
+ * @param relativeAccuracy relative error bound of the reported percentiles
+ *                         (between 0.0001 and 0.1); a sketch takes roughly
+ *                         {@code 8 * ln(1e14) / (2 * relativeAccuracy)} bytes
+ */
+@ConfigurationProperties(prefix = "cointrack.stats.sketch")
+public record StatsSketchProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0.01") double relativeAccuracy) {
+}
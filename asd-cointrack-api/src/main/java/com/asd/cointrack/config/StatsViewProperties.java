@@ -0,0 +1,24 @@
+package com.asd.cointrack.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the incrementally maintained coin statistics view.
+ *
+ * @param enabled            whether statistics endpoints are served from the
+ *                           in-memory view instead of aggregation queries
+ * @param reconcileInterval  delay between two full rebuilds correcting any
+ *                           drift of the incremental counters
+ * @param rebuildDelay       delay after which a requested rebuild (bulk
+ *                           update, change rejected by the columnar snapshot)
+ *                           runs in the background
+ */
+@ConfigurationProperties(prefix = "cointrack.stats.view")
+public record StatsViewProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("PT15M") Duration reconcileInterval,
+        @DefaultValue("PT5S") Duration rebuildDelay) {
+}
@@ -0,0 +1,35 @@
+package com.asd.cointrack.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports whether the {@code virtual-threads} profile is actually effective.
+ * <p>
+ * {@code spring.threads.virtual.enabled} is silently ignored on runtimes older
+ * than Java 21, in which case Tomcat and the application task executor keep
+ * using platform thread pools.
+ */
+@Component
+@Profile("virtual-threads")
+public class VirtualThreadsCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsCheck.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Requests, async counts and background tasks run on virtual threads");
+        } else {
+            log.warn("Profile 'virtual-threads' is active but Java {} does not support virtual threads; "
+                    + "running on platform thread pools (Java 21+ required)", Runtime.version().feature());
+        }
+    }
+}
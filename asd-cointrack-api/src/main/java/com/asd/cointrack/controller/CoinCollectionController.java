@@ -2,6 +2,7 @@ package com.asd.cointrack.controller;
 
 import java.util.List;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -14,12 +15,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.asd.cointrack.dto.CoinCollectionSummary;
+import com.asd.cointrack.dto.CoinView;
+import com.asd.cointrack.dto.CursorPage;
+import com.asd.cointrack.dto.DocumentVersion;
 import com.asd.cointrack.model.Coin;
 import com.asd.cointrack.model.CoinCollection;
 import com.asd.cointrack.service.CoinCollectionService;
+import com.asd.cointrack.service.CoinService;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -28,36 +37,81 @@ import lombok.RequiredArgsConstructor;
  * access to the coins belonging to each collection.
  */
 @Validated
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/collections")
 @RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Services are injected Spring beans, not exposed outside")
 public class CoinCollectionController {
 
     private final CoinCollectionService collectionService;
+    private final CoinService coinService;
 
     /**
-     * Returns all collections configured in the system.
+     * Returns all collections configured in the system, with a weak
+     * {@code ETag}.
      *
-     * @return list of collections
+     * @param request current request, for {@code If-None-Match}
+     * @return list of collections, or 304 if unchanged
      */
     @GetMapping
-    public List<CoinCollection> getAllCollections() {
+    public List<CoinCollection> getAllCollections(WebRequest request) {
+        if (request.checkNotModified(ETags.weak(collectionService.getCollectionsVersion()))) {
+            return null;
+        }
         return collectionService.getAllCollections();
     }
 
     /**
-     * Returns details of a single collection.
+     * Returns every collection with the number of its coins, their total and
+     * average price and their year span, computed in a single aggregation.
      *
-     * @param id collection identifier
-     * @return 200 with collection body or 404 if not found
+     * @return collection summaries sorted by name, empty collections included
+     */
+    @GetMapping("/summary")
+    public List<CoinCollectionSummary> getCollectionSummaries() {
+        return collectionService.getCollectionSummaries();
+    }
+
+    /**
+     * Returns details of a single collection, with a strong {@code ETag} and a
+     * {@code Last-Modified} date built from the cached collection. Conditional
+     * requests read the collection's version from the database, are answered
+     * from it alone when the client copy is current and refresh a stale cached
+     * copy otherwise.
+     *
+     * @param id      collection identifier
+     * @param request current request, for {@code If-None-Match} and
+     *                {@code If-Modified-Since}
+     * @return 200 with collection body, 304 if unchanged or 404 if not found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CoinCollection> getCollectionById(@PathVariable String id) {
-        CoinCollection collection = collectionService.getCollectionById(id);
+    public ResponseEntity<CoinCollection> getCollectionById(@PathVariable String id, WebRequest request) {
+        CoinCollection collection;
+        if (ETags.isConditionalGet(request)) {
+            DocumentVersion version = collectionService.getCollectionVersion(id);
+            if (version == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(ETags.strong(version), version.lastModified().toEpochMilli())) {
+                return null;
+            }
+            collection = collectionService.getCollectionById(id);
+            if (collection != null
+                    && !version.equals(DocumentVersion.of(collection.getVersion(), collection.getUpdatedAt()))) {
+                collection = collectionService.reloadCollection(id);
+            }
+        } else {
+            collection = collectionService.getCollectionById(id);
+        }
         if (collection == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(collection);
+        DocumentVersion current = DocumentVersion.of(collection.getVersion(), collection.getUpdatedAt());
+        return ResponseEntity.ok()
+                .eTag(ETags.strong(current))
+                .lastModified(current.lastModified())
+                .body(collection);
     }
 
     /**
@@ -76,20 +130,69 @@ public class CoinCollectionController {
      * Returns a paginated list of coins belonging to the given collection.
      *
      * @param id       collection identifier
+     * @param view     {@code FULL} coins (default) or {@code SUMMARY} projections
      * @param pageable pagination and sorting information
-     * @return 200 with page of coins or 404 if collection does not exist
+     * @param request  current request, for {@code If-None-Match}
+     * @return 200 with page of coins, 304 if the coins are unchanged or 404 if
+     *         collection does not exist
      */
     @GetMapping("/{id}/coins")
-    public ResponseEntity<Page<Coin>> getCoinsByCollection(
+    public ResponseEntity<Page<?>> getCoinsByCollection(
             @PathVariable String id,
-            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
+            @RequestParam(defaultValue = "FULL") CoinView view,
+            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
 
         CoinCollection collection = collectionService.getCollectionById(id);
         if (collection == null) {
             return ResponseEntity.notFound().build();
         }
+        if (coinsNotModified(request)) {
+            return null;
+        }
 
-        Page<Coin> coins = collectionService.getCoinsByCollection(id, pageable);
+        Page<?> coins = collectionService.getCoinsByCollection(id, pageable, view.getType());
         return ResponseEntity.ok(coins);
     }
+
+    /**
+     * Returns a slice of the coins belonging to the given collection using keyset
+     * pagination, without computing the total count.
+     *
+     * @param id       collection identifier
+     * @param after    optional cursor returned as {@code next} by the previous
+     *                 slice
+     * @param pageable slice size and sort ({@code name}, {@code price} or
+     *                 {@code year})
+     * @param request  current request, for {@code If-None-Match}
+     * @return 200 with slice of coins, 304 if the coins are unchanged or 404 if
+     *         collection does not exist
+     */
+    @GetMapping("/{id}/coins/scroll")
+    public ResponseEntity<CursorPage<Coin>> scrollCoinsByCollection(
+            @PathVariable String id,
+            @RequestParam(required = false) String after,
+            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
+
+        CoinCollection collection = collectionService.getCollectionById(id);
+        if (collection == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (coinsNotModified(request)) {
+            return null;
+        }
+
+        return ResponseEntity.ok(collectionService.scrollCoinsByCollection(id, after, pageable));
+    }
+
+    /**
+     * Answers a conditional request for coins of a collection from the
+     * catalogue fingerprint, the same weak {@code ETag} of every coin listing.
+     *
+     * @return {@code true} if the client copy is current and 304 has been set
+     */
+    private boolean coinsNotModified(WebRequest request) {
+        return request.checkNotModified(ETags.weak(coinService.getCoinsVersion()));
+    }
 }
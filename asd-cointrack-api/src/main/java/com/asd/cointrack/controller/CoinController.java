@@ -1,16 +1,27 @@
 package com.asd.cointrack.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -18,15 +29,40 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.asd.cointrack.dto.ActivityGranularity;
 import com.asd.cointrack.dto.CoinAuditInfo;
+import com.asd.cointrack.dto.CoinBatchResult;
+import com.asd.cointrack.dto.CoinBulkUpdateRequest;
+import com.asd.cointrack.dto.CoinBulkUpdateResult;
+import com.asd.cointrack.dto.CoinImportReport;
+import com.asd.cointrack.dto.CoinDimension;
+import com.asd.cointrack.dto.CoinMeasure;
+import com.asd.cointrack.dto.CoinPatch;
+import com.asd.cointrack.dto.CoinsActivityBucket;
 import com.asd.cointrack.dto.CoinsByDegreeStats;
 import com.asd.cointrack.dto.CoinsByYearStats;
 import com.asd.cointrack.dto.CoinsByMaterialStats;
+import com.asd.cointrack.dto.CoinsHistogramBucket;
+import com.asd.cointrack.dto.CoinsPercentiles;
+import com.asd.cointrack.dto.CoinsPivotCell;
+import com.asd.cointrack.dto.CoinsPriceDistribution;
 import com.asd.cointrack.dto.CoinsSummaryStats;
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.CoinView;
+import com.asd.cointrack.dto.CoinsStatsOverview;
+import com.asd.cointrack.dto.CountMode;
+import com.asd.cointrack.dto.CursorPage;
+import com.asd.cointrack.dto.DocumentVersion;
+import com.asd.cointrack.dto.ExportFormat;
+import com.asd.cointrack.dto.TextMatchMode;
 import com.asd.cointrack.model.Coin;
 import com.asd.cointrack.model.NumismaticRarity;
 import com.asd.cointrack.model.OptionConservation;
+import com.asd.cointrack.service.CoinExportService;
+import com.asd.cointrack.service.CoinImportService;
 import com.asd.cointrack.service.CoinService;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -34,6 +70,8 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -44,39 +82,106 @@ import lombok.RequiredArgsConstructor;
  * results or typed DTOs to support rich client-side usage.
  */
 @Validated
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/coins")
 @RequiredArgsConstructor
-@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "coinService is an injected Spring bean, not exposed outside")
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Services are injected Spring beans, not exposed outside")
 public class CoinController {
 
     private final CoinService coinService;
+    private final CoinImportService coinImportService;
+    private final CoinExportService coinExportService;
 
     /**
      * Returns a paginated and sortable list of all coins.
      *
+     * @param view     {@code FULL} coins (default) or {@code SUMMARY} projections
      * @param pageable pagination and sorting information
+     * @param request  current request, for {@code If-None-Match}
      * @return page of coins
      */
     @GetMapping
-    public Page<Coin> getAllCoins(
-            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
-        return coinService.getAllCoins(pageable);
+    public Page<?> getAllCoins(
+            @RequestParam(defaultValue = "FULL") CoinView view,
+            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
+        if (catalogueNotModified(request)) {
+            return null;
+        }
+        return coinService.getAllCoins(pageable, view.getType());
     }
 
     /**
-     * Returns details of a single coin identified by its id.
+     * Returns a slice of all coins using keyset pagination: cost per slice is
+     * constant regardless of depth and no total count is computed.
      *
-     * @param id coin identifier
-     * @return 200 with coin body or 404 if not found
+     * @param after    optional cursor returned as {@code next} by the previous
+     *                 slice
+     * @param pageable slice size and sort ({@code name}, {@code price} or
+     *                 {@code year})
+     * @param request  current request, for {@code If-None-Match}
+     * @return slice of coins with the cursor of the next one
+     */
+    @GetMapping("/scroll")
+    public CursorPage<Coin> scrollCoins(
+            @RequestParam(required = false) String after,
+            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
+        if (catalogueNotModified(request)) {
+            return null;
+        }
+        return coinService.scrollCoins(after, pageable);
+    }
+
+    /**
+     * Returns details of a single coin identified by its id, with a strong
+     * {@code ETag} and a {@code Last-Modified} date built from the cached
+     * coin. Conditional requests read the coin's version from the database,
+     * are answered from it alone when the client copy is current and refresh
+     * a stale cached copy otherwise.
+     *
+     * @param id      coin identifier
+     * @param request current request, for {@code If-None-Match} and
+     *                {@code If-Modified-Since}
+     * @return 200 with coin body, 304 if unchanged or 404 if not found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Coin> getCoinById(@PathVariable String id) {
+    public ResponseEntity<Coin> getCoinById(@PathVariable String id, WebRequest request) {
+        if (!ETags.isConditionalGet(request)) {
+            Coin coin = coinService.getCoinById(id);
+            return coin == null ? ResponseEntity.notFound().build() : withValidators(ResponseEntity.ok(), coin);
+        }
+        DocumentVersion version = coinService.getCoinVersion(id);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(ETags.strong(version), version.lastModified().toEpochMilli())) {
+            return null;
+        }
         Coin coin = coinService.getCoinById(id);
+        if (coin != null && !version.equals(DocumentVersion.of(coin.getVersion(), coin.getUpdatedAt()))) {
+            coin = coinService.reloadCoin(id);
+        }
         if (coin == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(coin);
+        return withValidators(ResponseEntity.ok(), coin);
+    }
+
+    /**
+     * Returns many coins by id with a single query, for clients that resolve a
+     * list of references at once instead of one request per coin.
+     *
+     * @param ids  between 1 and 1000 coin identifiers; duplicates are returned
+     *             once
+     * @param view {@code FULL} coins (default) or {@code SUMMARY} projections
+     * @return 200 with the coins in request order and the ids not found
+     */
+    @PostMapping("/by-ids")
+    public CoinBatchResult getCoinsByIds(@RequestBody @Size(min = 1, max = 1000) List<@NotBlank String> ids,
+            @RequestParam(defaultValue = "FULL") CoinView view) {
+        return coinService.getCoinsByIds(ids, view.getType());
     }
 
     /**
@@ -101,24 +206,57 @@ public class CoinController {
      *
      * @param name     optional exact name filter
      * @param year     optional year filter
+     * @param view     {@code FULL} coins (default) or {@code SUMMARY} projections
      * @param pageable pagination and sorting information
+     * @param request  current request, for {@code If-None-Match}
      * @return page of coins matching the criteria
      */
     @GetMapping("/search")
-    public Page<Coin> searchCoins(
+    public Page<?> searchCoins(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) Integer year,
-            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
+            @RequestParam(defaultValue = "FULL") CoinView view,
+            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
+        if (catalogueNotModified(request)) {
+            return null;
+        }
 
-        return coinService.searchCoins(name, year, pageable);
+        return coinService.searchCoins(name, year, pageable, view.getType());
+    }
+
+    /**
+     * Keyset-paginated variant of {@code /search}.
+     *
+     * @param name     optional exact name filter
+     * @param year     optional year filter
+     * @param after    optional cursor of the previous slice
+     * @param pageable slice size and sort
+     * @param request  current request, for {@code If-None-Match}
+     * @return slice of coins matching the criteria
+     */
+    @GetMapping("/search/scroll")
+    public CursorPage<Coin> scrollSearchCoins(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String after,
+            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
+        if (catalogueNotModified(request)) {
+            return null;
+        }
+
+        return coinService.scrollSearchCoins(name, year, after, pageable);
     }
 
     /**
      * Performs an advanced search combining textual, enum-based and numeric range
      * filters, returning a paginated list of coins.
      *
-     * @param name                   optional case-insensitive name fragment
-     * @param material               optional case-insensitive material fragment
+     * @param name                   optional case- and accent-insensitive name
+     *                               fragment
+     * @param material               optional case- and accent-insensitive
+     *                               material fragment
      * @param degree                 optional single rarity filter
      * @param degreesIn              optional list of rarities to include
      * @param conservationObverseIn  optional list of obverse conservation levels
@@ -126,11 +264,20 @@ public class CoinController {
      * @param maxYear                optional maximum minting year (inclusive)
      * @param minPrice               optional minimum price (inclusive)
      * @param maxPrice               optional maximum price (inclusive)
+     * @param textMatch              matching mode of {@code name} and
+     *                               {@code material}: {@code CONTAINS} (default)
+     *                               or {@code PREFIX}
+     * @param count                  how the total is computed: {@code EXACT}
+     *                               (default), {@code ESTIMATED} or {@code NONE}
+     *                               (synthetic total, see {@link CountMode#NONE})
+     * @param view                   {@code FULL} coins (default) or
+     *                               {@code SUMMARY} projections
      * @param pageable               pagination and sorting information
+     * @param request                current request, for {@code If-None-Match}
      * @return page of coins matching the advanced criteria
      */
     @GetMapping("/advanced-search")
-    public Page<Coin> advancedSearch(
+    public Page<?> advancedSearch(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String material,
             @RequestParam(required = false) NumismaticRarity degree,
@@ -140,10 +287,41 @@ public class CoinController {
             @RequestParam(required = false) @Min(0) Integer maxYear,
             @RequestParam(required = false) @DecimalMin("0.0") Double minPrice,
             @RequestParam(required = false) @DecimalMin("0.0") Double maxPrice,
-            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
+            @RequestParam(defaultValue = "CONTAINS") TextMatchMode textMatch,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @RequestParam(defaultValue = "FULL") CoinView view,
+            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
+        if (catalogueNotModified(request)) {
+            return null;
+        }
+
+        CoinSearchFilter filter = new CoinSearchFilter(name, material, degree, degreesIn, conservationObverseIn,
+                minYear, maxYear, minPrice, maxPrice, textMatch);
+        return coinService.advancedSearch(filter, pageable, count, view.getType());
+    }
+
+    /**
+     * Keyset-paginated variant of {@code /advanced-search}, accepting the same
+     * filters.
+     *
+     * @param filter   validated search filter
+     * @param after    optional cursor of the previous slice
+     * @param pageable slice size and sort
+     * @param request  current request, for {@code If-None-Match}
+     * @return slice of coins matching the advanced criteria
+     */
+    @GetMapping("/advanced-search/scroll")
+    public CursorPage<Coin> scrollAdvancedSearch(
+            @Valid CoinSearchFilter filter,
+            @RequestParam(required = false) String after,
+            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable,
+            WebRequest request) {
+        if (catalogueNotModified(request)) {
+            return null;
+        }
 
-        return coinService.advancedSearch(name, material, degree, degreesIn, conservationObverseIn,
-                minYear, maxYear, minPrice, maxPrice, pageable);
+        return coinService.scrollAdvancedSearch(filter, after, pageable);
     }
 
     /**
@@ -158,20 +336,153 @@ public class CoinController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * Streams all coins matching the optional advanced search filters as NDJSON
+     * or CSV, reading them through a database cursor instead of pages.
+     *
+     * @param filter validated search filter
+     * @param format output format (NDJSON by default)
+     * @return 200 with the exported coins as an attachment
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCoins(
+            @Valid CoinSearchFilter filter,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        StreamingResponseBody body = coinExportService.export(filter, format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("coins." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * Imports a JSON array of coins with batched bulk inserts. Invalid records
+     * are skipped and listed in the report.
+     *
+     * @param body request body
+     * @return 200 with the import report
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CoinImportReport importCoins(InputStream body) throws IOException {
+        return coinImportService.importJsonArray(body);
+    }
+
+    /**
+     * Imports coins sent as newline-delimited JSON, one coin per line.
+     *
+     * @param body request body
+     * @return 200 with the import report
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public CoinImportReport importCoinsNdjson(InputStream body) throws IOException {
+        return coinImportService.importNdjson(body);
+    }
+
     /**
      * Updates an existing coin replacing its fields with the payload provided.
+     * With {@code If-Match} (or {@code If-Unmodified-Since}) the update is only
+     * applied if the coin has not changed since the client read it.
      *
-     * @param id   coin identifier
-     * @param coin validated coin payload
-     * @return 200 with updated coin or 404 if the coin does not exist
+     * @param id      coin identifier
+     * @param coin    validated coin payload
+     * @param request current request, for {@code If-Match} and
+     *                {@code If-Unmodified-Since}
+     * @return 200 with updated coin and its new {@code ETag}, 404 if the coin
+     *         does not exist, 412 if it has been modified meanwhile or 409 if
+     *         an unconditional update conflicts with another write
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Coin> updateCoin(@PathVariable String id, @Valid @RequestBody Coin coin) {
-        Coin updated = coinService.updateCoin(id, coin);
+    public ResponseEntity<Coin> updateCoin(@PathVariable String id, @Valid @RequestBody Coin coin,
+            WebRequest request) {
+        Coin updated;
+        if (ETags.isConditionalWrite(request)) {
+            DocumentVersion expected = coinService.getCoinVersion(id);
+            if (expected == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(ETags.strong(expected), expected.lastModified().toEpochMilli())) {
+                return null;
+            }
+            try {
+                updated = coinService.updateCoin(id, coin, expected.version());
+            } catch (OptimisticLockingFailureException e) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        } else {
+            updated = coinService.updateCoin(id, coin);
+        }
         if (updated == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(updated);
+        return withValidators(ResponseEntity.ok(), updated);
+    }
+
+    /**
+     * Partially updates a coin, writing only the supplied fields. Fields omitted
+     * or set to {@code null} are left unchanged, so a field cannot be cleared
+     * with a patch: replace the coin with {@code PUT} instead. With
+     * {@code If-Match} (or {@code If-Unmodified-Since}) the patch is only
+     * applied if the coin has not changed since the client read it.
+     *
+     * @param id      coin identifier
+     * @param patch   fields to change
+     * @param request current request, for {@code If-Match} and
+     *                {@code If-Unmodified-Since}
+     * @return 200 with updated coin and its new {@code ETag}, 404 if the coin
+     *         does not exist or 412 if it has been modified meanwhile
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Coin> patchCoin(@PathVariable String id, @RequestBody CoinPatch patch,
+            WebRequest request) {
+        Coin patched;
+        if (ETags.isConditionalWrite(request)) {
+            DocumentVersion expected = coinService.getCoinVersion(id);
+            if (expected == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(ETags.strong(expected), expected.lastModified().toEpochMilli())) {
+                return null;
+            }
+            try {
+                patched = coinService.patchCoin(id, patch, expected.version());
+            } catch (OptimisticLockingFailureException e) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+        } else {
+            patched = coinService.patchCoin(id, patch);
+        }
+        if (patched == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return withValidators(ResponseEntity.ok(), patched);
+    }
+
+    /**
+     * Updates every coin matching a filter in a single operation, setting the
+     * same fields and/or multiplying the price by a factor.
+     *
+     * @param request validated filter, fields to set and price factor
+     * @return 200 with matched and modified counts
+     */
+    @PostMapping("/bulk-update")
+    public CoinBulkUpdateResult bulkUpdate(@Valid @RequestBody CoinBulkUpdateRequest request) {
+        return coinService.bulkUpdate(request);
+    }
+
+    /**
+     * Applies a different partial update to each listed coin.
+     *
+     * @param patches fields to change, keyed by coin id
+     * @return 200 with matched and modified counts
+     */
+    @PostMapping("/bulk-update/by-id")
+    public CoinBulkUpdateResult bulkUpdateByIds(@RequestBody Map<String, CoinPatch> patches) {
+        return coinService.bulkUpdateByIds(patches);
     }
 
     /**
@@ -226,6 +537,123 @@ public class CoinController {
         return coinService.getStatsByMaterial();
     }
 
+    /**
+     * Returns summary, per-year, per-degree, per-material statistics and the
+     * most expensive coins computed in a single database round trip, optionally
+     * scoped by the same filters accepted by {@code /advanced-search}.
+     *
+     * @param filter validated search filter
+     * @param limit  maximum number of most expensive coins to return (1-100)
+     * @return statistics overview DTO
+     */
+    @GetMapping("/stats/overview")
+    public CoinsStatsOverview getStatsOverview(
+            @Valid CoinSearchFilter filter,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+        return coinService.getStatsOverview(filter, limit);
+    }
+
+    /**
+     * Groups the coins matching the filter by one or two dimensions, with count
+     * and price totals per non-empty cell. Served by the in-memory columnar
+     * snapshot ({@code cointrack.stats.columns.enabled}).
+     *
+     * @param rows    row dimension
+     * @param columns optional column dimension
+     * @param filter  validated search filter, without {@code name}
+     * @return cells ordered by row then column, 503 if the snapshot is not
+     *         available
+     */
+    @GetMapping("/stats/pivot")
+    public List<CoinsPivotCell> getStatsPivot(
+            @RequestParam CoinDimension rows,
+            @RequestParam(required = false) CoinDimension columns,
+            @Valid CoinSearchFilter filter) {
+        return coinService.getStatsPivot(rows, columns, filter);
+    }
+
+    /**
+     * Returns exact percentiles of a measure over the coins matching the
+     * filter, optionally per group. Served by the in-memory columnar snapshot.
+     *
+     * @param measure     measure, price by default
+     * @param by          optional grouping dimension
+     * @param percentiles percentages between 0 and 100 (at most 20)
+     * @param filter      validated search filter, without {@code name}
+     * @return one entry per non-empty group, 503 if the snapshot is not
+     *         available
+     */
+    @GetMapping("/stats/percentiles")
+    public List<CoinsPercentiles> getStatsPercentiles(
+            @RequestParam(defaultValue = "PRICE") CoinMeasure measure,
+            @RequestParam(required = false) CoinDimension by,
+            @RequestParam(defaultValue = "50,90,99") List<Double> percentiles,
+            @Valid CoinSearchFilter filter) {
+        return coinService.getStatsPercentiles(measure, by, percentiles, filter);
+    }
+
+    /**
+     * Returns an equal-width histogram of a measure over the coins matching the
+     * filter. Served by the in-memory columnar snapshot.
+     *
+     * @param measure measure, price by default
+     * @param buckets number of buckets (1-1000)
+     * @param filter  validated search filter, without {@code name}
+     * @return buckets in ascending order, 503 if the snapshot is not available
+     */
+    @GetMapping("/stats/histogram")
+    public List<CoinsHistogramBucket> getStatsHistogram(
+            @RequestParam(defaultValue = "PRICE") CoinMeasure measure,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(1000) int buckets,
+            @Valid CoinSearchFilter filter) {
+        return coinService.getStatsHistogram(measure, buckets, filter);
+    }
+
+    /**
+     * Returns the price distribution of the coins matching the filter: estimated
+     * percentiles and a histogram between the given bounds, optionally per
+     * rarity or conservation level. Every price is within the relative error
+     * reported by the response.
+     *
+     * @param by          grouping dimension ({@code DEGREE},
+     *                    {@code CONSERVATION_OBVERSE} or
+     *                    {@code CONSERVATION_REVERSE}), none by default
+     * @param percentiles percentages between 0 and 100 (1-20 values)
+     * @param bounds      increasing, non-negative histogram bounds (1-50
+     *                    values)
+     * @param filter      validated search filter
+     * @return one entry per non-empty group
+     */
+    @GetMapping("/stats/price-distribution")
+    public List<CoinsPriceDistribution> getPriceDistribution(
+            @RequestParam(required = false) CoinDimension by,
+            @RequestParam(defaultValue = "50,90,99") List<Double> percentiles,
+            @RequestParam(defaultValue = "0,10,100,1000,10000,100000") List<Double> bounds,
+            @Valid CoinSearchFilter filter) {
+        return coinService.getPriceDistribution(by, percentiles, bounds, filter);
+    }
+
+    /**
+     * Returns the catalogue activity per day, week or month: coins added, their
+     * total price and coins updated. Closed buckets are served from a cache.
+     *
+     * @param granularity bucket width, {@code DAY} by default
+     * @param from        start of the range (ISO-8601 instant), by default the
+     *                    30 buckets ending at {@code to}
+     * @param to          end of the range (exclusive), now by default
+     * @param zone        time zone of the bucket boundaries, {@code UTC} by
+     *                    default
+     * @return every bucket of the range in chronological order
+     */
+    @GetMapping("/stats/activity")
+    public List<CoinsActivityBucket> getActivityStats(
+            @RequestParam(defaultValue = "DAY") ActivityGranularity granularity,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "UTC") ZoneId zone) {
+        return coinService.getActivityStats(granularity, from, to, zone);
+    }
+
     /**
      * Returns the most expensive coins, ordered by price in descending order.
      *
@@ -236,4 +664,23 @@ public class CoinController {
     public List<Coin> getTopExpensiveCoins(@RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
         return coinService.getTopExpensiveCoins(limit);
     }
+
+    /**
+     * Answers a conditional listing request from the catalogue fingerprint,
+     * setting the weak {@code ETag} shared by every coin listing. The
+     * fingerprint depends on the clocks of the writers (see
+     * {@link com.asd.cointrack.dto.DatasetVersion}), hence the weak validator.
+     * It is kept in memory between writes, so listings only query it after a
+     * change.
+     *
+     * @return {@code true} if the client copy is current and 304 has been set
+     */
+    private boolean catalogueNotModified(WebRequest request) {
+        return request.checkNotModified(ETags.weak(coinService.getCoinsVersion()));
+    }
+
+    private static ResponseEntity<Coin> withValidators(ResponseEntity.BodyBuilder response, Coin coin) {
+        DocumentVersion version = DocumentVersion.of(coin.getVersion(), coin.getUpdatedAt());
+        return response.eTag(ETags.strong(version)).lastModified(version.lastModified()).body(coin);
+    }
 }
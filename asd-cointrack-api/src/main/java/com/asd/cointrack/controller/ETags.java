@@ -0,0 +1,69 @@
+package com.asd.cointrack.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+import com.asd.cointrack.dto.DatasetVersion;
+import com.asd.cointrack.dto.DocumentVersion;
+
+/**
+ * Validators of HTTP conditional requests.
+ * <p>
+ * A single resource gets a strong ETag built from its {@link DocumentVersion}
+ * and a {@code Last-Modified} date. A listing gets a weak ETag built from the
+ * {@link DatasetVersion} of the whole collection, and no
+ * {@code Last-Modified}: a deletion does not move the latest modification
+ * time, so {@code If-Modified-Since} could not detect it.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Returns the strong ETag of a single resource.
+     *
+     * @param version version of the resource
+     * @return quoted ETag
+     */
+    static String strong(DocumentVersion version) {
+        return "\"" + version.version() + "-" + version.lastModified().toEpochMilli() + "\"";
+    }
+
+    /**
+     * Returns the weak ETag of any listing of a collection.
+     *
+     * @param version fingerprint of the collection
+     * @return weak ETag
+     */
+    static String weak(DatasetVersion version) {
+        long lastModified = version.lastModified() == null ? 0 : version.lastModified().toEpochMilli();
+        return "W/\"" + version.count() + "-" + lastModified + "\"";
+    }
+
+    /**
+     * Tells whether a read carries a validator of the client copy, so that
+     * the current version has to be checked against the database rather than
+     * against the cache.
+     *
+     * @param request current request
+     * @return {@code true} if {@code If-None-Match} or
+     *         {@code If-Modified-Since} is present
+     */
+    static boolean isConditionalGet(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Tells whether a write is conditional on the version of the client copy.
+     *
+     * @param request current request
+     * @return {@code true} if {@code If-Match} or {@code If-Unmodified-Since}
+     *         is present
+     */
+    static boolean isConditionalWrite(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_UNMODIFIED_SINCE) != null;
+    }
+}
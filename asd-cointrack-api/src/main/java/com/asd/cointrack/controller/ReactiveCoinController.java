@@ -0,0 +1,124 @@
+package com.asd.cointrack.controller;
+
+import java.util.function.Function;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.CoinSummary;
+import com.asd.cointrack.dto.CoinView;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.service.ReactiveCoinService;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive, read-only variant of {@link CoinController}, active with the
+ * {@code reactive} profile in place of the Spring MVC controllers: writes,
+ * statistics, scrolling and collections are not served under this profile.
+ * Reads bypass the coin cache and send no {@code ETag}, so conditional
+ * requests always get a full response.
+ * <p>
+ * Listings are streamed element by element: as a JSON array by default, or
+ * as NDJSON when the client accepts {@code application/x-ndjson}. Pages carry
+ * no total count. The export is a server-sent event stream whose event ids are
+ * the coin ids, so a client reconnecting with {@code Last-Event-ID} resumes
+ * where it stopped.
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/coins")
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Services are injected Spring beans, not exposed outside")
+public class ReactiveCoinController {
+
+    private final ReactiveCoinService coinService;
+
+    /**
+     * Streams a page of all coins.
+     *
+     * @param view     {@code FULL} coins (default) or {@code SUMMARY} projections
+     * @param pageable pagination and sorting information
+     * @return coins of the requested page
+     */
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<?> getAllCoins(
+            @RequestParam(defaultValue = "FULL") CoinView view,
+            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
+        return coinService.getAllCoins(pageable, view.getType());
+    }
+
+    /**
+     * Returns details of a single coin identified by its id.
+     *
+     * @param id coin identifier
+     * @return 200 with coin body or 404 if not found
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Coin>> getCoinById(@PathVariable String id) {
+        return coinService.getCoinById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams a page of the coins matching the advanced search filters.
+     *
+     * @param filter   validated search filter
+     * @param view     {@code FULL} coins (default) or {@code SUMMARY} projections
+     * @param pageable pagination and sorting information
+     * @return coins of the requested page
+     */
+    @GetMapping(path = "/advanced-search", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<?> advancedSearch(
+            @Valid CoinSearchFilter filter,
+            @RequestParam(defaultValue = "FULL") CoinView view,
+            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
+        return coinService.advancedSearch(filter, pageable, view.getType());
+    }
+
+    /**
+     * Streams all coins matching the optional advanced search filters as
+     * server-sent events, one {@code coin} event per coin in {@code _id} order.
+     *
+     * @param filter      validated search filter
+     * @param view        {@code FULL} coins (default) or {@code SUMMARY}
+     *                    projections
+     * @param lastEventId id of the last event received, sent by clients on
+     *                    reconnection
+     * @return event stream of the matching coins
+     */
+    @GetMapping(path = "/export", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<?>> exportCoins(
+            @Valid CoinSearchFilter filter,
+            @RequestParam(defaultValue = "FULL") CoinView view,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return switch (view) {
+            case FULL -> events(coinService.export(filter, lastEventId, Coin.class), Coin::getID);
+            case SUMMARY -> events(coinService.export(filter, lastEventId, CoinSummary.class), CoinSummary::id);
+        };
+    }
+
+    private static <T> Flux<ServerSentEvent<?>> events(Flux<T> coins, Function<T, String> idOf) {
+        return coins.map(coin -> ServerSentEvent.builder(coin)
+                .id(idOf.apply(coin))
+                .event("coin")
+                .build());
+    }
+}
@@ -0,0 +1,23 @@
+package com.asd.cointrack.dto;
+
+/**
+ * Width of the time buckets of the catalogue activity statistics. Buckets are
+ * aligned on calendar boundaries in the requested time zone.
+ */
+public enum ActivityGranularity {
+
+    /**
+     * Calendar day, from midnight.
+     */
+    DAY,
+
+    /**
+     * ISO week, from Monday at midnight.
+     */
+    WEEK,
+
+    /**
+     * Calendar month, from the first day at midnight.
+     */
+    MONTH
+}
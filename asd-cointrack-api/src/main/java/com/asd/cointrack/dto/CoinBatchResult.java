@@ -0,0 +1,18 @@
+package com.asd.cointrack.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a lookup of many coins by id.
+ *
+ * @param coins   coins found, as {@link CoinView#FULL} or
+ *                {@link CoinView#SUMMARY}, in the order of the requested ids
+ * @param missing requested ids that match no coin, in request order
+ */
+public record CoinBatchResult(List<?> coins, List<String> missing) {
+
+    public CoinBatchResult {
+        coins = List.copyOf(coins);
+        missing = List.copyOf(missing);
+    }
+}
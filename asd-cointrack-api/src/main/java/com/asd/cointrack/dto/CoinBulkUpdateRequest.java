@@ -0,0 +1,28 @@
+package com.asd.cointrack.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Filter-based bulk update of coins.
+ *
+ * @param filter      coins to update, same semantics as the advanced search;
+ *                    required with at least one criterion unless {@code all}
+ *                    is set
+ * @param set         fields set to the same value on every matching coin
+ * @param priceFactor optional factor the price of every matching coin is
+ *                    multiplied by (e.g. {@code 1.05} for +5%), not combinable
+ *                    with {@code set.price}
+ * @param all         explicit confirmation that every coin is updated, not
+ *                    combinable with {@code filter}
+ */
+public record CoinBulkUpdateRequest(
+        @Valid CoinSearchFilter filter,
+        CoinPatch set,
+        @Positive Double priceFactor,
+        boolean all) {
+
+    public CoinBulkUpdateRequest {
+        filter = filter == null ? CoinSearchFilter.none() : filter;
+    }
+}
@@ -0,0 +1,10 @@
+package com.asd.cointrack.dto;
+
+/**
+ * Outcome of a bulk update.
+ *
+ * @param matched  number of coins matched by the filter or ids
+ * @param modified number of coins actually modified
+ */
+public record CoinBulkUpdateResult(long matched, long modified) {
+}
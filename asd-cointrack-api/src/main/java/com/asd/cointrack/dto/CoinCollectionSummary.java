@@ -0,0 +1,24 @@
+package com.asd.cointrack.dto;
+
+/**
+ * DTO representing a collection together with statistics of its coins.
+ *
+ * @param id           collection identifier
+ * @param name         collection name
+ * @param description  collection description (nullable)
+ * @param coinCount    number of coins in the collection
+ * @param totalPrice   sum of the prices of its coins
+ * @param averagePrice average price of a coin, 0 for an empty collection
+ * @param minYear      minimum minting year of its coins (nullable)
+ * @param maxYear      maximum minting year of its coins (nullable)
+ */
+public record CoinCollectionSummary(
+        String id,
+        String name,
+        String description,
+        long coinCount,
+        double totalPrice,
+        double averagePrice,
+        Integer minYear,
+        Integer maxYear) {
+}
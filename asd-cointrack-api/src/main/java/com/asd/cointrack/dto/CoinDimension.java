@@ -0,0 +1,32 @@
+package com.asd.cointrack.dto;
+
+/**
+ * Coin attribute the analytics queries can group by.
+ */
+public enum CoinDimension {
+
+    /**
+     * Minting year.
+     */
+    YEAR,
+
+    /**
+     * Numismatic rarity.
+     */
+    DEGREE,
+
+    /**
+     * Material, as stored.
+     */
+    MATERIAL,
+
+    /**
+     * Conservation level of the obverse.
+     */
+    CONSERVATION_OBVERSE,
+
+    /**
+     * Conservation level of the reverse.
+     */
+    CONSERVATION_REVERSE
+}
@@ -0,0 +1,16 @@
+package com.asd.cointrack.dto;
+
+import java.util.List;
+
+/**
+ * Reason why a single record of a bulk import was rejected.
+ *
+ * @param index    zero-based position of the record in the imported stream
+ * @param messages validation, parsing or write errors of the record
+ */
+public record CoinImportError(long index, List<String> messages) {
+
+    public CoinImportError {
+        messages = List.copyOf(messages);
+    }
+}
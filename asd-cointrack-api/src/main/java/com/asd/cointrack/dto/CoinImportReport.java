@@ -0,0 +1,18 @@
+package com.asd.cointrack.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk coin import.
+ *
+ * @param received number of records read from the request body
+ * @param inserted number of coins written to the database
+ * @param failed   number of rejected records
+ * @param errors   per-record errors, in input order
+ */
+public record CoinImportReport(long received, long inserted, long failed, List<CoinImportError> errors) {
+
+    public CoinImportReport {
+        errors = List.copyOf(errors);
+    }
+}
@@ -0,0 +1,22 @@
+package com.asd.cointrack.dto;
+
+/**
+ * Numeric coin attribute the analytics queries can compute distributions of.
+ */
+public enum CoinMeasure {
+
+    /**
+     * Price.
+     */
+    PRICE,
+
+    /**
+     * Weight in grams.
+     */
+    WEIGHT,
+
+    /**
+     * Diameter in millimetres.
+     */
+    DIAMETER
+}
@@ -0,0 +1,122 @@
+package com.asd.cointrack.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+
+/**
+ * Partial update of a {@link Coin}: only non-null components are changed.
+ * <p>
+ * Values are validated against the constraints declared on the corresponding
+ * {@link Coin} properties. Because {@code null} means "not supplied", a
+ * property cannot be cleared through a patch.
+ *
+ * @param name                new name
+ * @param year                new minting year
+ * @param material            new material
+ * @param weight              new weight
+ * @param diameter            new diameter
+ * @param height              new height
+ * @param price               new price
+ * @param conservationObverse new obverse conservation state
+ * @param conservationReverse new reverse conservation state
+ * @param degree              new numismatic rarity
+ * @param note                new note
+ * @param photoPathObverse    new obverse photo path
+ * @param photoPathReverse    new reverse photo path
+ */
+public record CoinPatch(
+        String name,
+        Integer year,
+        String material,
+        Double weight,
+        Double diameter,
+        Double height,
+        Double price,
+        OptionConservation conservationObverse,
+        OptionConservation conservationReverse,
+        NumismaticRarity degree,
+        String note,
+        String photoPathObverse,
+        String photoPathReverse) {
+
+    /**
+     * Returns the supplied values keyed by {@link Coin} property name, in
+     * declaration order.
+     *
+     * @return changed properties and their new values
+     */
+    public Map<String, Object> changes() {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfPresent(changes, "name", name);
+        putIfPresent(changes, "year", year);
+        putIfPresent(changes, "material", material);
+        putIfPresent(changes, "weight", weight);
+        putIfPresent(changes, "diameter", diameter);
+        putIfPresent(changes, "height", height);
+        putIfPresent(changes, "price", price);
+        putIfPresent(changes, "conservationObverse", conservationObverse);
+        putIfPresent(changes, "conservationReverse", conservationReverse);
+        putIfPresent(changes, "degree", degree);
+        putIfPresent(changes, "note", note);
+        putIfPresent(changes, "photoPathObverse", photoPathObverse);
+        putIfPresent(changes, "photoPathReverse", photoPathReverse);
+        return changes;
+    }
+
+    /**
+     * Copies the supplied values onto the given coin.
+     *
+     * @param coin coin to modify in place
+     */
+    public void applyTo(Coin coin) {
+        if (name != null) {
+            coin.setName(name);
+        }
+        if (year != null) {
+            coin.setYear(year);
+        }
+        if (material != null) {
+            coin.setMaterial(material);
+        }
+        if (weight != null) {
+            coin.setWeight(weight);
+        }
+        if (diameter != null) {
+            coin.setDiameter(diameter);
+        }
+        if (height != null) {
+            coin.setHeight(height);
+        }
+        if (price != null) {
+            coin.setPrice(price);
+        }
+        if (conservationObverse != null) {
+            coin.setConservationObverse(conservationObverse);
+        }
+        if (conservationReverse != null) {
+            coin.setConservationReverse(conservationReverse);
+        }
+        if (degree != null) {
+            coin.setDegree(degree);
+        }
+        if (note != null) {
+            coin.setNote(note);
+        }
+        if (photoPathObverse != null) {
+            coin.setPhotoPathObverse(photoPathObverse);
+        }
+        if (photoPathReverse != null) {
+            coin.setPhotoPathReverse(photoPathReverse);
+        }
+    }
+
+    private static void putIfPresent(Map<String, Object> changes, String property, Object value) {
+        if (value != null) {
+            changes.put(property, value);
+        }
+    }
+}
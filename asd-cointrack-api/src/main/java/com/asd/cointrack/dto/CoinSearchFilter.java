@@ -0,0 +1,58 @@
+package com.asd.cointrack.dto;
+
+import java.util.List;
+
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+
+/**
+ * Filter model shared by the advanced search and by every endpoint that can be
+ * scoped to the same subset of coins (statistics, export, bulk updates).
+ * <p>
+ * Bound from query parameters with the same names accepted by
+ * {@code /api/coins/advanced-search}.
+ *
+ * @param name                  optional case- and accent-insensitive name
+ *                              fragment
+ * @param material              optional case- and accent-insensitive material
+ *                              fragment
+ * @param degree                optional single rarity filter
+ * @param degreeIn              optional list of rarities to include
+ * @param conservationObverseIn optional list of obverse conservation levels
+ * @param minYear               optional minimum minting year (inclusive)
+ * @param maxYear               optional maximum minting year (inclusive)
+ * @param minPrice              optional minimum price (inclusive)
+ * @param maxPrice              optional maximum price (inclusive)
+ * @param textMatch             matching mode of {@code name} and
+ *                              {@code material}, {@code CONTAINS} by default
+ */
+public record CoinSearchFilter(
+        String name,
+        String material,
+        NumismaticRarity degree,
+        List<NumismaticRarity> degreeIn,
+        List<OptionConservation> conservationObverseIn,
+        @Min(0) Integer minYear,
+        @Min(0) Integer maxYear,
+        @DecimalMin("0.0") Double minPrice,
+        @DecimalMin("0.0") Double maxPrice,
+        TextMatchMode textMatch) {
+
+    public CoinSearchFilter {
+        textMatch = textMatch == null ? TextMatchMode.CONTAINS : textMatch;
+        degreeIn = degreeIn == null ? List.of() : List.copyOf(degreeIn);
+        conservationObverseIn = conservationObverseIn == null ? List.of() : List.copyOf(conservationObverseIn);
+    }
+
+    /**
+     * Returns a filter that matches every coin.
+     *
+     * @return empty filter
+     */
+    public static CoinSearchFilter none() {
+        return new CoinSearchFilter(null, null, null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.asd.cointrack.dto;
+
+import com.asd.cointrack.model.NumismaticRarity;
+
+/**
+ * Lightweight view of a coin for grid-style listings. When used as a query
+ * result type only these fields are fetched from MongoDB.
+ *
+ * @param id       coin identifier
+ * @param name     coin name
+ * @param year     minting year
+ * @param material material
+ * @param price    estimated value
+ * @param degree   numismatic rarity
+ */
+public record CoinSummary(String id, String name, int year, String material, double price, NumismaticRarity degree) {
+}
@@ -0,0 +1,35 @@
+package com.asd.cointrack.dto;
+
+import com.asd.cointrack.model.Coin;
+
+/**
+ * Representation of the coins returned by the listing endpoints.
+ */
+public enum CoinView {
+
+    /**
+     * Complete {@link Coin} documents.
+     */
+    FULL(Coin.class),
+
+    /**
+     * {@link CoinSummary} projections: only id, name, year, material, price and
+     * degree are read from the database and serialized.
+     */
+    SUMMARY(CoinSummary.class);
+
+    private final Class<?> type;
+
+    CoinView(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the query result type of this view.
+     *
+     * @return {@link Coin} or {@link CoinSummary}
+     */
+    public Class<?> getType() {
+        return type;
+    }
+}
@@ -0,0 +1,16 @@
+package com.asd.cointrack.dto;
+
+import java.time.Instant;
+
+/**
+ * DTO representing the catalogue activity within one time bucket.
+ *
+ * @param start      start of the bucket (inclusive)
+ * @param end        end of the bucket (exclusive)
+ * @param added      number of existing coins created in the bucket
+ * @param valueAdded total current price of those coins
+ * @param updated    number of coins whose last modification after creation
+ *                   falls in the bucket
+ */
+public record CoinsActivityBucket(Instant start, Instant end, long added, double valueAdded, long updated) {
+}
@@ -0,0 +1,11 @@
+package com.asd.cointrack.dto;
+
+/**
+ * DTO representing one equal-width bucket of a histogram over a coin measure.
+ *
+ * @param from  lower bound (inclusive)
+ * @param to    upper bound (exclusive, inclusive for the last bucket)
+ * @param count number of coins in the bucket
+ */
+public record CoinsHistogramBucket(double from, double to, long count) {
+}
@@ -0,0 +1,28 @@
+package com.asd.cointrack.dto;
+
+import java.util.List;
+
+/**
+ * DTO representing percentiles of a measure within a group of coins.
+ *
+ * @param group       value of the grouping dimension, {@code null} when not
+ *                    grouped
+ * @param count       number of coins in the group
+ * @param percentiles requested percentiles, in request order
+ */
+public record CoinsPercentiles(String group, long count, List<Percentile> percentiles) {
+
+    public CoinsPercentiles {
+        percentiles = List.copyOf(percentiles);
+    }
+
+    /**
+     * Value below or at which the given percentage of the group falls
+     * (nearest-rank method).
+     *
+     * @param percentile percentage, between 0 and 100
+     * @param value      measure value
+     */
+    public record Percentile(double percentile, double value) {
+    }
+}
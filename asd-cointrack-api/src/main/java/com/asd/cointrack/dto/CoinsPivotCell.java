@@ -0,0 +1,19 @@
+package com.asd.cointrack.dto;
+
+/**
+ * DTO representing one cell of a group-by or pivot over the coins.
+ *
+ * @param row          value of the row dimension
+ * @param column       value of the column dimension, {@code null} when
+ *                     grouping by a single dimension
+ * @param count        number of coins in the cell
+ * @param totalPrice   sum of their prices
+ * @param averagePrice average price of a coin in the cell
+ */
+public record CoinsPivotCell(
+        String row,
+        String column,
+        long count,
+        double totalPrice,
+        double averagePrice) {
+}
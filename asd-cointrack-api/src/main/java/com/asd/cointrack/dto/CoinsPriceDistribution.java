@@ -0,0 +1,29 @@
+package com.asd.cointrack.dto;
+
+import java.util.List;
+
+/**
+ * DTO representing the price distribution of a group of coins, estimated from
+ * a quantile sketch.
+ *
+ * @param group            value of the grouping dimension, {@code null} when
+ *                         not grouped
+ * @param count            number of coins in the group
+ * @param relativeAccuracy relative error bound of every reported price
+ * @param percentiles      requested percentiles, in request order
+ * @param histogram        price buckets between the requested bounds; a
+ *                         bucket below the first and one above the last bound
+ *                         are added when not empty
+ */
+public record CoinsPriceDistribution(
+        String group,
+        long count,
+        double relativeAccuracy,
+        List<CoinsPercentiles.Percentile> percentiles,
+        List<CoinsHistogramBucket> histogram) {
+
+    public CoinsPriceDistribution {
+        percentiles = List.copyOf(percentiles);
+        histogram = List.copyOf(histogram);
+    }
+}
@@ -0,0 +1,30 @@
+package com.asd.cointrack.dto;
+
+import java.util.List;
+
+import com.asd.cointrack.model.Coin;
+
+/**
+ * DTO bundling every coin statistic shown on the dashboard, computed in a
+ * single database round trip.
+ *
+ * @param summary      aggregated summary statistics
+ * @param byYear       number of coins per minting year
+ * @param byDegree     number of coins per numismatic rarity
+ * @param byMaterial   number of coins per material
+ * @param topExpensive most expensive coins, ordered by price descending
+ */
+public record CoinsStatsOverview(
+        CoinsSummaryStats summary,
+        List<CoinsByYearStats> byYear,
+        List<CoinsByDegreeStats> byDegree,
+        List<CoinsByMaterialStats> byMaterial,
+        List<Coin> topExpensive) {
+
+    public CoinsStatsOverview {
+        byYear = List.copyOf(byYear);
+        byDegree = List.copyOf(byDegree);
+        byMaterial = List.copyOf(byMaterial);
+        topExpensive = List.copyOf(topExpensive);
+    }
+}
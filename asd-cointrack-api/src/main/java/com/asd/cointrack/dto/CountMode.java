@@ -0,0 +1,26 @@
+package com.asd.cointrack.dto;
+
+/**
+ * Strategy used to compute the total number of elements of a paginated search.
+ */
+public enum CountMode {
+
+    /**
+     * Exact count, computed concurrently with the page query.
+     */
+    EXACT,
+
+    /**
+     * Estimate: collection metadata when there is no filter, otherwise a count
+     * capped at {@code cointrack.search.count-cap} documents. When the cap is
+     * reached the total is a lower bound.
+     */
+    ESTIMATED,
+
+    /**
+     * No count: one extra element is read to detect a next page, and the total
+     * is the synthetic {@code offset + content size + (next page ? 1 : 0)}. It
+     * only tells whether a next page exists and is not the number of matches.
+     */
+    NONE
+}
@@ -0,0 +1,23 @@
+package com.asd.cointrack.dto;
+
+import java.util.List;
+
+/**
+ * Slice of results fetched with keyset (cursor-based) pagination.
+ * <p>
+ * Unlike a {@link org.springframework.data.domain.Page} it carries no total
+ * count: the next slice is requested by passing {@code next} as the
+ * {@code after} parameter.
+ *
+ * @param content  elements of the current slice
+ * @param size     number of elements in the current slice
+ * @param hasNext  whether more elements follow
+ * @param next     opaque cursor of the next slice, {@code null} on the last one
+ * @param <T>      element type
+ */
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String next) {
+
+    public CursorPage {
+        content = List.copyOf(content);
+    }
+}
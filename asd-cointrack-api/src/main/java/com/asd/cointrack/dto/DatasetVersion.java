@@ -0,0 +1,22 @@
+package com.asd.cointrack.dto;
+
+import java.time.Instant;
+
+/**
+ * Cheap fingerprint of a whole MongoDB collection, used as a weak validator
+ * of listings: an insert or an update moves {@code lastModified}, a deletion
+ * changes {@code count}.
+ * <p>
+ * The fingerprint is not a write counter and can miss a change: an update
+ * stamped with the same millisecond as the latest {@code updatedAt}, or by an
+ * instance whose clock is behind, leaves both values unchanged, and so does a
+ * deletion paired with an insert that does not move {@code lastModified}.
+ * Such a listing stays "not modified" until the next write that does move the
+ * fingerprint, which is why instances must keep their clocks synchronized.
+ *
+ * @param count        estimated number of documents
+ * @param lastModified latest {@code updatedAt}, {@code null} if there are no
+ *                     documents
+ */
+public record DatasetVersion(long count, Instant lastModified) {
+}
@@ -0,0 +1,29 @@
+package com.asd.cointrack.dto;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Version of a single document, used as a strong validator: the optimistic
+ * locking counter changes on every write, the modification time also tells
+ * apart a document deleted and created again with the same id.
+ *
+ * @param version      optimistic locking counter
+ * @param lastModified modification time, truncated to milliseconds as stored
+ */
+public record DocumentVersion(long version, Instant lastModified) {
+
+    /**
+     * Builds the version of a document from its stored fields. Documents saved
+     * before versioning or auditing were introduced are reported at version 0,
+     * last modified at the epoch.
+     *
+     * @param version   optimistic locking counter, possibly {@code null}
+     * @param updatedAt modification time, possibly {@code null}
+     * @return normalized document version
+     */
+    public static DocumentVersion of(Long version, Instant updatedAt) {
+        return new DocumentVersion(version == null ? 0 : version,
+                updatedAt == null ? Instant.EPOCH : updatedAt.truncatedTo(ChronoUnit.MILLIS));
+    }
+}
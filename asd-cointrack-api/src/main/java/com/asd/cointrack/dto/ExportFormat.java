@@ -0,0 +1,34 @@
+package com.asd.cointrack.dto;
+
+/**
+ * Output format of the coin catalogue export.
+ */
+public enum ExportFormat {
+
+    /**
+     * Newline-delimited JSON, one coin per line with the same fields returned by
+     * the other endpoints.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * Comma-separated values (RFC 4180) with a header row.
+     */
+    CSV("text/csv;charset=UTF-8", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,19 @@
+package com.asd.cointrack.dto;
+
+/**
+ * Matching mode of the textual filters ({@code name}, {@code material}) of the
+ * advanced search. Both modes are case- and accent-insensitive and run against
+ * the normalized, indexed search fields.
+ */
+public enum TextMatchMode {
+
+    /**
+     * The value contains the fragment anywhere (scans the index keys).
+     */
+    CONTAINS,
+
+    /**
+     * The value starts with the fragment (bounded index range scan).
+     */
+    PREFIX
+}
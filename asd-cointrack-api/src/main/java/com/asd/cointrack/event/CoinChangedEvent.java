@@ -0,0 +1,31 @@
+package com.asd.cointrack.event;
+
+import com.asd.cointrack.model.Coin;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Application event published after a single coin has been created, updated or
+ * deleted, carrying its state before and after the change.
+ * <p>
+ * Listeners use the two states to maintain derived data (statistics, caches)
+ * by deltas instead of re-reading the whole collection.
+ *
+ * @param before state before the change, {@code null} for a newly created coin
+ * @param after  state after the change, {@code null} for a deleted coin
+ */
+@SuppressFBWarnings(value = { "EI_EXPOSE_REP", "EI_EXPOSE_REP2" }, justification = "Events carry the persisted coin states as-is; listeners treat them as read-only")
+public record CoinChangedEvent(Coin before, Coin after) {
+
+    public static CoinChangedEvent created(Coin coin) {
+        return new CoinChangedEvent(null, coin);
+    }
+
+    public static CoinChangedEvent updated(Coin before, Coin after) {
+        return new CoinChangedEvent(before, after);
+    }
+
+    public static CoinChangedEvent deleted(Coin coin) {
+        return new CoinChangedEvent(coin, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.asd.cointrack.exception;
+
+/**
+ * Thrown when an analytics query needs the in-memory columnar snapshot of the
+ * coins and the snapshot is disabled or not loaded yet.
+ */
+public class AnalyticsUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AnalyticsUnavailableException(String message) {
+        super(message);
+    }
+}
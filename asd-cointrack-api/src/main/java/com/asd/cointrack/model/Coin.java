@@ -7,10 +7,15 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.asd.cointrack.validation.MaxCurrentYear;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import jakarta.validation.constraints.Min;
@@ -30,10 +35,29 @@ import lombok.NoArgsConstructor;
  * The entity includes domain attributes (name, year, physical measures, price,
  * conservation, rarity), optional links to photos and collection membership,
  * together with auditing metadata automatically maintained by Spring Data.
+ * <p>
+ * Compound indexes follow the shapes of the list, search and scroll queries:
+ * equality fields first, then the sort key (with {@code _id} as keyset
+ * tiebreaker), then range fields. Their prefixes also serve the single-field
+ * lookups on {@code year}, {@code price}, {@code degree} and
+ * {@code collectionId}. The {@code createdAt} index carries {@code price} so
+ * that the activity statistics are computed from the index keys alone.
+ * <p>
+ * Writes are guarded by optimistic locking: every update increments
+ * {@link #version}, and replacing a coin whose version has moved since it was
+ * read fails instead of overwriting the other change.
  */
+@CompoundIndexes({
+        @CompoundIndex(name = "name_id", def = "{'name': 1, '_id': 1}"),
+        @CompoundIndex(name = "year_id", def = "{'year': 1, '_id': 1}"),
+        @CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "year_name_id", def = "{'year': 1, 'name': 1, '_id': 1}"),
+        @CompoundIndex(name = "collectionId_name_id", def = "{'collectionId': 1, 'name': 1, '_id': 1}"),
+        @CompoundIndex(name = "degree_name_year_price", def = "{'degree': 1, 'name': 1, 'year': 1, 'price': 1}"),
+        @CompoundIndex(name = "createdAt_price", def = "{'createdAt': 1, 'price': 1}") })
 @Data
 @SuppressFBWarnings(value = "NM_CONFUSING", justification = "ID field name is intentional to align with existing storage and API contract")
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "coins")
@@ -48,7 +72,6 @@ public class Coin {
 
     @Min(value = 0, message = "year must be greater than or equal to 0")
     @MaxCurrentYear
-    @Indexed
     private int year;
 
     @NotBlank(message = "material must not be blank")
@@ -66,7 +89,6 @@ public class Coin {
     private double height;
 
     @PositiveOrZero(message = "price must be greater than or equal to 0")
-    @Indexed
     private double price;
 
     @NotNull(message = "conservationObverse must not be null")
@@ -76,7 +98,6 @@ public class Coin {
     private OptionConservation conservationReverse;
 
     @NotNull(message = "degree must not be null")
-    @Indexed
     private NumismaticRarity degree;
 
     @Size(max = 1000, message = "note must not exceed 1000 characters")
@@ -84,13 +105,44 @@ public class Coin {
     private String photoPathObverse;
     private String photoPathReverse;
 
-    @Indexed
     private String collectionId;
 
+    /**
+     * Lower-cased, accent-folded copy of {@code name}, maintained on write and
+     * used by the advanced search instead of a case-insensitive regex.
+     */
+    @JsonIgnore
+    @Indexed
+    private String searchName;
+
+    /**
+     * Lower-cased, accent-folded copy of {@code material}, see
+     * {@link #searchName}.
+     */
+    @JsonIgnore
+    @Indexed
+    private String searchMaterial;
+
+    /**
+     * Optimistic locking counter, set to 0 on insert and incremented by every
+     * write. Output only: clients cannot supply it.
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    /**
+     * Creation time, indexed (with {@code price}) for the activity statistics.
+     */
     @CreatedDate
     private Instant createdAt;
 
+    /**
+     * Last modification time, indexed for the polling mode of the change feed
+     * and for the activity statistics.
+     */
     @LastModifiedDate
+    @Indexed
     private Instant updatedAt;
 
     @CreatedBy
@@ -7,9 +7,12 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -22,7 +25,7 @@ import lombok.NoArgsConstructor;
  * "Euro commemorativi").
  * <p>
  * Used to group coins and to provide additional metadata about the group
- * itself.
+ * itself. Like {@link Coin}, it is guarded by optimistic locking.
  */
 @Data
 @Builder
@@ -42,10 +45,22 @@ public class CoinCollection {
     @Size(max = 1000, message = "description must not exceed 1000 characters")
     private String description;
 
+    /**
+     * Optimistic locking counter, see {@link Coin#getVersion()}.
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @CreatedDate
     private Instant createdAt;
 
+    /**
+     * Last modification time, indexed for the fingerprint of the listing and
+     * for the polling mode of the change feed, which read the latest one.
+     */
     @LastModifiedDate
+    @Indexed
     private Instant updatedAt;
 
     @CreatedBy
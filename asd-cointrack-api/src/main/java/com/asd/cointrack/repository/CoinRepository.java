@@ -2,8 +2,12 @@ package com.asd.cointrack.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
@@ -52,4 +56,18 @@ public interface CoinRepository extends MongoRepository<Coin, String> {
     Page<Coin> findByYear(int year, Pageable pageable);
 
     Page<Coin> findByCollectionId(String collectionId, Pageable pageable);
+
+    <T> Page<T> findAllBy(Pageable pageable, Class<T> type);
+
+    <T> Page<T> findByName(String name, Pageable pageable, Class<T> type);
+
+    <T> Page<T> findByYear(int year, Pageable pageable, Class<T> type);
+
+    <T> Page<T> findByCollectionId(String collectionId, Pageable pageable, Class<T> type);
+
+    Window<Coin> findByName(String name, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Coin> findByYear(int year, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Coin> findByCollectionId(String collectionId, ScrollPosition position, Limit limit, Sort sort);
 }
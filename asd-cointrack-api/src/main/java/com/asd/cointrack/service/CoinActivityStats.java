@@ -0,0 +1,282 @@
+package com.asd.cointrack.service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import com.asd.cointrack.config.StatsActivityProperties;
+import com.asd.cointrack.dto.ActivityGranularity;
+import com.asd.cointrack.dto.CoinsActivityBucket;
+import com.asd.cointrack.event.CoinChangedEvent;
+import com.asd.cointrack.model.Coin;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Catalogue activity per day, week or month, computed from the
+ * {@code createdAt} and {@code updatedAt} audit fields.
+ * <p>
+ * Each request runs two aggregations, one per audit field, that select the
+ * time range on the field index and group with {@code $dateTrunc} in the
+ * requested time zone (MongoDB 5.0+). Buckets that ended before the request
+ * are cached per granularity and time zone, so a trend over a long history
+ * only aggregates the buckets it has not seen yet plus the current one.
+ * <p>
+ * A cached bucket is evicted when a {@link CoinChangedEvent} touches a coin
+ * created or last modified within it, and the whole cache when a bulk update
+ * rewrites an unknown set of coins. Writes of other instances are evicted the
+ * same way by the {@link CoinChangeFeed}; without a feed they expire with
+ * {@code cointrack.stats.activity.closed-bucket-ttl}.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Injected Spring beans are not exposed outside the component")
+public class CoinActivityStats {
+
+    private static final int DEFAULT_BUCKETS = 30;
+
+    private final MongoTemplate mongoTemplate;
+    private final StatsActivityProperties properties;
+
+    private final ConcurrentMap<Series, ConcurrentSkipListMap<Instant, Cached>> cache = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Returns the activity buckets covering a time range. Both ends are widened
+     * to bucket boundaries.
+     *
+     * @param granularity bucket width
+     * @param from        start of the range, by default the 30 buckets ending
+     *                    with the one containing {@code to}
+     * @param to          end of the range (exclusive), now by default
+     * @param zone        time zone of the bucket boundaries
+     * @return every bucket of the range in chronological order, empty ones
+     *         included
+     * @throws IllegalArgumentException if the range is empty or spans more than
+     *                                  {@code cointrack.stats.activity.max-buckets}
+     *                                  buckets
+     */
+    public List<CoinsActivityBucket> activity(ActivityGranularity granularity, Instant from, Instant to,
+            ZoneId zone) {
+        Instant now = Instant.now();
+        Instant end = to == null ? now : to;
+        ZonedDateTime first = from == null
+                ? minus(truncate(end.minusNanos(1).atZone(zone), granularity), granularity, DEFAULT_BUCKETS - 1)
+                : truncate(from.atZone(zone), granularity);
+        if (from != null && !from.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        List<Instant> starts = new ArrayList<>();
+        for (ZonedDateTime start = first; start.toInstant().isBefore(end); start = plus(start, granularity)) {
+            if (starts.size() == properties.maxBuckets()) {
+                throw new IllegalArgumentException("the range spans more than " + properties.maxBuckets()
+                        + " buckets");
+            }
+            starts.add(start.toInstant());
+        }
+        Instant rangeEnd = plus(last(starts).atZone(zone), granularity).toInstant();
+
+        Series series = new Series(granularity, zone);
+        NavigableMap<Instant, Cached> cached = properties.cacheSize() > 0
+                ? cache.computeIfAbsent(series, key -> new ConcurrentSkipListMap<>())
+                : new ConcurrentSkipListMap<>();
+        Instant fresh = now.minus(properties.closedBucketTtl());
+        List<CoinsActivityBucket> result = new ArrayList<>(starts.size());
+        int firstMissing = 0;
+        while (firstMissing < starts.size()) {
+            Cached hit = cached.get(starts.get(firstMissing));
+            if (hit == null || !hit.computedAt().isAfter(fresh)) {
+                break;
+            }
+            result.add(hit.bucket());
+            firstMissing++;
+        }
+        if (firstMissing == starts.size()) {
+            return result;
+        }
+
+        long evictionsBefore = evictions.get();
+        Instant queryFrom = starts.get(firstMissing);
+        Map<Instant, Document> added = aggregate(createdStages(series, queryFrom, rangeEnd));
+        Map<Instant, Document> updated = aggregate(updatedStages(series, queryFrom, rangeEnd));
+        boolean cacheable = properties.cacheSize() > 0 && evictions.get() == evictionsBefore;
+
+        for (int i = firstMissing; i < starts.size(); i++) {
+            Instant start = starts.get(i);
+            Instant bucketEnd = i + 1 < starts.size() ? starts.get(i + 1) : rangeEnd;
+            Document addedCounts = added.get(start);
+            Document updatedCounts = updated.get(start);
+            CoinsActivityBucket bucket = new CoinsActivityBucket(start, bucketEnd,
+                    addedCounts == null ? 0 : number(addedCounts, "count").longValue(),
+                    addedCounts == null ? 0.0 : number(addedCounts, "value").doubleValue(),
+                    updatedCounts == null ? 0 : number(updatedCounts, "count").longValue());
+            result.add(bucket);
+            if (cacheable && !bucketEnd.isAfter(now) && cachedBuckets() < properties.cacheSize()) {
+                cached.put(start, new Cached(bucket, now));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evicts the cached buckets the change may have altered: those containing
+     * the creation and last modification times of the coin before and after
+     * the change.
+     *
+     * @param event change event
+     */
+    @EventListener
+    public void onCoinChanged(CoinChangedEvent event) {
+        evict(event.before(), event.after());
+    }
+
+    /**
+     * Evicts the cached buckets containing the creation and last modification
+     * times of a coin before and after a change.
+     *
+     * @param before state before the change, {@code null} for a created coin
+     * @param after  state after the change, {@code null} for a deleted coin
+     */
+    public void evict(Coin before, Coin after) {
+        evict(before);
+        evict(after);
+    }
+
+    /**
+     * Drops every cached bucket, for writes whose previous state is unknown.
+     */
+    public void invalidate() {
+        evictions.incrementAndGet();
+        cache.clear();
+    }
+
+    private void evict(Coin coin) {
+        if (coin == null) {
+            return;
+        }
+        evictions.incrementAndGet();
+        evict(coin.getCreatedAt());
+        evict(coin.getUpdatedAt());
+    }
+
+    private void evict(Instant time) {
+        if (time == null) {
+            return;
+        }
+        for (ConcurrentSkipListMap<Instant, Cached> buckets : cache.values()) {
+            Map.Entry<Instant, Cached> entry = buckets.floorEntry(time);
+            if (entry != null && entry.getValue().bucket().end().isAfter(time)) {
+                buckets.remove(entry.getKey());
+            }
+        }
+    }
+
+    private int cachedBuckets() {
+        return cache.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private Aggregation createdStages(Series series, Instant from, Instant to) {
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("createdAt").gte(from).lt(to)),
+                Aggregation.project("price").and(series.truncate("createdAt")).as("bucket").andExclude("_id"),
+                Aggregation.group("bucket").count().as("count").sum("price").as("value"));
+    }
+
+    private Aggregation updatedStages(Series series, Instant from, Instant to) {
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("updatedAt").gte(from).lt(to)),
+                Aggregation.match(Criteria.expr(ComparisonOperators.valueOf("updatedAt").greaterThan("createdAt"))),
+                Aggregation.project().and(series.truncate("updatedAt")).as("bucket").andExclude("_id"),
+                Aggregation.group("bucket").count().as("count"));
+    }
+
+    private Map<Instant, Document> aggregate(Aggregation aggregation) {
+        Map<Instant, Document> buckets = new HashMap<>();
+        for (Document document : mongoTemplate.aggregate(aggregation, Coin.class, Document.class)) {
+            if (document.get("_id") instanceof Date start) {
+                buckets.put(start.toInstant(), document);
+            }
+        }
+        return buckets;
+    }
+
+    private static Number number(Document document, String field) {
+        return document.get(field) instanceof Number number ? number : 0;
+    }
+
+    private static Instant last(List<Instant> starts) {
+        return starts.get(starts.size() - 1);
+    }
+
+    private static ZonedDateTime truncate(ZonedDateTime time, ActivityGranularity granularity) {
+        ZonedDateTime day = time.truncatedTo(ChronoUnit.DAYS);
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    private static ZonedDateTime plus(ZonedDateTime start, ActivityGranularity granularity) {
+        return minus(start, granularity, -1);
+    }
+
+    private static ZonedDateTime minus(ZonedDateTime start, ActivityGranularity granularity, long buckets) {
+        ZonedDateTime shifted = switch (granularity) {
+            case DAY -> start.minusDays(buckets);
+            case WEEK -> start.minusWeeks(buckets);
+            case MONTH -> start.minusMonths(buckets);
+        };
+        // A DST transition at midnight moves the local start of the bucket
+        return truncate(shifted, granularity);
+    }
+
+    /**
+     * Buckets of one granularity in one time zone.
+     */
+    private record Series(ActivityGranularity granularity, ZoneId zone) {
+
+        private DateOperators.DateTrunc truncate(String field) {
+            DateOperators.DateTrunc trunc = DateOperators.dateOf(field)
+                    .truncate(granularity.name().toLowerCase(Locale.ROOT))
+                    .withTimezone(DateOperators.Timezone.valueOf(mongoZone()));
+            return granularity == ActivityGranularity.WEEK ? trunc.startOfWeek(DayOfWeek.MONDAY) : trunc;
+        }
+
+        private String mongoZone() {
+            ZoneId normalized = zone.normalized();
+            if (normalized instanceof ZoneOffset offset) {
+                return offset.getTotalSeconds() == 0 ? "UTC" : offset.getId();
+            }
+            return zone.getId();
+        }
+    }
+
+    private record Cached(CoinsActivityBucket bucket, Instant computedAt) {
+    }
+}
@@ -0,0 +1,559 @@
+package com.asd.cointrack.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.asd.cointrack.config.CacheConfig;
+import com.asd.cointrack.config.ChangeFeedProperties;
+import com.asd.cointrack.config.ChangeFeedProperties.Mode;
+import com.asd.cointrack.event.CoinChangedEvent;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.CoinCollection;
+import com.mongodb.MongoException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.OperationType;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Propagates writes made by any API instance to the local caches and to the
+ * {@link CoinStatsView}, so that several replicas sharing a database do not
+ * serve stale data.
+ * <p>
+ * On a replica set or sharded cluster a change stream on the {@code coins} and
+ * {@code collections} collections evicts the changed entries as soon as the
+ * write is committed, and feeds the statistics view with the pre- and
+ * post-image of every coin change (enabled on the {@code coins} collection at
+ * startup, MongoDB 6.0+). Changes without images trigger a rate-limited full
+ * rebuild instead. The resume token is stored in the
+ * {@value #CHECKPOINTS} collection under {@code cointrack.change-feed.node-id},
+ * so after a restart or a failure the stream resumes where it stopped; events
+ * replayed that way only evict, and the view is rebuilt once caught up.
+ * <p>
+ * Standalone servers have no change streams: the {@code POLLING} mode reads,
+ * every {@code cointrack.change-feed.poll-interval}, the coins whose
+ * {@code updatedAt} moved and compares the document counts to detect deletions.
+ * The writes of this instance, already applied through their
+ * {@link CoinChangedEvent}, are recognized by their {@code version} and
+ * skipped. A poll has no previous state of the coins written by other
+ * instances, so those still trigger a rate-limited rebuild of the view.
+ * Writes that do not maintain {@code updatedAt} are only caught by the cache
+ * TTL and by the periodic reconciliation of the view.
+ * <p>
+ * In both modes the cached buckets of the {@link CoinActivityStats} are
+ * evicted as well: precisely when the previous state of the coin is known,
+ * entirely otherwise.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Injected Spring beans are not exposed outside the component")
+public class CoinChangeFeed implements SmartLifecycle {
+
+    /** Collection storing the resume token of each instance. */
+    public static final String CHECKPOINTS = "changeFeedCheckpoints";
+
+    private static final Logger log = LoggerFactory.getLogger(CoinChangeFeed.class);
+
+    /** InvalidResumeToken, ChangeStreamFatalError, ChangeStreamHistoryLost. */
+    private static final Set<Integer> RESUME_FAILURES = Set.of(260, 280, 286);
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final CoinStatsView statsView;
+    private final CoinActivityStats activityStats;
+    private final DatasetVersions datasetVersions;
+    private final ChangeFeedProperties properties;
+
+    // Coins written by this instance since the poll that will read them
+    private final Map<String, OwnWrite> ownWrites = new ConcurrentHashMap<>();
+    private final AtomicLong ownDeletes = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile boolean polling;
+    private Thread worker;
+
+    private BsonDocument resumeToken;
+    private BsonDocument savedToken;
+    private Instant lastCheckpoint = Instant.EPOCH;
+    private boolean statsDirty;
+    private Instant lastStatsRebuild = Instant.EPOCH;
+
+    @Override
+    public void start() {
+        if (properties.mode() == Mode.OFF) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "coin-change-feed");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = worker;
+        if (current == null) {
+            return;
+        }
+        current.interrupt();
+        try {
+            current.join(properties.retryDelay().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        statsView.setChangeStreamDriven(false);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Records a write of this instance in {@code POLLING} mode, so that the
+     * next poll does not apply it a second time.
+     *
+     * @param event change event
+     */
+    @EventListener
+    public void onCoinChanged(CoinChangedEvent event) {
+        if (!polling) {
+            return;
+        }
+        Coin after = event.after();
+        if (after != null && after.getID() != null && after.getVersion() != null) {
+            ownWrites.put(after.getID(), new OwnWrite(after.getVersion(),
+                    after.getUpdatedAt() == null ? Instant.now() : after.getUpdatedAt()));
+        } else if (after == null && event.before() != null) {
+            ownWrites.remove(event.before().getID());
+            ownDeletes.incrementAndGet();
+        }
+    }
+
+    private void run() {
+        if (resolveMode() == Mode.CHANGE_STREAM) {
+            enablePreAndPostImages();
+            while (running) {
+                watch();
+            }
+        } else {
+            log.info("Polling coin and collection changes every {}", properties.pollInterval());
+            polling = true;
+            PollState state = new PollState();
+            while (running) {
+                try {
+                    poll(state);
+                } catch (MongoException | DataAccessException e) {
+                    log.warn("Change polling failed: {}", e.getMessage());
+                }
+                pause(properties.pollInterval());
+            }
+        }
+    }
+
+    private Mode resolveMode() {
+        if (properties.mode() != Mode.AUTO) {
+            return properties.mode();
+        }
+        try {
+            Document hello = mongoTemplate.getDb().runCommand(new Document("hello", 1));
+            if (hello.containsKey("setName") || "isdbgrid".equals(hello.get("msg"))) {
+                return Mode.CHANGE_STREAM;
+            }
+        } catch (MongoException e) {
+            log.warn("Could not detect the MongoDB topology, falling back to polling: {}", e.getMessage());
+        }
+        return Mode.POLLING;
+    }
+
+    private void enablePreAndPostImages() {
+        String coins = mongoTemplate.getCollectionName(Coin.class);
+        try {
+            mongoTemplate.getDb().runCommand(new Document("collMod", coins)
+                    .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+        } catch (MongoException e) {
+            log.warn("Could not enable pre- and post-images on '{}', statistics will be rebuilt on every change: {}",
+                    coins, e.getMessage());
+        }
+    }
+
+    private void watch() {
+        try {
+            if (resumeToken == null) {
+                resumeToken = loadCheckpoint();
+            }
+            ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                    .watch(List.of(Aggregates.match(Filters.or(
+                            Filters.in("ns.coll", mongoTemplate.getCollectionName(Coin.class),
+                                    mongoTemplate.getCollectionName(CoinCollection.class)),
+                            Filters.in("operationType", "dropDatabase", "invalidate")))))
+                    .fullDocument(FullDocument.WHEN_AVAILABLE)
+                    .fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE)
+                    .maxAwaitTime(1, TimeUnit.SECONDS);
+            boolean catchingUp = resumeToken != null;
+            if (catchingUp) {
+                stream = stream.resumeAfter(resumeToken);
+            }
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                statsView.setChangeStreamDriven(true);
+                log.info("Watching coin and collection changes{}", catchingUp ? ", resuming from the stored token" : "");
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change == null) {
+                        catchingUp = false;
+                        rebuildStatsIfDirty();
+                    } else if (!apply(change, !catchingUp)) {
+                        clearCheckpoint();
+                        return;
+                    }
+                    if (cursor.getResumeToken() != null) {
+                        resumeToken = cursor.getResumeToken();
+                        checkpoint(false);
+                    }
+                }
+                checkpoint(true);
+            }
+        } catch (MongoException | DataAccessException e) {
+            if (!running) {
+                return;
+            }
+            statsView.setChangeStreamDriven(false);
+            if (e instanceof MongoException mongo && RESUME_FAILURES.contains(mongo.getCode())) {
+                log.warn("Cannot resume the change stream, restarting from now: {}", e.getMessage());
+                clearCheckpoint();
+                invalidateAll();
+                return;
+            }
+            log.warn("Change stream failed, reopening in {}: {}", properties.retryDelay(), e.getMessage());
+            pause(properties.retryDelay());
+        }
+    }
+
+    /**
+     * Applies a change to the local state. Deltas are only applied to the
+     * statistics view outside of a catch-up, where the view may already
+     * include the change.
+     *
+     * @return {@code false} if the stream was invalidated and must be reopened
+     */
+    private boolean apply(ChangeStreamDocument<Document> change, boolean deltas) {
+        OperationType operation = change.getOperationType();
+        if (operation == null) {
+            return true;
+        }
+        if (operation == OperationType.INVALIDATE || operation == OperationType.DROP_DATABASE) {
+            invalidateAll();
+            return false;
+        }
+        MongoNamespace namespace = change.getNamespace();
+        boolean coins = namespace != null
+                && mongoTemplate.getCollectionName(Coin.class).equals(namespace.getCollectionName());
+        BsonDocument key = change.getDocumentKey();
+        switch (operation) {
+            case INSERT, UPDATE, REPLACE, DELETE -> {
+                String id = idOf(key == null ? null : key.get("_id"));
+                if (coins) {
+                    evict(CacheConfig.COINS, id);
+                    evict(CacheConfig.COIN_AUDIT, id);
+                    datasetVersions.invalidate(Coin.class);
+                    applyImages(change, operation, deltas);
+                } else {
+                    evict(CacheConfig.COLLECTIONS, id);
+                    clear(CacheConfig.COLLECTION_LIST);
+                    datasetVersions.invalidate(CoinCollection.class);
+                }
+                clear(CacheConfig.COLLECTION_SUMMARIES);
+            }
+            case DROP, RENAME -> {
+                if (coins) {
+                    clear(CacheConfig.COINS);
+                    clear(CacheConfig.COIN_AUDIT);
+                    datasetVersions.invalidate(Coin.class);
+                    activityStats.invalidate();
+                    statsDirty = true;
+                } else {
+                    clear(CacheConfig.COLLECTIONS);
+                    clear(CacheConfig.COLLECTION_LIST);
+                    datasetVersions.invalidate(CoinCollection.class);
+                }
+                clear(CacheConfig.COLLECTION_SUMMARIES);
+            }
+            default -> {
+                // other operation types do not affect cached data
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies the pre- and post-image of a coin change to the statistics view
+     * and to the activity statistics, or falls back to a rebuild and to a full
+     * eviction without them.
+     */
+    private void applyImages(ChangeStreamDocument<Document> change, OperationType operation, boolean deltas) {
+        Document before = change.getFullDocumentBeforeChange();
+        Document after = change.getFullDocument();
+        boolean complete = switch (operation) {
+            case INSERT -> after != null;
+            case DELETE -> before != null;
+            default -> before != null && after != null;
+        };
+        if (!complete) {
+            activityStats.invalidate();
+            statsDirty = true;
+            return;
+        }
+        Coin beforeCoin = toCoin(before);
+        Coin afterCoin = toCoin(after);
+        activityStats.evict(beforeCoin, afterCoin);
+        if (deltas) {
+            statsView.applyChange(beforeCoin, afterCoin, change.getClusterTime());
+        } else {
+            statsDirty = true;
+        }
+    }
+
+    private Coin toCoin(Document document) {
+        return document == null ? null : mongoTemplate.getConverter().read(Coin.class, document);
+    }
+
+    private MongoCollection<Document> checkpoints() {
+        return mongoTemplate.getCollection(CHECKPOINTS);
+    }
+
+    private BsonDocument loadCheckpoint() {
+        Document stored = checkpoints().find(Filters.eq("_id", properties.nodeId())).first();
+        if (stored != null && stored.get("resumeToken") instanceof Document token) {
+            savedToken = BsonDocument.parse(token.toJson());
+            return savedToken;
+        }
+        return null;
+    }
+
+    /**
+     * Stores the current resume token, at most once per
+     * {@code cointrack.change-feed.checkpoint-interval} unless forced.
+     */
+    private void checkpoint(boolean force) {
+        Instant now = Instant.now();
+        if (resumeToken == null || resumeToken.equals(savedToken)
+                || !force && now.isBefore(lastCheckpoint.plus(properties.checkpointInterval()))) {
+            return;
+        }
+        checkpoints().replaceOne(Filters.eq("_id", properties.nodeId()),
+                new Document("_id", properties.nodeId())
+                        .append("resumeToken", Document.parse(resumeToken.toJson()))
+                        .append("updatedAt", Date.from(now)),
+                new ReplaceOptions().upsert(true));
+        savedToken = resumeToken;
+        lastCheckpoint = now;
+    }
+
+    private void clearCheckpoint() {
+        resumeToken = null;
+        savedToken = null;
+        checkpoints().deleteOne(Filters.eq("_id", properties.nodeId()));
+    }
+
+    /**
+     * What the previous polls have seen: coins modified within the clock skew
+     * tolerance, and the document counts.
+     */
+    private static final class PollState {
+        private final Map<String, Date> recentCoins = new HashMap<>();
+        private Instant coinWatermark = Instant.now();
+        private long coinCount = -1;
+        private long collectionCount = -1;
+        private Date collectionWatermark;
+    }
+
+    private void poll(PollState state) {
+        pollCoins(state);
+        pollCollections(state);
+        rebuildStatsIfDirty();
+    }
+
+    private void pollCoins(PollState state) {
+        String collection = mongoTemplate.getCollectionName(Coin.class);
+        Instant since = state.coinWatermark.minus(properties.maxClockSkew());
+        Query query = Query.query(Criteria.where("updatedAt").gt(Date.from(since)));
+        query.fields().include("updatedAt", "createdAt", "version");
+
+        long inserted = 0;
+        Instant watermark = state.coinWatermark;
+        for (Document coin : mongoTemplate.find(query, Document.class, collection)) {
+            String id = idOf(coin.get("_id"));
+            Date updatedAt = coin.getDate("updatedAt");
+            Date previous = state.recentCoins.put(id, updatedAt);
+            if (updatedAt.equals(previous)) {
+                ownWrites.remove(id);
+                continue;
+            }
+            Date createdAt = coin.getDate("createdAt");
+            boolean created = previous == null && createdAt != null && createdAt.toInstant().isAfter(since);
+            if (created) {
+                inserted++;
+            }
+            if (updatedAt.toInstant().isAfter(watermark)) {
+                watermark = updatedAt.toInstant();
+            }
+            OwnWrite own = ownWrites.remove(id);
+            if (own != null && coin.get("version") instanceof Number version && own.version() == version.longValue()) {
+                // Already applied through the local event
+                continue;
+            }
+            evict(CacheConfig.COINS, id);
+            evict(CacheConfig.COIN_AUDIT, id);
+            clear(CacheConfig.COLLECTION_SUMMARIES);
+            datasetVersions.invalidate(Coin.class);
+            if (created) {
+                activityStats.evict(null, toCoin(coin));
+            } else {
+                // The previous modification time is unknown
+                activityStats.invalidate();
+            }
+            statsDirty = true;
+        }
+        state.coinWatermark = watermark;
+        Instant oldestSeen = watermark.minus(properties.maxClockSkew());
+        Date oldest = Date.from(oldestSeen);
+        state.recentCoins.values().removeIf(updatedAt -> !updatedAt.after(oldest));
+        ownWrites.values().removeIf(own -> !own.updatedAt().isAfter(oldestSeen));
+
+        long deleted = ownDeletes.getAndSet(0);
+        long count = mongoTemplate.getCollection(collection).estimatedDocumentCount();
+        long expected = state.coinCount + inserted - deleted;
+        if (state.coinCount >= 0 && count != expected) {
+            // Deleted coins leave no trace: drop every cached coin
+            if (count < expected) {
+                clear(CacheConfig.COINS);
+                clear(CacheConfig.COIN_AUDIT);
+                clear(CacheConfig.COLLECTION_SUMMARIES);
+                activityStats.invalidate();
+            }
+            datasetVersions.invalidate(Coin.class);
+            statsDirty = true;
+        }
+        state.coinCount = count;
+    }
+
+    /**
+     * Version and modification time of a coin written by this instance.
+     */
+    private record OwnWrite(long version, Instant updatedAt) {
+    }
+
+    private void pollCollections(PollState state) {
+        String collection = mongoTemplate.getCollectionName(CoinCollection.class);
+        long count = mongoTemplate.getCollection(collection).estimatedDocumentCount();
+        Query latest = new Query().with(Sort.by(Sort.Direction.DESC, "updatedAt")).limit(1);
+        latest.fields().include("updatedAt");
+        Document last = mongoTemplate.findOne(latest, Document.class, collection);
+        Date watermark = last == null ? null : last.getDate("updatedAt");
+
+        if (state.collectionCount >= 0
+                && (count != state.collectionCount || !Objects.equals(watermark, state.collectionWatermark))) {
+            clear(CacheConfig.COLLECTIONS);
+            clear(CacheConfig.COLLECTION_LIST);
+            clear(CacheConfig.COLLECTION_SUMMARIES);
+            datasetVersions.invalidate(CoinCollection.class);
+        }
+        state.collectionCount = count;
+        state.collectionWatermark = watermark;
+    }
+
+    private void rebuildStatsIfDirty() {
+        Instant now = Instant.now();
+        if (statsDirty && !now.isBefore(lastStatsRebuild.plus(properties.minStatsRebuildInterval()))) {
+            statsDirty = false;
+            lastStatsRebuild = now;
+            statsView.rebuild();
+        }
+    }
+
+    private void invalidateAll() {
+        clear(CacheConfig.COINS);
+        clear(CacheConfig.COIN_AUDIT);
+        clear(CacheConfig.COLLECTIONS);
+        clear(CacheConfig.COLLECTION_LIST);
+        clear(CacheConfig.COLLECTION_SUMMARIES);
+        datasetVersions.invalidate(Coin.class);
+        datasetVersions.invalidate(CoinCollection.class);
+        activityStats.invalidate();
+        statsDirty = true;
+    }
+
+    private void evict(String cacheName, String id) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evictIfPresent(id);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    /**
+     * Returns the cache key of a document id: the hexadecimal form of an
+     * {@link ObjectId}, as exposed by the entities.
+     */
+    private static String idOf(Object id) {
+        if (id instanceof BsonValue value) {
+            if (value.isObjectId()) {
+                return value.asObjectId().getValue().toHexString();
+            }
+            return value.isString() ? value.asString().getValue() : value.toString();
+        }
+        return id instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(id);
+    }
+
+    private void pause(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -2,15 +2,33 @@ package com.asd.cointrack.service;
 
 import java.util.List;
 
+import org.bson.Document;
+
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
 import org.springframework.stereotype.Service;
 
+import com.asd.cointrack.config.CacheConfig;
+import com.asd.cointrack.dto.CoinCollectionSummary;
+import com.asd.cointrack.dto.CursorPage;
+import com.asd.cointrack.dto.DatasetVersion;
+import com.asd.cointrack.dto.DocumentVersion;
+import com.asd.cointrack.event.CoinChangedEvent;
 import com.asd.cointrack.model.Coin;
 import com.asd.cointrack.model.CoinCollection;
 import com.asd.cointrack.repository.CoinCollectionRepository;
 import com.asd.cointrack.repository.CoinRepository;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -19,18 +37,23 @@ import lombok.RequiredArgsConstructor;
  */
 @Service
 @RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "MongoTemplate is an injected Spring bean and is not exposed outside the service")
 public class CoinCollectionService {
 
     private final CoinCollectionRepository collectionRepository;
     private final CoinRepository coinRepository;
+    private final MongoTemplate mongoTemplate;
+    private final DatasetVersions datasetVersions;
 
     /**
-     * Returns all collections.
+     * Returns all collections, cached as a single immutable list until the next
+     * collection is created.
      *
      * @return list of collections
      */
+    @Cacheable(CacheConfig.COLLECTION_LIST)
     public List<CoinCollection> getAllCollections() {
-        return collectionRepository.findAll();
+        return List.copyOf(collectionRepository.findAll());
     }
 
     /**
@@ -39,18 +62,106 @@ public class CoinCollectionService {
      * @param id collection identifier
      * @return collection or {@code null} if not found
      */
+    @Cacheable(cacheNames = CacheConfig.COLLECTIONS, unless = "#result == null")
     public CoinCollection getCollectionById(String id) {
         return collectionRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Reloads a collection from the database and replaces its cached copy,
+     * used when the cached copy is older than the stored document.
+     *
+     * @param id collection identifier
+     * @return collection or {@code null} if not found
+     */
+    @CachePut(cacheNames = CacheConfig.COLLECTIONS, unless = "#result == null")
+    public CoinCollection reloadCollection(String id) {
+        return collectionRepository.findById(id).orElse(null);
+    }
+
+    /**
+     * Returns the version of a collection, reading only its version and
+     * modification time.
+     *
+     * @param id collection identifier
+     * @return collection version or {@code null} if the collection does not
+     *         exist
+     */
+    public DocumentVersion getCollectionVersion(String id) {
+        return VersionQueries.version(mongoTemplate, id, CoinCollection.class);
+    }
+
+    /**
+     * Returns a fingerprint of all collections, changing on every insert,
+     * update and deletion. It is kept in memory between writes, see
+     * {@link DatasetVersions}.
+     *
+     * @return collections fingerprint
+     */
+    public DatasetVersion getCollectionsVersion() {
+        return datasetVersions.current(CoinCollection.class);
+    }
+
     /**
      * Creates a new collection.
      *
      * @param collection collection to persist
      * @return persisted collection
      */
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.COLLECTIONS, key = "#result.id"),
+            evict = @CacheEvict(cacheNames = { CacheConfig.COLLECTION_LIST, CacheConfig.COLLECTION_SUMMARIES },
+                    allEntries = true))
     public CoinCollection createCollection(CoinCollection collection) {
-        return collectionRepository.save(collection);
+        CoinCollection saved = collectionRepository.save(collection);
+        datasetVersions.invalidate(CoinCollection.class);
+        return saved;
+    }
+
+    /**
+     * Returns every collection, sorted by name, with the number of its coins,
+     * their total and average price and their year span.
+     * <p>
+     * A single aggregation on the collections looks up the coins of each one
+     * through the {@code collectionId} index and groups them on the server, so
+     * no coin is transferred. The result is cached until the next write to a
+     * collection or to a coin belonging to one.
+     *
+     * @return collection summaries, empty collections included
+     */
+    @Cacheable(CacheConfig.COLLECTION_SUMMARIES)
+    public List<CoinCollectionSummary> getCollectionSummaries() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.sort(Sort.by("name")),
+                Aggregation.project("name", "description")
+                        .and(ConvertOperators.valueOf("_id").convertToString()).as("key"),
+                Aggregation.lookup()
+                        .from(mongoTemplate.getCollectionName(Coin.class))
+                        .localField("key")
+                        .foreignField("collectionId")
+                        .pipeline(Aggregation.group()
+                                .count().as("coinCount")
+                                .sum("price").as("totalPrice")
+                                .min("year").as("minYear")
+                                .max("year").as("maxYear"))
+                        .as("coins"));
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(CoinCollection.class),
+                Document.class).getMappedResults().stream()
+                .map(CoinCollectionService::toSummary)
+                .toList();
+    }
+
+    /**
+     * Drops the cached collection summaries when a coin enters, leaves or
+     * changes within a collection.
+     *
+     * @param event change event
+     */
+    @EventListener
+    @CacheEvict(cacheNames = CacheConfig.COLLECTION_SUMMARIES, allEntries = true,
+            condition = "#event.before()?.collectionId != null or #event.after()?.collectionId != null")
+    public void onCoinChanged(CoinChangedEvent event) {
+        // eviction only
     }
 
     /**
@@ -61,6 +172,48 @@ public class CoinCollectionService {
      * @return page of coins
      */
     public Page<Coin> getCoinsByCollection(String collectionId, Pageable pageable) {
-        return coinRepository.findByCollectionId(collectionId, pageable);
+        return getCoinsByCollection(collectionId, pageable, Coin.class);
+    }
+
+    /**
+     * Returns coins associated with the given collection in paginated form,
+     * read as the given type.
+     *
+     * @param <T>          result type
+     * @param collectionId collection identifier
+     * @param pageable     pagination and sorting information
+     * @param type         {@link Coin} or a projection of it
+     * @return page of coins
+     */
+    public <T> Page<T> getCoinsByCollection(String collectionId, Pageable pageable, Class<T> type) {
+        return coinRepository.findByCollectionId(collectionId, pageable, type);
+    }
+
+    /**
+     * Returns a slice of the coins associated with the given collection using
+     * keyset pagination, without counting the total number of coins.
+     *
+     * @param collectionId collection identifier
+     * @param after        cursor of the previous slice, {@code null} for the first
+     * @param pageable     slice size and sort ({@code name}, {@code price} or
+     *                     {@code year})
+     * @return slice of coins with the cursor of the next one
+     */
+    public CursorPage<Coin> scrollCoinsByCollection(String collectionId, String after, Pageable pageable) {
+        Sort sort = CoinCursors.sort(pageable);
+        return CoinCursors.page(coinRepository.findByCollectionId(collectionId,
+                CoinCursors.position(after, sort), CoinCursors.limit(pageable), sort));
+    }
+
+    private static CoinCollectionSummary toSummary(Document collection) {
+        List<Document> coins = collection.getList("coins", Document.class);
+        Document stats = coins == null || coins.isEmpty() ? new Document() : coins.get(0);
+        long coinCount = stats.get("coinCount") instanceof Number count ? count.longValue() : 0L;
+        double totalPrice = stats.get("totalPrice") instanceof Number total ? total.doubleValue() : 0.0;
+        return new CoinCollectionSummary(String.valueOf(collection.get("key")), collection.getString("name"),
+                collection.getString("description"), coinCount, totalPrice,
+                coinCount == 0 ? 0.0 : totalPrice / coinCount,
+                stats.get("minYear") instanceof Number min ? min.intValue() : null,
+                stats.get("maxYear") instanceof Number max ? max.intValue() : null);
     }
 }
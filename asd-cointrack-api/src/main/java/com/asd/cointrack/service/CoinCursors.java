@@ -0,0 +1,150 @@
+package com.asd.cointrack.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.asd.cointrack.dto.CursorPage;
+
+/**
+ * Support for keyset (cursor-based) pagination of coins.
+ * <p>
+ * A cursor is the Base64url encoding of the keyset of the last returned coin:
+ * the values of the sort properties plus the identifier used by Spring Data as
+ * tie-breaker. Clients must treat it as opaque and send it back unchanged with
+ * the same {@code sort}.
+ */
+public final class CoinCursors {
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("name", "price", "year");
+    private static final String ID_PROPERTY = "ID";
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+
+    private CoinCursors() {
+    }
+
+    /**
+     * Validates the requested sort, defaulting to {@code name} ascending.
+     *
+     * @param pageable requested size and sort
+     * @return sort usable for keyset pagination
+     * @throws IllegalArgumentException if a sort property is not supported
+     */
+    public static Sort sort(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.isUnsorted()) {
+            return Sort.by(Sort.Direction.ASC, "name");
+        }
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException(
+                        "cursor pagination supports sorting by name, price or year only");
+            }
+        }
+        return sort;
+    }
+
+    /**
+     * Returns the slice size, applying the same defaults and bounds used for
+     * offset pagination.
+     *
+     * @param pageable requested size and sort
+     * @return limit between 1 and 100
+     */
+    public static Limit limit(Pageable pageable) {
+        int size = pageable.getPageSize();
+        if (size <= 0) {
+            size = 20;
+        } else if (size > 100) {
+            size = 100;
+        }
+        return Limit.of(size);
+    }
+
+    /**
+     * Creates a query usable with {@code MongoTemplate.scroll}.
+     * <p>
+     * Spring Data adds the keyset conditions to the query document in place,
+     * which fails on the immutable document returned for a query without
+     * criteria; this query always hands out a mutable copy instead.
+     *
+     * @param criteria filter criteria, possibly empty
+     * @return query
+     */
+    public static Query query(Criteria criteria) {
+        Query query = new KeysetQuery();
+        if (!criteria.getCriteriaObject().isEmpty()) {
+            query.addCriteria(criteria);
+        }
+        return query;
+    }
+
+    /**
+     * Decodes a cursor into a scroll position.
+     *
+     * @param after cursor returned by a previous slice, or {@code null} for the
+     *              first slice
+     * @param sort  sort of the current request
+     * @return scroll position
+     * @throws IllegalArgumentException if the cursor is malformed or was issued
+     *                                  for a different sort
+     */
+    public static KeysetScrollPosition position(String after, Sort sort) {
+        if (after == null || after.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Document keys;
+        try {
+            keys = Document.parse(new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | JsonParseException ex) {
+            throw new IllegalArgumentException("after is not a valid cursor", ex);
+        }
+
+        if (!keys.containsKey(ID_PROPERTY)
+                || !sort.stream().allMatch(order -> keys.containsKey(order.getProperty()))) {
+            throw new IllegalArgumentException("after cursor does not match the requested sort");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Converts a window of results into a cursor page.
+     *
+     * @param window scroll result
+     * @param <T>    element type
+     * @return cursor page with the cursor of the next slice
+     */
+    public static <T> CursorPage<T> page(Window<T> window) {
+        String next = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            String json = new Document(last.getKeys()).toJson(JSON_SETTINGS);
+            next = Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return new CursorPage<>(window.getContent(), window.size(), window.hasNext(), next);
+    }
+
+    private static final class KeysetQuery extends Query {
+
+        @Override
+        public Document getQueryObject() {
+            return new Document(super.getQueryObject());
+        }
+    }
+}
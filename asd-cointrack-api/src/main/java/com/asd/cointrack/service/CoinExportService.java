@@ -0,0 +1,119 @@
+package com.asd.cointrack.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.ExportFormat;
+import com.asd.cointrack.model.Coin;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Streams the coin catalogue, or the subset matching an advanced search
+ * filter, as NDJSON or CSV.
+ * <p>
+ * Coins are read through a MongoDB cursor and written to the response one at
+ * a time, so memory use does not depend on the number of exported coins.
+ */
+@Service
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Injected Spring beans are not exposed outside the service")
+public class CoinExportService {
+
+    private static final int CURSOR_BATCH_SIZE = 1000;
+    private static final String CSV_HEADER = "id,name,year,material,weight,diameter,height,price,"
+            + "conservationObverse,conservationReverse,degree,note,photoPathObverse,photoPathReverse,"
+            + "collectionId,createdAt,updatedAt,createdBy,updatedBy";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Prepares the export of the coins matching the filter. The filter is
+     * validated immediately; the query runs when the returned body is written.
+     *
+     * @param filter search filter, same semantics as the advanced search
+     * @param format output format
+     * @return response body writing the coins in {@code _id} order
+     */
+    public StreamingResponseBody export(CoinSearchFilter filter, ExportFormat format) {
+        Query query = CoinQueries.query(filter)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(CURSOR_BATCH_SIZE);
+        return switch (format) {
+            case NDJSON -> out -> writeNdjson(query, out);
+            case CSV -> out -> writeCsv(query, out);
+        };
+    }
+
+    private void writeNdjson(Query query, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Coin.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<Coin> coins = mongoTemplate.stream(query, Coin.class);
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<Coin> iterator = coins.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(Query query, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<Coin> coins = mongoTemplate.stream(query, Coin.class)) {
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+            Iterator<Coin> iterator = coins.iterator();
+            while (iterator.hasNext()) {
+                writeCsvRow(writer, iterator.next());
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, Coin coin) throws IOException {
+        Object[] values = {
+                coin.getID(), coin.getName(), coin.getYear(), coin.getMaterial(),
+                coin.getWeight(), coin.getDiameter(), coin.getHeight(), coin.getPrice(),
+                coin.getConservationObverse(), coin.getConservationReverse(), coin.getDegree(),
+                coin.getNote(), coin.getPhotoPathObverse(), coin.getPhotoPathReverse(),
+                coin.getCollectionId(), coin.getCreatedAt(), coin.getUpdatedAt(),
+                coin.getCreatedBy(), coin.getUpdatedBy() };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvField(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
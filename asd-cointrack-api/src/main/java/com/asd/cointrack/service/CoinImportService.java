@@ -0,0 +1,198 @@
+package com.asd.cointrack.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import com.asd.cointrack.config.ImportProperties;
+import com.asd.cointrack.dto.CoinImportError;
+import com.asd.cointrack.dto.CoinImportReport;
+import com.asd.cointrack.event.CoinChangedEvent;
+import com.asd.cointrack.model.Coin;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Imports large sets of coins in a single request.
+ * <p>
+ * The request body is read incrementally, one record at a time, so memory use
+ * is bounded by the batch size rather than by the size of the import. Each
+ * record is validated with the Bean Validation constraints of {@link Coin};
+ * valid records are written with unordered bulk inserts of
+ * {@code cointrack.import.batch-size} documents. Invalid records and records
+ * rejected by the database (for instance a duplicate id) are reported
+ * individually without stopping the import.
+ */
+@Service
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Injected Spring beans are not exposed outside the service")
+public class CoinImportService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImportProperties properties;
+
+    /**
+     * Imports coins from a JSON array. A syntax error stops reading, since the
+     * position of the following records is lost; the records read so far are
+     * still imported.
+     *
+     * @param body request body containing a JSON array of coins
+     * @return import report
+     * @throws IOException if the body cannot be read
+     */
+    public CoinImportReport importJsonArray(InputStream body) throws IOException {
+        ImportRun run = new ImportRun();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("request body must be a JSON array of coins");
+            }
+            JsonToken token = parser.nextToken();
+            while (token != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    run.reject("unexpected end of input, JSON array is not closed");
+                    break;
+                }
+                run.add(parser.readValueAsTree());
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            run.reject("malformed JSON, remaining input ignored: " + e.getOriginalMessage());
+        }
+        return run.finish();
+    }
+
+    /**
+     * Imports coins from newline-delimited JSON, one coin per line. Malformed
+     * lines are reported and skipped; blank lines are ignored.
+     *
+     * @param body request body in NDJSON format
+     * @return import report
+     * @throws IOException if the body cannot be read
+     */
+    public CoinImportReport importNdjson(InputStream body) throws IOException {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while (line != null) {
+                if (!line.isBlank()) {
+                    try {
+                        run.add(objectMapper.readTree(line));
+                    } catch (JsonProcessingException e) {
+                        run.reject("malformed JSON: " + e.getOriginalMessage());
+                    }
+                }
+                line = reader.readLine();
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * State of a single import: counters, collected errors and the batch of
+     * valid coins waiting to be written.
+     */
+    private final class ImportRun {
+
+        private final List<Coin> pending = new ArrayList<>();
+        private final List<Long> pendingIndexes = new ArrayList<>();
+        private final List<CoinImportError> errors = new ArrayList<>();
+        private long received;
+        private long inserted;
+
+        private void add(JsonNode node) {
+            long index = received++;
+            Coin coin;
+            try {
+                coin = objectMapper.treeToValue(node, Coin.class);
+            } catch (JsonProcessingException e) {
+                errors.add(new CoinImportError(index, List.of(e.getOriginalMessage())));
+                return;
+            }
+            Set<ConstraintViolation<Coin>> violations = validator.validate(coin);
+            if (!violations.isEmpty()) {
+                errors.add(new CoinImportError(index,
+                        violations.stream().map(ConstraintViolation::getMessage).sorted().toList()));
+                return;
+            }
+            // Bulk inserts do not initialize the version nor write the generated
+            // id back as save() does, and the change events need both
+            coin.setVersion(0L);
+            if (coin.getID() == null) {
+                coin.setID(new ObjectId().toHexString());
+            }
+            pending.add(coin);
+            pendingIndexes.add(index);
+            if (pending.size() >= properties.batchSize()) {
+                flush();
+            }
+        }
+
+        private void reject(String message) {
+            errors.add(new CoinImportError(received++, List.of(message)));
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Set<Integer> failed = new HashSet<>();
+            try {
+                inserted += mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Coin.class)
+                        .insert(pending)
+                        .execute()
+                        .getInsertedCount();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    failed.add(error.getIndex());
+                    errors.add(new CoinImportError(pendingIndexes.get(error.getIndex()), List.of(error.getMessage())));
+                }
+                inserted += pending.size() - failed.size();
+            } catch (DataAccessException e) {
+                for (int i = 0; i < pending.size(); i++) {
+                    failed.add(i);
+                    errors.add(new CoinImportError(pendingIndexes.get(i), List.of(e.getMessage())));
+                }
+            }
+            for (int i = 0; i < pending.size(); i++) {
+                if (!failed.contains(i)) {
+                    eventPublisher.publishEvent(CoinChangedEvent.created(pending.get(i)));
+                }
+            }
+            pending.clear();
+            pendingIndexes.clear();
+        }
+
+        private CoinImportReport finish() {
+            flush();
+            errors.sort(Comparator.comparingLong(CoinImportError::index));
+            return new CoinImportReport(received, inserted, errors.size(), errors);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.asd.cointrack.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+import com.mongodb.MongoException;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reports, at startup, which representative coin query shapes would not be
+ * served by an index.
+ * <p>
+ * Each shape is explained with the {@code queryPlanner} verbosity, so nothing
+ * is executed against the data. Winning plans containing a {@code COLLSCAN}
+ * (collection scan) or a {@code SORT} (in-memory sort) stage are logged as
+ * warnings, and so are filtered shapes whose {@code IXSCAN} has unbounded
+ * bounds on every field: the index only provides the order and the filter is
+ * applied to every entry, a collection scan in disguise. Unfiltered shapes
+ * legitimately walk a whole index for their sort. Disabled with
+ * {@code cointrack.indexes.check-query-shapes=false}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "cointrack.indexes", name = "check-query-shapes", havingValue = "true", matchIfMissing = true)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "MongoTemplate is an injected Spring bean and is not exposed outside the component")
+public class CoinIndexUsageCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(CoinIndexUsageCheck.class);
+    private static final Set<String> UNINDEXED_STAGES = Set.of("COLLSCAN", "SORT");
+    private static final String UNBOUNDED_INDEX_SCAN = "IXSCAN over the whole index";
+    private static final Set<String> UNBOUNDED = Set.of("[MinKey, MaxKey]", "[MaxKey, MinKey]");
+    private static final int LIMIT = 20;
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        String collection = mongoTemplate.getCollectionName(Coin.class);
+        List<QueryShape> shapes = shapes();
+        int flagged = 0;
+        for (QueryShape shape : shapes) {
+            try {
+                Set<String> stages = unindexedStages(explain(collection, shape), !shape.filter().isEmpty());
+                if (stages.isEmpty()) {
+                    log.debug("Query shape '{}' is fully served by an index", shape.name());
+                } else {
+                    flagged++;
+                    log.warn("Query shape '{}' uses {} (filter={}, sort={})", shape.name(), stages,
+                            shape.filter().toJson(), shape.sort().toJson());
+                }
+            } catch (DataAccessException | MongoException e) {
+                log.warn("Could not explain query shape '{}': {}", shape.name(), e.getMessage());
+                return;
+            }
+        }
+        log.info("Checked {} coin query shapes, {} not fully served by an index", shapes.size(), flagged);
+    }
+
+    private Document explain(String collection, QueryShape shape) {
+        Document find = new Document("find", collection)
+                .append("filter", shape.filter())
+                .append("sort", shape.sort())
+                .append("limit", LIMIT);
+        return mongoTemplate.getDb().runCommand(
+                new Document("explain", find).append("verbosity", "queryPlanner"));
+    }
+
+    /**
+     * Collects the unindexed stages of the winning plan, walking nested
+     * {@code inputStage}/{@code inputStages} and the {@code queryPlan} wrapper
+     * used by the slot-based execution engine.
+     *
+     * @param filtered whether an unbounded index scan is flagged
+     */
+    private static Set<String> unindexedStages(Document explain, boolean filtered) {
+        Set<String> stages = new LinkedHashSet<>();
+        Object planner = explain.get("queryPlanner");
+        if (planner instanceof Document plannerDocument) {
+            collectStages(plannerDocument.get("winningPlan"), filtered, stages);
+        }
+        return stages;
+    }
+
+    private static void collectStages(Object node, boolean filtered, Set<String> stages) {
+        if (node instanceof Map<?, ?> map) {
+            Object stage = map.get("stage");
+            if (stage instanceof String name && UNINDEXED_STAGES.contains(name)) {
+                stages.add(name);
+            } else if (filtered && "IXSCAN".equals(stage) && isUnbounded(map.get("indexBounds"))) {
+                stages.add(UNBOUNDED_INDEX_SCAN);
+            }
+            for (Object value : map.values()) {
+                collectStages(value, filtered, stages);
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object value : list) {
+                collectStages(value, filtered, stages);
+            }
+        }
+    }
+
+    /**
+     * Whether the bounds of an index scan, one list of intervals per field,
+     * cover every key of every field.
+     */
+    private static boolean isUnbounded(Object indexBounds) {
+        if (!(indexBounds instanceof Map<?, ?> bounds) || bounds.isEmpty()) {
+            return false;
+        }
+        for (Object intervals : bounds.values()) {
+            if (!(intervals instanceof List<?> list) || list.size() != 1 || !UNBOUNDED.contains(list.get(0))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Representative filter and sort shapes of the list, search, scroll and
+     * advanced search endpoints. Values are placeholders: only the shape
+     * matters to the planner.
+     */
+    private static List<QueryShape> shapes() {
+        List<QueryShape> shapes = new ArrayList<>();
+        Document byName = new Document("name", 1).append("_id", 1);
+
+        shapes.add(new QueryShape("list sorted by name", new Document(), byName));
+        shapes.add(new QueryShape("list sorted by year", new Document(),
+                new Document("year", 1).append("_id", 1)));
+        shapes.add(new QueryShape("top expensive", new Document(),
+                new Document("price", -1).append("_id", -1)));
+        shapes.add(new QueryShape("search by name", new Document("name", "Lira"), byName));
+        shapes.add(new QueryShape("search by year", new Document("year", 1900), byName));
+        shapes.add(new QueryShape("coins of a collection", new Document("collectionId", "collection"), byName));
+        shapes.add(new QueryShape("advanced search by degree and ranges",
+                new Document("degree", new Document("$in", List.of(NumismaticRarity.R4.name(), NumismaticRarity.R5.name())))
+                        .append("year", new Document("$gte", 1800).append("$lte", 1900))
+                        .append("price", new Document("$gte", 10.0).append("$lte", 1000.0)),
+                byName));
+        shapes.add(new QueryShape("advanced search by conservation",
+                new Document("conservationObverse", new Document("$in", List.of(OptionConservation.FDC.name()))),
+                byName));
+        shapes.add(new QueryShape("advanced search by name prefix",
+                new Document("searchName", Pattern.compile("^lira")), byName));
+        shapes.add(new QueryShape("advanced search by price range",
+                new Document("price", new Document("$gte", 10.0).append("$lte", 1000.0)), byName));
+        shapes.add(new QueryShape("latest modification (ETags of listings)", new Document(),
+                new Document("updatedAt", -1)));
+        shapes.add(new QueryShape("change feed polling",
+                new Document("updatedAt", new Document("$gt", new Date(0))), new Document()));
+        shapes.add(new QueryShape("activity by creation time",
+                new Document("createdAt", new Document("$gte", new Date(0)).append("$lt", new Date())),
+                new Document()));
+        shapes.add(new QueryShape("activity by modification time",
+                new Document("updatedAt", new Document("$gte", new Date(0)).append("$lt", new Date())),
+                new Document()));
+        return shapes;
+    }
+
+    private record QueryShape(String name, Document filter, Document sort) {
+    }
+}
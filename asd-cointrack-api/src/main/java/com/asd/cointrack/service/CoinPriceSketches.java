@@ -0,0 +1,262 @@
+package com.asd.cointrack.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.asd.cointrack.config.StatsSketchProperties;
+import com.asd.cointrack.dto.CoinDimension;
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.CoinsHistogramBucket;
+import com.asd.cointrack.dto.CoinsPercentiles;
+import com.asd.cointrack.dto.CoinsPriceDistribution;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Price distribution of the coins, overall and per rarity or conservation
+ * level, kept in {@link PriceSketch}es.
+ * <p>
+ * The unfiltered sketches are maintained like the {@link CoinStatsView}
+ * counters: adjusted by the delta of every change and reloaded by the view in
+ * the same pass as the counters, with the same replay of the deltas applied
+ * meanwhile. A filtered request streams
+ * the prices of the matching coins into temporary sketches instead, so memory
+ * stays bounded by the number of groups whatever the number of coins.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Injected Spring beans are not exposed outside the sketches")
+public class CoinPriceSketches {
+
+    private static final Logger log = LoggerFactory.getLogger(CoinPriceSketches.class);
+
+    private static final String[] FIELDS = { "price", "degree", "conservationObverse", "conservationReverse" };
+    private static final int MAX_PERCENTILES = 20;
+    private static final int MAX_BOUNDS = 50;
+
+    private final MongoTemplate mongoTemplate;
+    private final StatsSketchProperties properties;
+
+    private volatile Sketches sketches;
+
+    /**
+     * Returns whether the unfiltered sketches have been built.
+     *
+     * @return {@code true} if enabled and built at least once
+     */
+    public boolean isReady() {
+        return properties.enabled() && sketches != null;
+    }
+
+    /**
+     * Applies the delta of a single coin change to the unfiltered sketches.
+     *
+     * @param before state before the change, {@code null} for a created coin
+     * @param after  state after the change, {@code null} for a deleted coin
+     */
+    public void applyChange(Coin before, Coin after) {
+        Sketches current = sketches;
+        if (current == null) {
+            return;
+        }
+        if (before != null) {
+            current.add(before, -1);
+        }
+        if (after != null) {
+            current.add(after, 1);
+        }
+    }
+
+    /**
+     * Rebuilds the unfiltered sketches from the database on their own and
+     * swaps them in. Deltas applied while streaming only reach the old
+     * sketches: the scheduled rebuild goes through {@link CoinStatsView},
+     * which loads the sketches together with its counters and replays them.
+     */
+    public void rebuild() {
+        if (!properties.enabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        sketches = load(new Query());
+        log.debug("Rebuilt the price sketches in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns empty sketches for the view to fill while it reloads.
+     *
+     * @return empty sketches, {@code null} if disabled
+     */
+    Sketches emptySketches() {
+        return properties.enabled() ? newSketches() : null;
+    }
+
+    /**
+     * Swaps in sketches reloaded by the view.
+     *
+     * @param reloaded sketches holding every coin
+     */
+    void swap(Sketches reloaded) {
+        sketches = reloaded;
+    }
+
+    /**
+     * Estimates percentiles and a histogram of the price over the coins matching
+     * the filter, optionally per group.
+     *
+     * @param by          grouping dimension ({@code DEGREE},
+     *                    {@code CONSERVATION_OBVERSE} or
+     *                    {@code CONSERVATION_REVERSE}), {@code null} for a
+     *                    single group
+     * @param percentiles percentages between 0 and 100
+     * @param bounds      increasing, non-negative histogram bounds
+     * @param filter      search filter
+     * @return one entry per non-empty group
+     * @throws IllegalArgumentException if a parameter is not supported or a
+     *                                  range is inverted
+     */
+    public List<CoinsPriceDistribution> distribution(CoinDimension by, List<Double> percentiles, List<Double> bounds,
+            CoinSearchFilter filter) {
+        if (by == CoinDimension.YEAR || by == CoinDimension.MATERIAL) {
+            throw new IllegalArgumentException("price distributions can be grouped by DEGREE, CONSERVATION_OBVERSE "
+                    + "or CONSERVATION_REVERSE");
+        }
+        if (percentiles.isEmpty() || percentiles.size() > MAX_PERCENTILES) {
+            throw new IllegalArgumentException("between 1 and " + MAX_PERCENTILES + " percentiles are required");
+        }
+        for (Double percentile : percentiles) {
+            if (percentile == null || !(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("percentiles must be between 0 and 100");
+            }
+        }
+        if (bounds.isEmpty() || bounds.size() > MAX_BOUNDS) {
+            throw new IllegalArgumentException("between 1 and " + MAX_BOUNDS + " histogram bounds are required");
+        }
+        for (int i = 0; i < bounds.size(); i++) {
+            Double bound = bounds.get(i);
+            if (bound == null || !(bound >= 0 && bound < Double.POSITIVE_INFINITY)
+                    || i > 0 && bound <= bounds.get(i - 1)) {
+                throw new IllegalArgumentException("histogram bounds must be increasing and not negative");
+            }
+        }
+
+        Query query = CoinQueries.query(filter);
+        Sketches current = sketches;
+        Sketches source = properties.enabled() && current != null && query.getQueryObject().isEmpty() ? current
+                : load(query);
+
+        PriceSketch[] groups = source.groups(by);
+        List<CoinsPriceDistribution> result = new ArrayList<>();
+        for (int group = 0; group < groups.length; group++) {
+            PriceSketch sketch = groups[group];
+            long count = sketch.count();
+            if (count == 0) {
+                continue;
+            }
+            List<CoinsPercentiles.Percentile> points = percentiles.stream()
+                    .map(percentile -> new CoinsPercentiles.Percentile(percentile, sketch.quantile(percentile / 100)))
+                    .toList();
+            result.add(new CoinsPriceDistribution(label(by, group), count,
+                    sketch.getRelativeAccuracy(), points, histogram(sketch, count, bounds)));
+        }
+        return result;
+    }
+
+    private static List<CoinsHistogramBucket> histogram(PriceSketch sketch, long count, List<Double> bounds) {
+        List<CoinsHistogramBucket> histogram = new ArrayList<>(bounds.size() + 1);
+        long below = sketch.countBelow(bounds.get(0));
+        if (below > 0) {
+            histogram.add(new CoinsHistogramBucket(0.0, bounds.get(0), below));
+        }
+        for (int i = 1; i < bounds.size(); i++) {
+            long next = sketch.countBelow(bounds.get(i));
+            histogram.add(new CoinsHistogramBucket(bounds.get(i - 1), bounds.get(i), next - below));
+            below = next;
+        }
+        if (count > below) {
+            double last = bounds.get(bounds.size() - 1);
+            histogram.add(new CoinsHistogramBucket(last, Math.max(sketch.highest(), last), count - below));
+        }
+        return histogram;
+    }
+
+    private Sketches load(Query query) {
+        query.fields().include(FIELDS);
+        Sketches loaded = newSketches();
+        try (Stream<Coin> coins = mongoTemplate.stream(query, Coin.class)) {
+            coins.forEach(coin -> loaded.add(coin, 1));
+        }
+        return loaded;
+    }
+
+    private Sketches newSketches() {
+        return new Sketches(() -> new PriceSketch(properties.relativeAccuracy()));
+    }
+
+    private static String label(CoinDimension by, int group) {
+        if (by == null) {
+            return null;
+        }
+        return by == CoinDimension.DEGREE ? NumismaticRarity.values()[group].name()
+                : OptionConservation.values()[group].name();
+    }
+
+    /**
+     * One sketch over every coin plus one per rarity and per conservation level
+     * of each side, indexed by ordinal.
+     */
+    static final class Sketches {
+
+        private final PriceSketch[] all;
+        private final PriceSketch[] byDegree;
+        private final PriceSketch[] byObverse;
+        private final PriceSketch[] byReverse;
+
+        private Sketches(Supplier<PriceSketch> factory) {
+            all = new PriceSketch[] { factory.get() };
+            byDegree = Stream.generate(factory).limit(NumismaticRarity.values().length).toArray(PriceSketch[]::new);
+            byObverse = Stream.generate(factory).limit(OptionConservation.values().length)
+                    .toArray(PriceSketch[]::new);
+            byReverse = Stream.generate(factory).limit(OptionConservation.values().length)
+                    .toArray(PriceSketch[]::new);
+        }
+
+        void add(Coin coin, long delta) {
+            double price = coin.getPrice();
+            all[0].add(price, delta);
+            add(byDegree, coin.getDegree(), price, delta);
+            add(byObverse, coin.getConservationObverse(), price, delta);
+            add(byReverse, coin.getConservationReverse(), price, delta);
+        }
+
+        private static void add(PriceSketch[] groups, Enum<?> group, double price, long delta) {
+            if (group != null) {
+                groups[group.ordinal()].add(price, delta);
+            }
+        }
+
+        private PriceSketch[] groups(CoinDimension by) {
+            if (by == null) {
+                return all;
+            }
+            return switch (by) {
+                case DEGREE -> byDegree;
+                case CONSERVATION_OBVERSE -> byObverse;
+                case CONSERVATION_REVERSE -> byReverse;
+                case YEAR, MATERIAL -> throw new IllegalArgumentException("unsupported dimension " + by);
+            };
+        }
+    }
+}
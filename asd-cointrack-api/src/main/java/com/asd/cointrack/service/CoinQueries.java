@@ -0,0 +1,116 @@
+package com.asd.cointrack.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.TextMatchMode;
+
+/**
+ * Translates a {@link CoinSearchFilter} into MongoDB criteria.
+ * <p>
+ * Kept separate from {@link CoinService} so that search, statistics and any
+ * other filtered operation build exactly the same query.
+ */
+public final class CoinQueries {
+
+    private CoinQueries() {
+    }
+
+    /**
+     * Builds the criteria matching the given filter.
+     *
+     * @param filter search filter
+     * @return criteria, empty when the filter has no conditions
+     * @throws IllegalArgumentException if a range is inverted
+     */
+    public static Criteria criteria(CoinSearchFilter filter) {
+        validateRanges(filter.minYear(), filter.maxYear(), filter.minPrice(), filter.maxPrice());
+
+        Criteria criteria = new Criteria();
+
+        if (filter.name() != null && !filter.name().isBlank()) {
+            criteria = criteria.and("searchName").regex(textPattern(filter.name(), filter.textMatch()));
+        }
+        if (filter.material() != null && !filter.material().isBlank()) {
+            criteria = criteria.and("searchMaterial").regex(textPattern(filter.material(), filter.textMatch()));
+        }
+        if (!filter.degreeIn().isEmpty()) {
+            criteria = criteria.and("degree").in(filter.degreeIn());
+        } else if (filter.degree() != null) {
+            criteria = criteria.and("degree").is(filter.degree());
+        }
+        if (!filter.conservationObverseIn().isEmpty()) {
+            criteria = criteria.and("conservationObverse").in(filter.conservationObverseIn());
+        }
+        if (filter.minYear() != null && filter.maxYear() != null) {
+            criteria = criteria.and("year").gte(filter.minYear()).lte(filter.maxYear());
+        } else if (filter.minYear() != null) {
+            criteria = criteria.and("year").gte(filter.minYear());
+        } else if (filter.maxYear() != null) {
+            criteria = criteria.and("year").lte(filter.maxYear());
+        }
+        if (filter.minPrice() != null && filter.maxPrice() != null) {
+            criteria = criteria.and("price").gte(filter.minPrice()).lte(filter.maxPrice());
+        } else if (filter.minPrice() != null) {
+            criteria = criteria.and("price").gte(filter.minPrice());
+        } else if (filter.maxPrice() != null) {
+            criteria = criteria.and("price").lte(filter.maxPrice());
+        }
+
+        return criteria;
+    }
+
+    /**
+     * Builds a query matching the given filter, without pagination.
+     *
+     * @param filter search filter
+     * @return query
+     * @throws IllegalArgumentException if a range is inverted
+     */
+    public static Query query(CoinSearchFilter filter) {
+        Query query = new Query();
+        Criteria criteria = criteria(filter);
+        if (!criteria.getCriteriaObject().isEmpty()) {
+            query.addCriteria(criteria);
+        }
+        return query;
+    }
+
+    /**
+     * Builds a case-sensitive pattern over the normalized search fields. Being
+     * case-sensitive it can use their indexes: an anchored prefix becomes a
+     * bounded index range, a fragment is matched on the index keys alone.
+     */
+    private static String textPattern(String fragment, TextMatchMode mode) {
+        String escaped = SearchTextNormalizer.escapeRegex(SearchTextNormalizer.normalize(fragment));
+        return mode == TextMatchMode.PREFIX ? "^" + escaped : escaped;
+    }
+
+    /**
+     * Clamps the requested page to the limits accepted by the API: page index
+     * not negative, page size between 1 and 100 (20 when not positive).
+     */
+    static Pageable sanitizePageable(Pageable pageable) {
+        int page = Math.max(pageable.getPageNumber(), 0);
+        int size = pageable.getPageSize();
+        int maxSize = 100;
+        if (size <= 0) {
+            size = 20;
+        } else if (size > maxSize) {
+            size = maxSize;
+        }
+        return PageRequest.of(page, size, pageable.getSort());
+    }
+
+    static void validateRanges(Integer minYear, Integer maxYear, Double minPrice, Double maxPrice) {
+        if (minYear != null && maxYear != null && minYear > maxYear) {
+            throw new IllegalArgumentException("minYear must be less than or equal to maxYear");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must be less than or equal to maxPrice");
+        }
+    }
+}
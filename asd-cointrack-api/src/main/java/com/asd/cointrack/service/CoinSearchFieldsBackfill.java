@@ -0,0 +1,109 @@
+package com.asd.cointrack.service;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.asd.cointrack.model.Coin;
+
+import com.mongodb.bulk.BulkWriteResult;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Populates the normalized search fields of coins written before they existed.
+ * <p>
+ * Runs once the application is ready, streaming only the affected documents
+ * and updating them with unordered bulk writes. Until it completes, such coins
+ * are not found by the textual filters of the advanced search.
+ * <p>
+ * Each update is conditional on the version read, so a coin renamed meanwhile
+ * is not given search fields derived from its old name. Coins that still lack
+ * the fields after such a conflict are picked up by another pass, after a
+ * backoff.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "MongoTemplate is an injected Spring bean and is not exposed outside the component")
+public class CoinSearchFieldsBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(CoinSearchFieldsBackfill.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final OptimisticRetry optimisticRetry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long updated = 0;
+        for (int attempt = 1;; attempt++) {
+            Pass pass = pass();
+            updated += pass.updated;
+            if (pass.conflicts == 0) {
+                break;
+            }
+            if (!optimisticRetry.canRetry(attempt) || !optimisticRetry.backOff(attempt)) {
+                log.warn("Search fields of {} coins not populated: concurrently modified", pass.conflicts);
+                break;
+            }
+        }
+        if (updated > 0) {
+            log.info("Populated search fields of {} coins", updated);
+        }
+    }
+
+    private Pass pass() {
+        Query query = Query.query(Criteria.where("searchName").exists(false)).cursorBatchSize(BATCH_SIZE);
+        query.fields().include("name", "material", "version");
+
+        Pass pass = new Pass();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Coin.class);
+        try (Stream<Coin> coins = mongoTemplate.stream(query, Coin.class)) {
+            Iterator<Coin> iterator = coins.iterator();
+            while (iterator.hasNext()) {
+                Coin coin = iterator.next();
+                bulk.updateOne(Query.query(Criteria.where("_id").is(coin.getID()).and("version").is(coin.getVersion())),
+                        Update.update("searchName", SearchTextNormalizer.normalize(coin.getName()))
+                                .set("searchMaterial", SearchTextNormalizer.normalize(coin.getMaterial()))
+                                .inc("version", 1));
+                pass.pending++;
+                if (pass.pending == BATCH_SIZE) {
+                    pass.execute(bulk);
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Coin.class);
+                }
+            }
+        }
+        if (pass.pending > 0) {
+            pass.execute(bulk);
+        }
+        return pass;
+    }
+
+    /**
+     * Outcome of one pass over the coins without search fields.
+     */
+    private static final class Pass {
+
+        private int pending;
+        private long updated;
+        private long conflicts;
+
+        private void execute(BulkOperations bulk) {
+            BulkWriteResult result = bulk.execute();
+            updated += result.getModifiedCount();
+            conflicts += pending - result.getMatchedCount();
+            pending = 0;
+        }
+    }
+}
@@ -1,30 +1,88 @@
 package com.asd.cointrack.service;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import com.asd.cointrack.config.BulkUpdateProperties;
+import com.asd.cointrack.config.CacheConfig;
+import com.asd.cointrack.config.SearchExecutorConfig;
+import com.asd.cointrack.config.SearchProperties;
+import com.asd.cointrack.dto.ActivityGranularity;
 import com.asd.cointrack.dto.CoinAuditInfo;
+import com.asd.cointrack.dto.CoinBatchResult;
+import com.asd.cointrack.dto.CoinsActivityBucket;
+import com.asd.cointrack.dto.CoinBulkUpdateRequest;
+import com.asd.cointrack.dto.CoinBulkUpdateResult;
+import com.asd.cointrack.dto.CoinDimension;
+import com.asd.cointrack.dto.CoinMeasure;
+import com.asd.cointrack.dto.CoinPatch;
 import com.asd.cointrack.dto.CoinsByDegreeStats;
 import com.asd.cointrack.dto.CoinsByYearStats;
+import com.asd.cointrack.dto.CoinsHistogramBucket;
+import com.asd.cointrack.dto.CoinsPercentiles;
+import com.asd.cointrack.dto.CoinsPivotCell;
+import com.asd.cointrack.dto.CoinsPriceDistribution;
 import com.asd.cointrack.dto.CoinsSummaryStats;
 import com.asd.cointrack.dto.CoinsByMaterialStats;
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.CoinSummary;
+import com.asd.cointrack.dto.CoinsStatsOverview;
+import com.asd.cointrack.dto.CountMode;
+import com.asd.cointrack.dto.CursorPage;
+import com.asd.cointrack.dto.DatasetVersion;
+import com.asd.cointrack.dto.DocumentVersion;
+import com.asd.cointrack.event.CoinChangedEvent;
+import com.asd.cointrack.exception.AnalyticsUnavailableException;
 import com.asd.cointrack.model.Coin;
 import com.asd.cointrack.model.NumismaticRarity;
-import com.asd.cointrack.model.OptionConservation;
 import com.asd.cointrack.repository.CoinRepository;
 
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -35,11 +93,23 @@ import lombok.RequiredArgsConstructor;
  */
 @Service
 @RequiredArgsConstructor
-@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "MongoTemplate is an injected Spring bean and is not exposed outside the service")
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "MongoTemplate and the statistics views are injected Spring beans and are not exposed outside the service")
 public class CoinService {
 
     private final CoinRepository coinRepository;
     private final MongoTemplate mongoTemplate;
+    private final CoinStatsView statsView;
+    private final CoinStatsColumns statsColumns;
+    private final CoinPriceSketches priceSketches;
+    private final CoinActivityStats activityStats;
+    private final DatasetVersions datasetVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchProperties searchProperties;
+    private final Validator validator;
+    private final AuditorAware<String> auditorAware;
+    private final BulkUpdateProperties bulkUpdateProperties;
+    @Qualifier(SearchExecutorConfig.SEARCH_COUNT_EXECUTOR)
+    private final AsyncTaskExecutor searchExecutor;
 
     /**
      * Returns all coins in paginated form.
@@ -48,14 +118,100 @@ public class CoinService {
      * @return page of coins
      */
     public Page<Coin> getAllCoins(Pageable pageable) {
-        Pageable sanitized = sanitizePageable(pageable);
-        return coinRepository.findAll(sanitized);
+        return getAllCoins(pageable, Coin.class);
+    }
+
+    /**
+     * Returns all coins in paginated form, read as the given type. For a
+     * projection type such as {@link CoinSummary} only its fields are fetched.
+     *
+     * @param <T>      result type
+     * @param pageable pagination and sorting information
+     * @param type     {@link Coin} or a projection of it
+     * @return page of coins
+     */
+    public <T> Page<T> getAllCoins(Pageable pageable, Class<T> type) {
+        Pageable sanitized = CoinQueries.sanitizePageable(pageable);
+        return coinRepository.findAllBy(sanitized, type);
     }
 
+    /**
+     * Returns a coin by id, served from the {@link CacheConfig#COINS} cache when
+     * present.
+     *
+     * @param id coin identifier
+     * @return coin or {@code null} if not found
+     */
+    @Cacheable(cacheNames = CacheConfig.COINS, unless = "#result == null")
     public Coin getCoinById(String id) {
         return coinRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Returns many coins by id with a single {@code $in} query, read as the
+     * given type. Duplicate ids are resolved once.
+     *
+     * @param ids  coin identifiers
+     * @param type {@link Coin} or {@link CoinSummary}
+     * @return coins in the order of {@code ids} and the ids that were not found
+     */
+    public CoinBatchResult getCoinsByIds(List<String> ids, Class<?> type) {
+        Set<String> requested = new LinkedHashSet<>(ids);
+        Map<String, Object> found = new HashMap<>();
+        for (Object coin : find(Query.query(Criteria.where("_id").in(requested)), type)) {
+            found.put(idOf(coin), coin);
+        }
+        List<Object> coins = new ArrayList<>(found.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : requested) {
+            Object coin = found.get(id);
+            if (coin == null) {
+                missing.add(id);
+            } else {
+                coins.add(coin);
+            }
+        }
+        return new CoinBatchResult(coins, missing);
+    }
+
+    private static String idOf(Object coin) {
+        return coin instanceof CoinSummary summary ? summary.id() : ((Coin) coin).getID();
+    }
+
+    /**
+     * Reloads a coin from the database and replaces its cached copy, used when
+     * the cached copy is older than the stored document.
+     *
+     * @param id coin identifier
+     * @return coin or {@code null} if not found
+     */
+    @CachePut(cacheNames = CacheConfig.COINS, unless = "#result == null")
+    public Coin reloadCoin(String id) {
+        return coinRepository.findById(id).orElse(null);
+    }
+
+    /**
+     * Returns the version of a coin, reading only its version and modification
+     * time.
+     *
+     * @param id coin identifier
+     * @return coin version or {@code null} if the coin does not exist
+     */
+    public DocumentVersion getCoinVersion(String id) {
+        return VersionQueries.version(mongoTemplate, id, Coin.class);
+    }
+
+    /**
+     * Returns a fingerprint of the whole coin catalogue, changing on every
+     * insert, update and deletion. It is kept in memory between writes, see
+     * {@link DatasetVersions}.
+     *
+     * @return catalogue fingerprint
+     */
+    public DatasetVersion getCoinsVersion() {
+        return datasetVersions.current(Coin.class);
+    }
+
     /**
      * Performs a basic search by name or year.
      *
@@ -65,94 +221,219 @@ public class CoinService {
      * @return page of coins matching the criteria
      */
     public Page<Coin> searchCoins(String name, Integer year, Pageable pageable) {
-        Pageable sanitized = sanitizePageable(pageable);
+        return searchCoins(name, year, pageable, Coin.class);
+    }
+
+    /**
+     * Performs a basic search by name or year, reading the coins as the given
+     * type.
+     *
+     * @param <T>      result type
+     * @param name     optional exact name filter
+     * @param year     optional year filter
+     * @param pageable pagination and sorting information
+     * @param type     {@link Coin} or a projection of it
+     * @return page of coins matching the criteria
+     */
+    public <T> Page<T> searchCoins(String name, Integer year, Pageable pageable, Class<T> type) {
+        Pageable sanitized = CoinQueries.sanitizePageable(pageable);
 
         if (name != null && !name.isBlank()) {
-            return coinRepository.findByName(name, sanitized);
+            return coinRepository.findByName(name, sanitized, type);
         }
 
         if (year != null) {
-            return coinRepository.findByYear(year, sanitized);
+            return coinRepository.findByYear(year, sanitized, type);
         }
 
-        return coinRepository.findAll(sanitized);
+        return coinRepository.findAllBy(sanitized, type);
     }
 
-    public Page<Coin> advancedSearch(
-            String name,
-            String material,
-            NumismaticRarity degree,
-            List<NumismaticRarity> degreesIn,
-            List<OptionConservation> conservationObverseIn,
-            Integer minYear,
-            Integer maxYear,
-            Double minPrice,
-            Double maxPrice,
-            Pageable pageable) {
+    /**
+     * Performs an advanced search using a prebuilt filter and an exact total.
+     *
+     * @param filter   search filter
+     * @param pageable pagination and sorting information
+     * @return page of coins matching the filter
+     */
+    public Page<Coin> advancedSearch(CoinSearchFilter filter, Pageable pageable) {
+        return advancedSearch(filter, pageable, CountMode.EXACT);
+    }
 
-        validateRanges(minYear, maxYear, minPrice, maxPrice);
+    /**
+     * Performs an advanced search using a prebuilt filter, computing the total
+     * according to the requested {@link CountMode}.
+     * <p>
+     * When a count is needed it runs on the {@code searchCountExecutor} (or
+     * inline when that pool is saturated) while the page is fetched on the
+     * calling thread, so latency is the slower of the two queries rather than
+     * their sum.
+     * <p>
+     * With {@link CountMode#NONE} no count runs: one extra coin is read to
+     * detect a next page, and {@code totalElements} is the synthetic
+     * {@code offset + content.size() + (hasNext ? 1 : 0)}, which clients must
+     * not treat as a real total.
+     *
+     * @param filter    search filter
+     * @param pageable  pagination and sorting information
+     * @param countMode how the total number of elements is computed
+     * @return page of coins matching the filter
+     */
+    public Page<Coin> advancedSearch(CoinSearchFilter filter, Pageable pageable, CountMode countMode) {
+        return advancedSearch(filter, pageable, countMode, Coin.class);
+    }
 
-        Pageable sanitized = sanitizePageable(pageable);
+    /**
+     * Performs an advanced search reading the coins as the given type; see
+     * {@link #advancedSearch(CoinSearchFilter, Pageable, CountMode)}.
+     *
+     * @param <T>       result type
+     * @param filter    search filter
+     * @param pageable  pagination and sorting information
+     * @param countMode how the total number of elements is computed
+     * @param type      {@link Coin} or a projection of it
+     * @return page of coins matching the filter
+     */
+    public <T> Page<T> advancedSearch(CoinSearchFilter filter, Pageable pageable, CountMode countMode,
+            Class<T> type) {
+        Query query = CoinQueries.query(filter);
+        Pageable sanitized = CoinQueries.sanitizePageable(pageable);
+
+        if (countMode == CountMode.NONE) {
+            query.with(sanitized).limit(sanitized.getPageSize() + 1);
+            List<T> content = find(query, type);
+            boolean hasNext = content.size() > sanitized.getPageSize();
+            if (hasNext) {
+                content = content.subList(0, sanitized.getPageSize());
+            }
+            return new PageImpl<>(content, sanitized, sanitized.getOffset() + content.size() + (hasNext ? 1 : 0));
+        }
+
+        Query countQuery = Query.of(query);
+        CompletableFuture<Long> total = CompletableFuture.supplyAsync(
+                () -> count(countQuery, countMode), searchExecutor);
+        List<T> content = find(query.with(sanitized), type);
+
+        return new PageImpl<>(content, sanitized, join(total));
+    }
 
-        Query query = new Query();
-        Criteria criteria = new Criteria();
+    private <T> List<T> find(Query query, Class<T> type) {
+        return mongoTemplate.query(Coin.class).as(type).matching(query).all();
+    }
+
+    /**
+     * Returns a slice of all coins using keyset pagination, without counting
+     * the total number of coins.
+     *
+     * @param after    cursor of the previous slice, {@code null} for the first
+     * @param pageable slice size and sort ({@code name}, {@code price} or
+     *                 {@code year})
+     * @return slice of coins with the cursor of the next one
+     */
+    public CursorPage<Coin> scrollCoins(String after, Pageable pageable) {
+        return scroll(new Criteria(), after, pageable);
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #searchCoins(String, Integer, Pageable)}.
+     *
+     * @param name     optional exact name filter
+     * @param year     optional year filter
+     * @param after    cursor of the previous slice, {@code null} for the first
+     * @param pageable slice size and sort
+     * @return slice of coins matching the criteria
+     */
+    public CursorPage<Coin> scrollSearchCoins(String name, Integer year, String after, Pageable pageable) {
+        Sort sort = CoinCursors.sort(pageable);
+        ScrollPosition position = CoinCursors.position(after, sort);
+        Limit limit = CoinCursors.limit(pageable);
 
         if (name != null && !name.isBlank()) {
-            criteria = criteria.and("name")
-                    .regex(Pattern.compile(Pattern.quote(name), Pattern.CASE_INSENSITIVE));
-        }
-        if (material != null && !material.isBlank()) {
-            criteria = criteria.and("material")
-                    .regex(Pattern.compile(Pattern.quote(material), Pattern.CASE_INSENSITIVE));
-        }
-        if (degreesIn != null && !degreesIn.isEmpty()) {
-            criteria = criteria.and("degree").in(degreesIn);
-        } else if (degree != null) {
-            criteria = criteria.and("degree").is(degree);
-        }
-        if (conservationObverseIn != null && !conservationObverseIn.isEmpty()) {
-            criteria = criteria.and("conservationObverse").in(conservationObverseIn);
-        }
-        if (minYear != null) {
-            criteria = criteria.and("year").gte(minYear);
-        }
-        if (maxYear != null) {
-            criteria = criteria.and("year").lte(maxYear);
-        }
-        if (minPrice != null) {
-            criteria = criteria.and("price").gte(minPrice);
-        }
-        if (maxPrice != null) {
-            criteria = criteria.and("price").lte(maxPrice);
+            return CoinCursors.page(coinRepository.findByName(name, position, limit, sort));
         }
 
-        if (!criteria.getCriteriaObject().isEmpty()) {
-            query.addCriteria(criteria);
+        if (year != null) {
+            return CoinCursors.page(coinRepository.findByYear(year, position, limit, sort));
         }
 
-        long total = mongoTemplate.count(query, Coin.class);
-        query.with(sanitized);
-        List<Coin> content = mongoTemplate.find(query, Coin.class);
+        return scroll(new Criteria(), after, pageable);
+    }
 
-        return new PageImpl<>(content, sanitized, total);
+    /**
+     * Keyset-paginated variant of {@link #advancedSearch(CoinSearchFilter, Pageable)}.
+     *
+     * @param filter   search filter
+     * @param after    cursor of the previous slice, {@code null} for the first
+     * @param pageable slice size and sort
+     * @return slice of coins matching the filter
+     */
+    public CursorPage<Coin> scrollAdvancedSearch(CoinSearchFilter filter, String after, Pageable pageable) {
+        return scroll(CoinQueries.criteria(filter), after, pageable);
     }
 
+    /**
+     * Creates a coin. Since it carries no version, the coin is always inserted:
+     * a client-supplied id that already exists is rejected instead of
+     * overwriting the stored coin.
+     *
+     * @param coin coin to persist
+     * @return persisted coin
+     * @throws DuplicateKeyException if a coin with the same id already exists
+     */
+    @CacheEvict(cacheNames = { CacheConfig.COINS, CacheConfig.COIN_AUDIT }, key = "#result.ID")
     public Coin createCoin(Coin coin) {
-        return coinRepository.save(coin);
+        Coin saved = coinRepository.save(coin);
+        eventPublisher.publishEvent(CoinChangedEvent.created(saved));
+        return saved;
     }
 
     /**
-     * Updates an existing coin with the provided data.
+     * Updates an existing coin with the provided data. The update is not
+     * retried: the payload was built from a state the caller read earlier, so
+     * applying it again on top of a concurrent write would silently undo that
+     * write.
      *
      * @param id      coin identifier
      * @param updated new state of the coin
      * @return updated coin or {@code null} if not found
+     * @throws OptimisticLockingFailureException if another write lands between
+     *                                           reading the coin and saving it
      */
+    @CacheEvict(cacheNames = { CacheConfig.COINS, CacheConfig.COIN_AUDIT }, key = "#id")
     public Coin updateCoin(String id, Coin updated) {
+        return replaceCoin(id, updated, null);
+    }
+
+    /**
+     * Updates an existing coin, provided it is still at the given version.
+     *
+     * @param id              coin identifier
+     * @param updated         new field values
+     * @param expectedVersion version known by the caller
+     * @return updated coin or {@code null} if not found
+     * @throws OptimisticLockingFailureException if the coin is no longer at
+     *                                           {@code expectedVersion}
+     */
+    @CacheEvict(cacheNames = { CacheConfig.COINS, CacheConfig.COIN_AUDIT }, key = "#id")
+    public Coin updateCoin(String id, Coin updated, long expectedVersion) {
+        return replaceCoin(id, updated, expectedVersion);
+    }
+
+    /**
+     * Read-modify-write of the user fields of a coin. The save is conditional
+     * on the version read, so a concurrent write makes it fail rather than be
+     * overwritten.
+     */
+    private Coin replaceCoin(String id, Coin updated, Long expectedVersion) {
         Coin existing = coinRepository.findById(id).orElse(null);
         if (existing == null) {
             return null;
         }
+        if (expectedVersion != null
+                && expectedVersion != versionOf(existing)) {
+            throw new OptimisticLockingFailureException("coin " + id + " has been modified");
+        }
+        Coin before = existing.toBuilder().build();
 
         existing.setName(updated.getName());
         existing.setYear(updated.getYear());
@@ -168,11 +449,234 @@ public class CoinService {
         existing.setPhotoPathObverse(updated.getPhotoPathObverse());
         existing.setPhotoPathReverse(updated.getPhotoPathReverse());
 
-        return coinRepository.save(existing);
+        Coin saved = coinRepository.save(existing);
+        eventPublisher.publishEvent(CoinChangedEvent.updated(before, saved));
+        return saved;
+    }
+
+    /**
+     * Applies a partial update with a single atomic {@code findAndModify} that
+     * {@code $set}s only the supplied fields, the normalized search fields they
+     * affect and the audit fields, and increments the version. The document
+     * before the update is returned by the same round trip and the new state is
+     * derived from it in memory.
+     *
+     * @param id    coin identifier
+     * @param patch fields to change
+     * @return updated coin or {@code null} if not found
+     * @throws ConstraintViolationException if a value violates the {@link Coin}
+     *                                      constraints
+     * @throws IllegalArgumentException     if the patch is empty
+     */
+    @CacheEvict(cacheNames = { CacheConfig.COINS, CacheConfig.COIN_AUDIT }, key = "#id")
+    public Coin patchCoin(String id, CoinPatch patch) {
+        return applyPatch(id, patch, null);
+    }
+
+    /**
+     * Applies a partial update, provided the coin is still at the given
+     * version. The version is part of the {@code findAndModify} filter, so the
+     * check and the update are a single atomic operation.
+     *
+     * @param id              coin identifier
+     * @param patch           fields to change
+     * @param expectedVersion version known by the caller
+     * @return updated coin or {@code null} if not found
+     * @throws OptimisticLockingFailureException if the coin is no longer at
+     *                                           {@code expectedVersion}
+     * @throws ConstraintViolationException      if a value violates the
+     *                                           {@link Coin} constraints
+     * @throws IllegalArgumentException          if the patch is empty
+     */
+    @CacheEvict(cacheNames = { CacheConfig.COINS, CacheConfig.COIN_AUDIT }, key = "#id")
+    public Coin patchCoin(String id, CoinPatch patch, long expectedVersion) {
+        return applyPatch(id, patch, expectedVersion);
+    }
+
+    private Coin applyPatch(String id, CoinPatch patch, Long expectedVersion) {
+        Update update = patchUpdate(patch);
+        if (update.getUpdateObject().isEmpty()) {
+            throw new IllegalArgumentException("patch must contain at least one field");
+        }
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        String auditor = currentAuditor();
+        update.set("updatedAt", now).set("updatedBy", auditor).inc("version", 1);
+
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersion != null) {
+            // Coins saved before versioning have no version field and count as 0
+            criteria = expectedVersion == 0 ? criteria.and("version").in(0L, null)
+                    : criteria.and("version").is(expectedVersion);
+        }
+        Coin before = mongoTemplate.findAndModify(Query.query(criteria), update,
+                FindAndModifyOptions.options().returnNew(false), Coin.class);
+        if (before == null) {
+            if (expectedVersion != null
+                    && mongoTemplate.exists(Query.query(Criteria.where("_id").is(id)), Coin.class)) {
+                throw new OptimisticLockingFailureException("coin " + id + " has been modified");
+            }
+            return null;
+        }
+        Coin after = before.toBuilder().updatedAt(now).updatedBy(auditor)
+                .version(versionOf(before) + 1).build();
+        patch.applyTo(after);
+        after.setSearchName(SearchTextNormalizer.normalize(after.getName()));
+        after.setSearchMaterial(SearchTextNormalizer.normalize(after.getMaterial()));
+
+        eventPublisher.publishEvent(CoinChangedEvent.updated(before, after));
+        return after;
+    }
+
+    /**
+     * Updates every coin matching the filter with a single {@code updateMulti}:
+     * {@code $set} of the supplied fields and/or {@code $mul} of the price, plus
+     * the audit fields. The version of every matched coin is incremented, so
+     * that a concurrent replacement of one of them fails instead of undoing the
+     * change.
+     * <p>
+     * Per-coin deltas are not available, so a background rebuild of the
+     * statistics view is requested, and the coin caches are cleared.
+     *
+     * @param request filter, fields to set and optional price factor
+     * @return matched and modified counts
+     * @throws ConstraintViolationException if a value violates the {@link Coin}
+     *                                      constraints
+     * @throws IllegalArgumentException     if nothing is changed, if
+     *                                      {@code set.price} and
+     *                                      {@code priceFactor} are combined, if
+     *                                      the filter is empty without
+     *                                      {@code all} (or set with it) or if
+     *                                      the filter ranges are invalid
+     */
+    @CacheEvict(cacheNames = { CacheConfig.COINS, CacheConfig.COIN_AUDIT, CacheConfig.COLLECTION_SUMMARIES },
+            allEntries = true)
+    public CoinBulkUpdateResult bulkUpdate(CoinBulkUpdateRequest request) {
+        Query query = CoinQueries.query(request.filter());
+        // An omitted filter must not silently rewrite the whole catalogue
+        if (request.all() != query.getQueryObject().isEmpty()) {
+            throw new IllegalArgumentException(request.all() ? "all cannot be combined with a filter"
+                    : "a filter with at least one criterion, or all=true, is required");
+        }
+        Update update = request.set() == null ? new Update() : patchUpdate(request.set());
+        if (request.priceFactor() != null) {
+            if (request.set() != null && request.set().price() != null) {
+                throw new IllegalArgumentException("set.price and priceFactor cannot be combined");
+            }
+            update.multiply("price", request.priceFactor());
+        }
+        if (update.getUpdateObject().isEmpty()) {
+            throw new IllegalArgumentException("bulk update must change at least one field");
+        }
+        update.set("updatedAt", Instant.now().truncatedTo(ChronoUnit.MILLIS)).set("updatedBy", currentAuditor())
+                .inc("version", 1);
+
+        UpdateResult result = mongoTemplate.updateMulti(query, update, Coin.class);
+        return bulkUpdated(result.getMatchedCount(), result.getModifiedCount());
+    }
+
+    /**
+     * Applies a different partial update to each listed coin, sent as unordered
+     * bulk writes of {@code cointrack.bulk-update.batch-size} updates. Every
+     * patch is validated before anything is written. Bulk writes bypass the
+     * automatic versioning of the template, so each update increments the
+     * version explicitly.
+     *
+     * @param patches fields to change, keyed by coin id
+     * @return matched and modified counts; ids that do not exist are not matched
+     * @throws ConstraintViolationException if a value violates the {@link Coin}
+     *                                      constraints
+     * @throws IllegalArgumentException     if there are no patches or a patch is
+     *                                      empty
+     */
+    @CacheEvict(cacheNames = { CacheConfig.COINS, CacheConfig.COIN_AUDIT, CacheConfig.COLLECTION_SUMMARIES },
+            allEntries = true)
+    public CoinBulkUpdateResult bulkUpdateByIds(Map<String, CoinPatch> patches) {
+        if (patches.isEmpty()) {
+            throw new IllegalArgumentException("at least one coin must be updated");
+        }
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        String auditor = currentAuditor();
+        List<Update> updates = new ArrayList<>(patches.size());
+        patches.forEach((id, patch) -> {
+            Update update = patch == null ? new Update() : patchUpdate(patch);
+            if (update.getUpdateObject().isEmpty()) {
+                throw new IllegalArgumentException("patch of coin " + id + " must contain at least one field");
+            }
+            updates.add(update.set("updatedAt", now).set("updatedBy", auditor).inc("version", 1));
+        });
+
+        long matched = 0;
+        long modified = 0;
+        int batchSize = bulkUpdateProperties.batchSize();
+        List<String> ids = new ArrayList<>(patches.keySet());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Coin.class);
+            for (int i = from; i < Math.min(from + batchSize, ids.size()); i++) {
+                bulk.updateOne(Query.query(Criteria.where("_id").is(ids.get(i))), updates.get(i));
+            }
+            BulkWriteResult result = bulk.execute();
+            matched += result.getMatchedCount();
+            modified += result.getModifiedCount();
+        }
+        return bulkUpdated(matched, modified);
+    }
+
+    private CoinBulkUpdateResult bulkUpdated(long matched, long modified) {
+        if (modified > 0) {
+            activityStats.invalidate();
+            datasetVersions.invalidate(Coin.class);
+        }
+        // A change stream delivers the modified coins one by one to the view
+        if (modified > 0 && !statsView.isChangeStreamDriven()) {
+            statsView.requestRebuild();
+        }
+        return new CoinBulkUpdateResult(matched, modified);
+    }
+
+    /**
+     * Builds the {@code $set} of a patch, including the normalized search fields
+     * derived from {@code name} and {@code material}, after validating every
+     * supplied value against the {@link Coin} constraints.
+     */
+    private Update patchUpdate(CoinPatch patch) {
+        Map<String, Object> changes = patch.changes();
+        Set<ConstraintViolation<Coin>> violations = new LinkedHashSet<>();
+        changes.forEach((property, value) -> violations.addAll(validator.validateValue(Coin.class, property, value)));
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        Update update = new Update();
+        changes.forEach(update::set);
+        if (patch.name() != null) {
+            update.set("searchName", SearchTextNormalizer.normalize(patch.name()));
+        }
+        if (patch.material() != null) {
+            update.set("searchMaterial", SearchTextNormalizer.normalize(patch.material()));
+        }
+        return update;
+    }
+
+    private static long versionOf(Coin coin) {
+        return coin.getVersion() == null ? 0 : coin.getVersion();
     }
 
+    private String currentAuditor() {
+        return auditorAware.getCurrentAuditor().orElse(null);
+    }
+
+    /**
+     * Deletes a coin, returning the removed document in the same round trip so
+     * that derived statistics can be adjusted.
+     *
+     * @param id coin identifier
+     */
+    @CacheEvict(cacheNames = { CacheConfig.COINS, CacheConfig.COIN_AUDIT }, key = "#id")
     public void deleteCoin(String id) {
-        coinRepository.deleteById(id);
+        Coin removed = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(id)), Coin.class);
+        if (removed != null) {
+            eventPublisher.publishEvent(CoinChangedEvent.deleted(removed));
+        }
     }
 
     /**
@@ -181,6 +685,7 @@ public class CoinService {
      * @param id coin identifier
      * @return audit info DTO or {@code null} if the coin does not exist
      */
+    @Cacheable(cacheNames = CacheConfig.COIN_AUDIT, unless = "#result == null")
     public CoinAuditInfo getCoinAuditInfo(String id) {
         Coin coin = getCoinById(id);
         if (coin == null) {
@@ -195,80 +700,299 @@ public class CoinService {
                 coin.getUpdatedBy());
     }
 
+    /**
+     * Returns summary statistics from the materialized {@link CoinStatsView} when
+     * available, otherwise from a scan of the {@link CoinStatsColumns} snapshot
+     * when loaded, otherwise computes them with a single server-side
+     * {@code $group} stage, so only the aggregated document leaves the database.
+     *
+     * @return summary statistics DTO
+     */
     public CoinsSummaryStats getSummaryStats() {
-        List<Coin> coins = coinRepository.findAll();
-        if (coins.isEmpty()) {
-            return new CoinsSummaryStats(0L, 0.0, 0.0, null, null);
+        if (statsView.isReady()) {
+            return statsView.getSummaryStats();
+        }
+        if (statsColumns.isReady()) {
+            return statsColumns.overview(CoinSearchFilter.none(), 0).summary();
         }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.project("year", "price"),
+                summaryGroup());
 
-        long totalCount = coins.size();
-        double totalPrice = coins.stream().mapToDouble(Coin::getPrice).sum();
-        double averagePrice = totalPrice / totalCount;
+        return toSummaryStats(mongoTemplate.aggregate(aggregation, Coin.class, Document.class)
+                .getUniqueMappedResult());
+    }
+
+    public List<CoinsByYearStats> getStatsByYear() {
+        if (statsView.isReady()) {
+            return statsView.getStatsByYear();
+        }
+        if (statsColumns.isReady()) {
+            return statsColumns.overview(CoinSearchFilter.none(), 0).byYear();
+        }
+        return toYearStats(aggregateCountsBy("year"));
+    }
 
-        int minYear = coins.stream().mapToInt(Coin::getYear).min().orElse(0);
-        int maxYear = coins.stream().mapToInt(Coin::getYear).max().orElse(0);
+    public List<CoinsByDegreeStats> getStatsByDegree() {
+        if (statsView.isReady()) {
+            return statsView.getStatsByDegree();
+        }
+        if (statsColumns.isReady()) {
+            return statsColumns.overview(CoinSearchFilter.none(), 0).byDegree();
+        }
+        return toDegreeStats(aggregateCountsBy("degree"));
+    }
 
-        return new CoinsSummaryStats(totalCount, totalPrice, averagePrice, minYear, maxYear);
+    public List<CoinsByMaterialStats> getStatsByMaterial() {
+        if (statsView.isReady()) {
+            return statsView.getStatsByMaterial();
+        }
+        if (statsColumns.isReady()) {
+            return statsColumns.overview(CoinSearchFilter.none(), 0).byMaterial();
+        }
+        return toMaterialStats(aggregateCountsBy("material"));
     }
 
-    public List<CoinsByYearStats> getStatsByYear() {
-        List<Coin> coins = coinRepository.findAll();
-        Map<Integer, Long> grouped = coins.stream()
-                .collect(Collectors.groupingBy(Coin::getYear, Collectors.counting()));
+    /**
+     * Computes summary, per-year, per-degree, per-material statistics and the
+     * most expensive coins in a single {@code $facet} aggregation, optionally
+     * restricted to the coins matching the given filter. When the
+     * {@link CoinStatsColumns} snapshot is loaded and the filter does not use
+     * {@code name}, the statistics come from a scan of the snapshot and only
+     * the most expensive coins are read from the database.
+     *
+     * @param filter search filter scoping the statistics
+     * @param limit  maximum number of most expensive coins to return (1-100)
+     * @return statistics overview DTO
+     */
+    public CoinsStatsOverview getStatsOverview(CoinSearchFilter filter, int limit) {
+        Criteria criteria = CoinQueries.criteria(filter);
+        int topSize = Math.min(Math.max(limit, 1), 100);
+        if (statsColumns.isReady() && CoinStatsColumns.supports(filter)) {
+            return statsColumns.overview(filter, topSize);
+        }
 
-        return grouped.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(entry -> new CoinsByYearStats(entry.getKey(), entry.getValue()))
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        if (!criteria.getCriteriaObject().isEmpty()) {
+            pipeline.add(Aggregation.match(criteria));
+        }
+        pipeline.add(Aggregation.facet(Aggregation.project("year", "price"), summaryGroup()).as("summary")
+                .and(countByStages("year")).as("byYear")
+                .and(countByStages("degree")).as("byDegree")
+                .and(countByStages("material")).as("byMaterial")
+                .and(Aggregation.sort(Sort.Direction.DESC, "price"), Aggregation.limit(topSize)).as("topExpensive"));
+
+        Document result = mongoTemplate.aggregate(Aggregation.newAggregation(pipeline), Coin.class, Document.class)
+                .getUniqueMappedResult();
+        if (result == null) {
+            result = new Document();
+        }
+
+        List<Document> summary = facet(result, "summary");
+        List<Coin> topExpensive = facet(result, "topExpensive").stream()
+                .map(doc -> mongoTemplate.getConverter().read(Coin.class, doc))
                 .toList();
+
+        return new CoinsStatsOverview(
+                toSummaryStats(summary.isEmpty() ? null : summary.get(0)),
+                toYearStats(facet(result, "byYear")),
+                toDegreeStats(facet(result, "byDegree")),
+                toMaterialStats(facet(result, "byMaterial")),
+                topExpensive);
     }
 
-    public List<CoinsByDegreeStats> getStatsByDegree() {
-        List<Coin> coins = coinRepository.findAll();
-        Map<NumismaticRarity, Long> grouped = coins.stream()
-                .collect(Collectors.groupingBy(Coin::getDegree, Collectors.counting()));
+    /**
+     * Groups the coins matching the filter by one or two dimensions, with
+     * count and price totals per cell, from the {@link CoinStatsColumns}
+     * snapshot.
+     *
+     * @param rows    row dimension
+     * @param columns column dimension, {@code null} to group by {@code rows} only
+     * @param filter  search filter, without {@code name}
+     * @return non-empty cells, ordered by row then column
+     * @throws AnalyticsUnavailableException if the snapshot is not available
+     */
+    public List<CoinsPivotCell> getStatsPivot(CoinDimension rows, CoinDimension columns, CoinSearchFilter filter) {
+        return analytics().pivot(rows, columns, filter);
+    }
 
-        return grouped.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(entry -> new CoinsByDegreeStats(entry.getKey(), entry.getValue()))
-                .toList();
+    /**
+     * Computes exact percentiles of a measure over the coins matching the
+     * filter, optionally per group, from the {@link CoinStatsColumns} snapshot.
+     *
+     * @param measure     measure
+     * @param by          grouping dimension, {@code null} for a single group
+     * @param percentiles percentages between 0 and 100
+     * @param filter      search filter, without {@code name}
+     * @return one entry per non-empty group
+     * @throws AnalyticsUnavailableException if the snapshot is not available
+     */
+    public List<CoinsPercentiles> getStatsPercentiles(CoinMeasure measure, CoinDimension by, List<Double> percentiles,
+            CoinSearchFilter filter) {
+        return analytics().percentiles(measure, by, percentiles, filter);
     }
 
-    public List<CoinsByMaterialStats> getStatsByMaterial() {
-        List<Coin> coins = coinRepository.findAll();
-        Map<String, Long> grouped = coins.stream()
-                .collect(Collectors.groupingBy(Coin::getMaterial, Collectors.counting()));
+    /**
+     * Computes an equal-width histogram of a measure over the coins matching the
+     * filter from the {@link CoinStatsColumns} snapshot.
+     *
+     * @param measure measure
+     * @param buckets number of buckets
+     * @param filter  search filter, without {@code name}
+     * @return buckets in ascending order, empty if no coin matches
+     * @throws AnalyticsUnavailableException if the snapshot is not available
+     */
+    public List<CoinsHistogramBucket> getStatsHistogram(CoinMeasure measure, int buckets, CoinSearchFilter filter) {
+        return analytics().histogram(measure, buckets, filter);
+    }
 
-        return grouped.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(entry -> new CoinsByMaterialStats(entry.getKey(), entry.getValue()))
-                .toList();
+    /**
+     * Estimates price percentiles and a price histogram over the coins matching
+     * the filter, optionally per rarity or conservation level, from the
+     * {@link CoinPriceSketches}. Unfiltered requests read the maintained
+     * sketches, filtered ones stream the matching prices.
+     *
+     * @param by          grouping dimension, {@code null} for a single group
+     * @param percentiles percentages between 0 and 100
+     * @param bounds      increasing, non-negative histogram bounds
+     * @param filter      search filter
+     * @return one entry per non-empty group
+     */
+    public List<CoinsPriceDistribution> getPriceDistribution(CoinDimension by, List<Double> percentiles,
+            List<Double> bounds, CoinSearchFilter filter) {
+        return priceSketches.distribution(by, percentiles, bounds, filter);
+    }
+
+    /**
+     * Counts the coins added and updated and sums the value added per day, week
+     * or month over a time range, reusing the cached buckets that are already
+     * closed.
+     *
+     * @param granularity bucket width
+     * @param from        start of the range, {@code null} for the 30 buckets
+     *                    ending at {@code to}
+     * @param to          end of the range (exclusive), {@code null} for now
+     * @param zone        time zone of the bucket boundaries
+     * @return every bucket of the range in chronological order
+     */
+    public List<CoinsActivityBucket> getActivityStats(ActivityGranularity granularity, Instant from, Instant to,
+            ZoneId zone) {
+        return activityStats.activity(granularity, from, to, zone);
+    }
+
+    private CoinStatsColumns analytics() {
+        if (!statsColumns.isReady()) {
+            throw new AnalyticsUnavailableException(
+                    "the columnar statistics snapshot is disabled or still loading (cointrack.stats.columns.enabled)");
+        }
+        return statsColumns;
     }
 
     public List<Coin> getTopExpensiveCoins(int limit) {
         int pageSize = Math.min(Math.max(limit, 1), 100);
-        PageRequest pageRequest = PageRequest.of(0, pageSize,
-                org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC, "price"));
+        PageRequest pageRequest = PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "price"));
         return coinRepository.findAll(pageRequest).getContent();
     }
 
-    private Pageable sanitizePageable(Pageable pageable) {
-        int page = Math.max(pageable.getPageNumber(), 0);
-        int size = pageable.getPageSize();
-        int maxSize = 100;
-        if (size <= 0) {
-            size = 20;
-        } else if (size > maxSize) {
-            size = maxSize;
+    private static GroupOperation summaryGroup() {
+        return Aggregation.group()
+                .count().as("totalCount")
+                .sum("price").as("totalPrice")
+                .min("year").as("minYear")
+                .max("year").as("maxYear");
+    }
+
+    /**
+     * Returns the stages counting coins grouped by a single field, projecting
+     * only that field and skipping documents where it is missing. The resulting
+     * documents carry {@code _id} and {@code count} and are sorted by {@code _id}.
+     *
+     * @param field grouping field
+     * @return pipeline stages
+     */
+    private static AggregationOperation[] countByStages(String field) {
+        return new AggregationOperation[] {
+                Aggregation.match(Criteria.where(field).ne(null)),
+                Aggregation.project(field),
+                Aggregation.group(field).count().as("count"),
+                Aggregation.sort(Sort.Direction.ASC, Fields.UNDERSCORE_ID) };
+    }
+
+    private List<Document> aggregateCountsBy(String field) {
+        return mongoTemplate.aggregate(Aggregation.newAggregation(countByStages(field)), Coin.class, Document.class)
+                .getMappedResults();
+    }
+
+    private static CoinsSummaryStats toSummaryStats(Document result) {
+        if (result == null) {
+            return new CoinsSummaryStats(0L, 0.0, 0.0, null, null);
         }
-        return PageRequest.of(page, size, pageable.getSort());
+
+        long totalCount = ((Number) result.get("totalCount")).longValue();
+        double totalPrice = ((Number) result.get("totalPrice")).doubleValue();
+        double averagePrice = totalCount == 0 ? 0.0 : totalPrice / totalCount;
+
+        return new CoinsSummaryStats(totalCount, totalPrice, averagePrice,
+                result.getInteger("minYear"), result.getInteger("maxYear"));
+    }
+
+    private static List<CoinsByYearStats> toYearStats(List<Document> groups) {
+        return groups.stream()
+                .map(doc -> new CoinsByYearStats(doc.getInteger(Fields.UNDERSCORE_ID), countOf(doc)))
+                .toList();
+    }
+
+    private static List<CoinsByDegreeStats> toDegreeStats(List<Document> groups) {
+        // Rarity levels are ordered by declaration, not alphabetically, so the
+        // (at most seven) groups are sorted here rather than in the pipeline.
+        return groups.stream()
+                .map(doc -> new CoinsByDegreeStats(
+                        NumismaticRarity.valueOf(doc.getString(Fields.UNDERSCORE_ID)), countOf(doc)))
+                .sorted(Comparator.comparing(CoinsByDegreeStats::degree))
+                .toList();
     }
 
-    private void validateRanges(Integer minYear, Integer maxYear, Double minPrice, Double maxPrice) {
-        if (minYear != null && maxYear != null && minYear > maxYear) {
-            throw new IllegalArgumentException("minYear must be less than or equal to maxYear");
+    private static List<CoinsByMaterialStats> toMaterialStats(List<Document> groups) {
+        return groups.stream()
+                .map(doc -> new CoinsByMaterialStats(doc.getString(Fields.UNDERSCORE_ID), countOf(doc)))
+                .toList();
+    }
+
+    private static long countOf(Document doc) {
+        return ((Number) doc.get("count")).longValue();
+    }
+
+    private static List<Document> facet(Document result, String name) {
+        return result.getList(name, Document.class, List.of());
+    }
+
+    private CursorPage<Coin> scroll(Criteria criteria, String after, Pageable pageable) {
+        Sort sort = CoinCursors.sort(pageable);
+        Query query = CoinCursors.query(criteria)
+                .with(sort)
+                .with(CoinCursors.position(after, sort))
+                .limit(CoinCursors.limit(pageable));
+        return CoinCursors.page(mongoTemplate.scroll(query, Coin.class));
+    }
+
+    private long count(Query query, CountMode countMode) {
+        if (countMode == CountMode.ESTIMATED) {
+            if (query.getQueryObject().isEmpty()) {
+                return mongoTemplate.estimatedCount(Coin.class);
+            }
+            query.limit(searchProperties.countCap());
         }
-        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
-            throw new IllegalArgumentException("minPrice must be less than or equal to maxPrice");
+        return mongoTemplate.count(query, Coin.class);
+    }
+
+    private static long join(CompletableFuture<Long> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
         }
     }
 }
@@ -0,0 +1,1025 @@
+package com.asd.cointrack.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.asd.cointrack.config.StatsColumnsProperties;
+import com.asd.cointrack.dto.CoinDimension;
+import com.asd.cointrack.dto.CoinMeasure;
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.CoinsByDegreeStats;
+import com.asd.cointrack.dto.CoinsByMaterialStats;
+import com.asd.cointrack.dto.CoinsByYearStats;
+import com.asd.cointrack.dto.CoinsHistogramBucket;
+import com.asd.cointrack.dto.CoinsPercentiles;
+import com.asd.cointrack.dto.CoinsPivotCell;
+import com.asd.cointrack.dto.CoinsStatsOverview;
+import com.asd.cointrack.dto.CoinsSummaryStats;
+import com.asd.cointrack.dto.TextMatchMode;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-memory columnar snapshot of the coins for ad-hoc analytics.
+ * <p>
+ * Every coin is a row across primitive arrays: {@code year}, {@code price},
+ * {@code weight} and {@code diameter} as they are, {@code material} as an
+ * ordinal into a dictionary of its distinct values, rarity and conservation
+ * levels as enum ordinals ({@code -1} when missing). Queries scan the rows in
+ * chunks of {@code cointrack.stats.columns.chunk-size} on the common fork-join
+ * pool and accumulate into per-chunk primitive arrays merged at the end, so a
+ * scan neither boxes values nor allocates per row.
+ * <p>
+ * {@link CoinStatsView} forwards every change delta and every rebuild, so the
+ * snapshot follows the same sources (local writes or the change stream) and
+ * is reconciled on the same schedule, from the pass that reloads the view.
+ * Scans hold the read lock for their whole run, so a query always sees a
+ * consistent snapshot. Deltas never wait for them: a write only queues its
+ * delta, and the queue is applied under the write lock by whichever write or
+ * query finds the lock free, a query applying it before it starts and after
+ * it ends. A delta therefore becomes visible to the next query that does not
+ * overlap a running scan. Deltas that arrive during a reload are replayed onto
+ * the reloaded snapshot. The {@code name}
+ * filter is not supported, since names are not part of the snapshot.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "MongoTemplate is an injected Spring bean and is not exposed outside the snapshot")
+public class CoinStatsColumns {
+
+    private static final Logger log = LoggerFactory.getLogger(CoinStatsColumns.class);
+
+    private static final String[] FIELDS = { "year", "price", "weight", "diameter", "material", "degree",
+            "conservationObverse", "conservationReverse" };
+    private static final NumismaticRarity[] DEGREES = NumismaticRarity.values();
+    private static final OptionConservation[] CONSERVATIONS = OptionConservation.values();
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_PIVOT_CELLS = 65_536;
+    private static final int MAX_PERCENTILES = 20;
+
+    private final MongoTemplate mongoTemplate;
+    private final StatsColumnsProperties properties;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Queue<Change> pending = new ConcurrentLinkedQueue<>();
+
+    private volatile Columns columns;
+    private List<Change> changesWhileLoading;
+
+    /**
+     * Returns whether the snapshot has been loaded and can answer queries.
+     *
+     * @return {@code true} if enabled and loaded at least once
+     */
+    public boolean isReady() {
+        return properties.enabled() && columns != null;
+    }
+
+    /**
+     * Returns whether the snapshot can evaluate a filter.
+     *
+     * @param filter search filter
+     * @return {@code false} if the filter uses {@code name}
+     */
+    public static boolean supports(CoinSearchFilter filter) {
+        return filter.name() == null || filter.name().isBlank();
+    }
+
+    /**
+     * Queues a single coin change for the snapshot, and applies the queue if
+     * no scan is running. Never waits for a scan. Rows are keyed by id: a
+     * change of a coin without id cannot be applied and is rejected, leaving
+     * the snapshot behind the database until the next rebuild.
+     *
+     * @param before state before the change, {@code null} for a created coin
+     * @param after  state after the change, {@code null} for a deleted coin
+     * @return {@code false} if the change was rejected
+     */
+    public boolean applyChange(Coin before, Coin after) {
+        if (!properties.enabled()) {
+            return true;
+        }
+        Coin changed = after != null ? after : before;
+        if (changed != null && changed.getID() == null) {
+            log.warn("Rejected a change of a coin without id, the columnar snapshot needs a rebuild");
+            return false;
+        }
+        pending.add(new Change(before, after));
+        applyPending();
+        return true;
+    }
+
+    /**
+     * Applies the queued changes, unless a scan or another write holds the
+     * lock: the changes then wait for the next write or query.
+     */
+    private void applyPending() {
+        if (pending.isEmpty() || !lock.writeLock().tryLock()) {
+            return;
+        }
+        try {
+            drainPending();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the queued changes to the current snapshot, recording them for
+     * a reload in progress. Called with the write lock held.
+     */
+    private void drainPending() {
+        Columns current = columns;
+        for (Change change = pending.poll(); change != null; change = pending.poll()) {
+            if (changesWhileLoading != null) {
+                changesWhileLoading.add(change);
+            }
+            if (current != null) {
+                apply(current, change.before(), change.after());
+            }
+        }
+        if (current != null) {
+            current.sortMaterials();
+        }
+    }
+
+    /**
+     * Reloads the snapshot from the database on its own, streaming only the
+     * columnar fields, and swaps it in. The scheduled rebuild goes through
+     * {@link CoinStatsView}, which feeds the snapshot from the same pass as its
+     * counters with {@link #startReload()}.
+     */
+    public void rebuild() {
+        try (Reload reload = startReload()) {
+            if (reload == null) {
+                return;
+            }
+            Query query = new Query();
+            query.fields().include(FIELDS);
+            try (Stream<Document> documents = mongoTemplate.stream(query, Document.class,
+                    mongoTemplate.getCollectionName(Coin.class))) {
+                documents.forEach(reload::add);
+            }
+            reload.finish();
+        }
+    }
+
+    /**
+     * Starts a reload of the snapshot, fed row by row by the caller. Changes
+     * applied or queued until it finishes are recorded and replayed onto the
+     * new snapshot before the swap: rows are keyed by id, so a replayed change
+     * leaves the last state of the coin whether or not the load had already
+     * read it.
+     *
+     * @return the reload, to be closed, or {@code null} if disabled
+     */
+    Reload startReload() {
+        if (!properties.enabled()) {
+            return null;
+        }
+        long estimated = mongoTemplate.estimatedCount(Coin.class);
+        Reload reload = new Reload(
+                new Columns((int) Math.min(Math.max(estimated, INITIAL_CAPACITY), Integer.MAX_VALUE - 8)));
+        setChangesWhileLoading(new ArrayList<>());
+        return reload;
+    }
+
+    /**
+     * Computes the same statistics as the {@code $facet} overview over the
+     * coins matching the filter, in a single scan.
+     *
+     * @param filter  search filter, without {@code name}
+     * @param topSize number of most expensive coins to load (0 for none)
+     * @return statistics overview DTO
+     * @throws IllegalArgumentException if the filter is not supported or a range
+     *                                  is inverted
+     */
+    public CoinsStatsOverview overview(CoinSearchFilter filter, int topSize) {
+        CoinsSummaryStats summary;
+        List<CoinsByYearStats> byYear = new ArrayList<>();
+        List<CoinsByDegreeStats> byDegree = new ArrayList<>();
+        List<CoinsByMaterialStats> byMaterial = new ArrayList<>();
+        List<String> topIds;
+        applyPending();
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            RowFilter rowFilter = RowFilter.of(filter, current);
+            Overview overview = scan(current, rowFilter, () -> new Overview(current, topSize),
+                    (partial, row) -> partial.add(current, row), Overview::merge);
+            summary = overview.summary();
+            for (int code = 0; code < overview.byYear.length; code++) {
+                if (overview.byYear[code] > 0) {
+                    byYear.add(new CoinsByYearStats(current.minYear + code, overview.byYear[code]));
+                }
+            }
+            for (int code = 0; code < overview.byDegree.length; code++) {
+                if (overview.byDegree[code] > 0) {
+                    byDegree.add(new CoinsByDegreeStats(DEGREES[code], overview.byDegree[code]));
+                }
+            }
+            for (int code : current.order(CoinDimension.MATERIAL)) {
+                if (overview.byMaterial[code] > 0) {
+                    byMaterial.add(new CoinsByMaterialStats(current.materials.get(code), overview.byMaterial[code]));
+                }
+            }
+            topIds = Arrays.stream(overview.top.rowsByPriceDescending())
+                    .mapToObj(row -> current.ids[row])
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+            applyPending();
+        }
+        return new CoinsStatsOverview(summary, byYear, byDegree, byMaterial, loadInOrder(topIds));
+    }
+
+    /**
+     * Groups the coins matching the filter by one or two dimensions.
+     *
+     * @param rowDimension    row dimension
+     * @param columnDimension column dimension, {@code null} to group by
+     *                        {@code rowDimension} only
+     * @param filter          search filter, without {@code name}
+     * @return non-empty cells, ordered by row then column
+     * @throws IllegalArgumentException if the filter is not supported, a range
+     *                                  is inverted, both dimensions are the same
+     *                                  or the pivot has too many cells
+     */
+    public List<CoinsPivotCell> pivot(CoinDimension rowDimension, CoinDimension columnDimension, CoinSearchFilter filter) {
+        if (rowDimension == columnDimension) {
+            throw new IllegalArgumentException("rows and columns must be different dimensions");
+        }
+        applyPending();
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            RowFilter rowFilter = RowFilter.of(filter, current);
+            int width = columnDimension == null ? 1 : current.cardinality(columnDimension);
+            long cells = (long) current.cardinality(rowDimension) * width;
+            if (cells > MAX_PIVOT_CELLS) {
+                throw new IllegalArgumentException("the pivot would have " + cells + " cells, at most "
+                        + MAX_PIVOT_CELLS + " are allowed");
+            }
+            Cells result = scan(current, rowFilter, () -> new Cells((int) cells), (partial, row) -> {
+                int rowCode = current.code(rowDimension, row);
+                int columnCode = columnDimension == null ? 0 : current.code(columnDimension, row);
+                if (rowCode >= 0 && columnCode >= 0) {
+                    partial.add(rowCode * width + columnCode, current.price[row]);
+                }
+            }, Cells::merge);
+
+            List<CoinsPivotCell> pivot = new ArrayList<>();
+            int[] columnOrder = columnDimension == null ? new int[] { 0 } : current.order(columnDimension);
+            for (int rowCode : current.order(rowDimension)) {
+                for (int columnCode : columnOrder) {
+                    int cell = rowCode * width + columnCode;
+                    long count = result.counts[cell];
+                    if (count > 0) {
+                        pivot.add(new CoinsPivotCell(current.label(rowDimension, rowCode),
+                                columnDimension == null ? null : current.label(columnDimension, columnCode),
+                                count, result.sums[cell], result.sums[cell] / count));
+                    }
+                }
+            }
+            return pivot;
+        } finally {
+            lock.readLock().unlock();
+            applyPending();
+        }
+    }
+
+    /**
+     * Computes exact percentiles (nearest-rank) of a measure over the coins
+     * matching the filter, optionally per group. The matching values are
+     * copied into one primitive array per group, filled in parallel at
+     * per-chunk offsets, and sorted.
+     *
+     * @param measure     measure
+     * @param by          grouping dimension, {@code null} for a single group
+     * @param percentiles percentages between 0 and 100
+     * @param filter      search filter, without {@code name}
+     * @return one entry per non-empty group, in group order
+     * @throws IllegalArgumentException if the filter is not supported, a range
+     *                                  is inverted or a percentile is out of
+     *                                  range
+     */
+    public List<CoinsPercentiles> percentiles(CoinMeasure measure, CoinDimension by, List<Double> percentiles,
+            CoinSearchFilter filter) {
+        if (percentiles.isEmpty() || percentiles.size() > MAX_PERCENTILES) {
+            throw new IllegalArgumentException("between 1 and " + MAX_PERCENTILES + " percentiles are required");
+        }
+        for (Double percentile : percentiles) {
+            if (percentile == null || !(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("percentiles must be between 0 and 100");
+            }
+        }
+        applyPending();
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            RowFilter rowFilter = RowFilter.of(filter, current);
+            double[] values = current.values(measure);
+            int groups = by == null ? 1 : current.cardinality(by);
+            int chunks = current.chunks(chunkSize());
+
+            int[][] counts = new int[chunks][];
+            chunkStream(chunks).forEach(chunk -> {
+                int[] local = new int[groups];
+                forEachRow(current, chunk, rowFilter, row -> {
+                    int group = by == null ? 0 : current.code(by, row);
+                    if (group >= 0) {
+                        local[group]++;
+                    }
+                });
+                counts[chunk] = local;
+            });
+            int[][] offsets = new int[chunks][groups];
+            int[] totals = new int[groups];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                for (int group = 0; group < groups; group++) {
+                    offsets[chunk][group] = totals[group];
+                    totals[group] += counts[chunk][group];
+                }
+            }
+            double[][] sorted = new double[groups][];
+            for (int group = 0; group < groups; group++) {
+                sorted[group] = new double[totals[group]];
+            }
+            chunkStream(chunks).forEach(chunk -> {
+                int[] position = offsets[chunk];
+                forEachRow(current, chunk, rowFilter, row -> {
+                    int group = by == null ? 0 : current.code(by, row);
+                    if (group >= 0) {
+                        sorted[group][position[group]++] = values[row];
+                    }
+                });
+            });
+
+            List<CoinsPercentiles> result = new ArrayList<>();
+            for (int group : by == null ? new int[] { 0 } : current.order(by)) {
+                double[] groupValues = sorted[group];
+                if (groupValues.length == 0) {
+                    continue;
+                }
+                Arrays.parallelSort(groupValues);
+                List<CoinsPercentiles.Percentile> points = percentiles.stream()
+                        .map(percentile -> new CoinsPercentiles.Percentile(percentile,
+                                groupValues[nearestRank(percentile, groupValues.length)]))
+                        .toList();
+                result.add(new CoinsPercentiles(by == null ? null : current.label(by, group), groupValues.length,
+                        points));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+            applyPending();
+        }
+    }
+
+    /**
+     * Computes an equal-width histogram of a measure between its minimum and
+     * maximum over the coins matching the filter.
+     *
+     * @param measure measure
+     * @param buckets number of buckets
+     * @param filter  search filter, without {@code name}
+     * @return buckets in ascending order, empty if no coin matches
+     * @throws IllegalArgumentException if the filter is not supported or a range
+     *                                  is inverted
+     */
+    public List<CoinsHistogramBucket> histogram(CoinMeasure measure, int buckets, CoinSearchFilter filter) {
+        applyPending();
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            RowFilter rowFilter = RowFilter.of(filter, current);
+            double[] values = current.values(measure);
+            double[] range = scan(current, rowFilter,
+                    () -> new double[] { Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY },
+                    (partial, row) -> {
+                        partial[0] = Math.min(partial[0], values[row]);
+                        partial[1] = Math.max(partial[1], values[row]);
+                    },
+                    (left, right) -> new double[] { Math.min(left[0], right[0]), Math.max(left[1], right[1]) });
+            if (range[0] > range[1]) {
+                return List.of();
+            }
+            double min = range[0];
+            double width = (range[1] - min) / buckets;
+            long[] counts = scan(current, rowFilter, () -> new long[buckets], (partial, row) -> {
+                int bucket = width == 0 ? 0 : (int) ((values[row] - min) / width);
+                partial[Math.min(bucket, buckets - 1)]++;
+            }, (left, right) -> {
+                for (int i = 0; i < left.length; i++) {
+                    left[i] += right[i];
+                }
+                return left;
+            });
+
+            List<CoinsHistogramBucket> histogram = new ArrayList<>(buckets);
+            for (int i = 0; i < buckets; i++) {
+                double to = i == buckets - 1 ? range[1] : min + (i + 1) * width;
+                histogram.add(new CoinsHistogramBucket(min + i * width, to, counts[i]));
+            }
+            return histogram;
+        } finally {
+            lock.readLock().unlock();
+            applyPending();
+        }
+    }
+
+    private void setChangesWhileLoading(List<Change> changes) {
+        lock.writeLock().lock();
+        try {
+            changesWhileLoading = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Columns target, Coin before, Coin after) {
+        if (after != null) {
+            target.put(after.getID(), after.getYear(), after.getPrice(), after.getWeight(), after.getDiameter(),
+                    after.getMaterial(), ordinal(after.getDegree()), ordinal(after.getConservationObverse()),
+                    ordinal(after.getConservationReverse()));
+        } else if (before != null) {
+            target.remove(before.getID());
+        }
+    }
+
+    private int chunkSize() {
+        return Math.max(properties.chunkSize(), 1);
+    }
+
+    /**
+     * Chunk indexes, parallel on the common fork-join pool when there is more
+     * than one chunk.
+     */
+    private static IntStream chunkStream(int chunks) {
+        IntStream stream = IntStream.range(0, chunks);
+        return chunks > 1 ? stream.parallel() : stream;
+    }
+
+    private void forEachRow(Columns current, int chunk, RowFilter rowFilter, RowConsumer consumer) {
+        int from = chunk * chunkSize();
+        int to = (int) Math.min((long) from + chunkSize(), current.size);
+        for (int row = from; row < to; row++) {
+            if (current.live[row] && rowFilter.test(current, row)) {
+                consumer.accept(row);
+            }
+        }
+    }
+
+    /**
+     * Accumulates the matching rows of every chunk into its own partial result
+     * and merges the partial results.
+     */
+    private <A> A scan(Columns current, RowFilter rowFilter, Supplier<A> partials, RowAccumulator<A> accumulator,
+            BinaryOperator<A> merge) {
+        return chunkStream(current.chunks(chunkSize()))
+                .mapToObj(chunk -> {
+                    A partial = partials.get();
+                    forEachRow(current, chunk, rowFilter, row -> accumulator.accept(partial, row));
+                    return partial;
+                })
+                .reduce(merge)
+                .orElseGet(partials);
+    }
+
+    private List<Coin> loadInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Coin> byId = new HashMap<>();
+        for (Coin coin : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)), Coin.class)) {
+            byId.put(coin.getID(), coin);
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private static int nearestRank(double percentile, int size) {
+        int rank = (int) Math.ceil(percentile / 100 * size);
+        return Math.min(Math.max(rank, 1), size) - 1;
+    }
+
+    private static double number(Document document, String field) {
+        return document.get(field) instanceof Number number ? number.doubleValue() : 0.0;
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value == null ? -1 : (byte) value.ordinal();
+    }
+
+    private static byte ordinal(Enum<?>[] values, String name) {
+        for (Enum<?> value : values) {
+            if (value.name().equals(name)) {
+                return (byte) value.ordinal();
+            }
+        }
+        return -1;
+    }
+
+    private record Change(Coin before, Coin after) {
+    }
+
+    /**
+     * A snapshot being loaded. Closing it without {@link #finish()} drops it
+     * and stops recording changes.
+     */
+    final class Reload implements AutoCloseable {
+
+        private final long start = System.nanoTime();
+        private final Columns loaded;
+
+        private Reload(Columns loaded) {
+            this.loaded = loaded;
+        }
+
+        /**
+         * Adds a coin mapped from the database.
+         *
+         * @param coin coin with at least the columnar fields
+         */
+        void add(Coin coin) {
+            apply(loaded, null, coin);
+        }
+
+        private void add(Document document) {
+            loaded.put(String.valueOf(document.get("_id")), (int) number(document, "year"),
+                    number(document, "price"), number(document, "weight"), number(document, "diameter"),
+                    document.getString("material"), ordinal(DEGREES, document.getString("degree")),
+                    ordinal(CONSERVATIONS, document.getString("conservationObverse")),
+                    ordinal(CONSERVATIONS, document.getString("conservationReverse")));
+        }
+
+        /**
+         * Replays the changes recorded while loading and swaps the snapshot in.
+         */
+        void finish() {
+            lock.writeLock().lock();
+            try {
+                drainPending();
+                for (Change change : changesWhileLoading) {
+                    apply(loaded, change.before(), change.after());
+                }
+                loaded.sortMaterials();
+                columns = loaded;
+                changesWhileLoading = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("Loaded {} coins into the columnar statistics snapshot in {} ms", loaded.count,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+
+        @Override
+        public void close() {
+            setChangesWhileLoading(null);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(int row);
+    }
+
+    @FunctionalInterface
+    private interface RowAccumulator<A> {
+        void accept(A partial, int row);
+    }
+
+    /**
+     * The column arrays, grown by doubling. Rows of deleted coins are marked
+     * as not live and recycled by later inserts.
+     */
+    private static final class Columns {
+        private final Map<String, Integer> rows = new HashMap<>();
+        private final List<String> materials = new ArrayList<>();
+        private final Map<String, Integer> materialCodes = new HashMap<>();
+        private int[] materialOrder = new int[0];
+        private String[] ids;
+        private boolean[] live;
+        private int[] year;
+        private double[] price;
+        private double[] weight;
+        private double[] diameter;
+        private int[] material;
+        private byte[] degree;
+        private byte[] conservationObverse;
+        private byte[] conservationReverse;
+        private int[] free = new int[16];
+        private int freeCount;
+        private int size;
+        private int count;
+        private int minYear = Integer.MAX_VALUE;
+        private int maxYear = Integer.MIN_VALUE;
+
+        private Columns(int capacity) {
+            resize(capacity);
+        }
+
+        private void put(String id, int coinYear, double coinPrice, double coinWeight, double coinDiameter,
+                String coinMaterial, byte coinDegree, byte obverse, byte reverse) {
+            Integer existing = rows.get(id);
+            int row = existing == null ? allocate(id) : existing;
+            year[row] = coinYear;
+            price[row] = coinPrice;
+            weight[row] = coinWeight;
+            diameter[row] = coinDiameter;
+            material[row] = coinMaterial == null ? -1
+                    : materialCodes.computeIfAbsent(coinMaterial, key -> {
+                        materials.add(key);
+                        return materials.size() - 1;
+                    });
+            degree[row] = coinDegree;
+            conservationObverse[row] = obverse;
+            conservationReverse[row] = reverse;
+            minYear = Math.min(minYear, coinYear);
+            maxYear = Math.max(maxYear, coinYear);
+        }
+
+        private int allocate(String id) {
+            int row;
+            if (freeCount > 0) {
+                row = free[--freeCount];
+            } else {
+                if (size == ids.length) {
+                    resize(ids.length * 2);
+                }
+                row = size++;
+            }
+            rows.put(id, row);
+            ids[row] = id;
+            live[row] = true;
+            count++;
+            return row;
+        }
+
+        private void remove(String id) {
+            Integer row = rows.remove(id);
+            if (row == null) {
+                return;
+            }
+            ids[row] = null;
+            live[row] = false;
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, free.length * 2);
+            }
+            free[freeCount++] = row;
+            count--;
+        }
+
+        private void resize(int capacity) {
+            ids = ids == null ? new String[capacity] : Arrays.copyOf(ids, capacity);
+            live = live == null ? new boolean[capacity] : Arrays.copyOf(live, capacity);
+            year = year == null ? new int[capacity] : Arrays.copyOf(year, capacity);
+            price = price == null ? new double[capacity] : Arrays.copyOf(price, capacity);
+            weight = weight == null ? new double[capacity] : Arrays.copyOf(weight, capacity);
+            diameter = diameter == null ? new double[capacity] : Arrays.copyOf(diameter, capacity);
+            material = material == null ? new int[capacity] : Arrays.copyOf(material, capacity);
+            degree = degree == null ? new byte[capacity] : Arrays.copyOf(degree, capacity);
+            conservationObverse = conservationObverse == null ? new byte[capacity]
+                    : Arrays.copyOf(conservationObverse, capacity);
+            conservationReverse = conservationReverse == null ? new byte[capacity]
+                    : Arrays.copyOf(conservationReverse, capacity);
+        }
+
+        private int chunks(int chunkSize) {
+            return (int) (((long) size + chunkSize - 1) / chunkSize);
+        }
+
+        private double[] values(CoinMeasure measure) {
+            return switch (measure) {
+                case PRICE -> price;
+                case WEIGHT -> weight;
+                case DIAMETER -> diameter;
+            };
+        }
+
+        /**
+         * Dense code of a row in a dimension, {@code -1} when the value is
+         * missing.
+         */
+        private int code(CoinDimension dimension, int row) {
+            return switch (dimension) {
+                case YEAR -> year[row] - minYear;
+                case DEGREE -> degree[row];
+                case MATERIAL -> material[row];
+                case CONSERVATION_OBVERSE -> conservationObverse[row];
+                case CONSERVATION_REVERSE -> conservationReverse[row];
+            };
+        }
+
+        private int cardinality(CoinDimension dimension) {
+            return switch (dimension) {
+                case YEAR -> minYear > maxYear ? 0 : maxYear - minYear + 1;
+                case DEGREE -> DEGREES.length;
+                case MATERIAL -> materials.size();
+                case CONSERVATION_OBVERSE, CONSERVATION_REVERSE -> CONSERVATIONS.length;
+            };
+        }
+
+        private String label(CoinDimension dimension, int code) {
+            return switch (dimension) {
+                case YEAR -> String.valueOf(minYear + code);
+                case DEGREE -> DEGREES[code].name();
+                case MATERIAL -> materials.get(code);
+                case CONSERVATION_OBVERSE, CONSERVATION_REVERSE -> CONSERVATIONS[code].name();
+            };
+        }
+
+        /**
+         * Codes in output order: years ascending, enums in declaration order
+         * and materials alphabetically, like the aggregation-based endpoints.
+         */
+        private int[] order(CoinDimension dimension) {
+            if (dimension == CoinDimension.MATERIAL) {
+                return materialOrder;
+            }
+            return IntStream.range(0, cardinality(dimension)).toArray();
+        }
+
+        /**
+         * Sorts the material codes alphabetically if the dictionary grew. Called
+         * by writers, so that scans only read the order.
+         */
+        private void sortMaterials() {
+            if (materialOrder.length == materials.size()) {
+                return;
+            }
+            String[] names = materials.toArray(new String[0]);
+            Arrays.sort(names);
+            int[] order = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                order[i] = materialCodes.get(names[i]);
+            }
+            materialOrder = order;
+        }
+    }
+
+    /**
+     * Filter compiled against a snapshot: ranges as primitive bounds, enum
+     * sets as bit masks and the material fragment as the set of matching
+     * dictionary entries, equivalent to {@link CoinQueries#criteria}.
+     */
+    private static final class RowFilter {
+        private final int minYear;
+        private final int maxYear;
+        private final double minPrice;
+        private final double maxPrice;
+        private final int degrees;
+        private final int obverses;
+        private final boolean[] materials;
+
+        private RowFilter(CoinSearchFilter filter, Columns current) {
+            minYear = filter.minYear() == null ? Integer.MIN_VALUE : filter.minYear();
+            maxYear = filter.maxYear() == null ? Integer.MAX_VALUE : filter.maxYear();
+            minPrice = filter.minPrice() == null ? Double.NEGATIVE_INFINITY : filter.minPrice();
+            maxPrice = filter.maxPrice() == null ? Double.POSITIVE_INFINITY : filter.maxPrice();
+            List<NumismaticRarity> degreeIn = !filter.degreeIn().isEmpty() ? filter.degreeIn()
+                    : filter.degree() == null ? List.of() : List.of(filter.degree());
+            degrees = mask(degreeIn);
+            obverses = mask(filter.conservationObverseIn());
+            materials = filter.material() == null || filter.material().isBlank() ? null
+                    : matchingMaterials(current.materials, SearchTextNormalizer.normalize(filter.material()),
+                            filter.textMatch());
+        }
+
+        private static RowFilter of(CoinSearchFilter filter, Columns current) {
+            if (!supports(filter)) {
+                throw new IllegalArgumentException("the name filter is not supported by analytics queries");
+            }
+            CoinQueries.validateRanges(filter.minYear(), filter.maxYear(), filter.minPrice(), filter.maxPrice());
+            return new RowFilter(filter, current);
+        }
+
+        private static int mask(List<? extends Enum<?>> values) {
+            int mask = 0;
+            for (Enum<?> value : values) {
+                mask |= 1 << value.ordinal();
+            }
+            return mask;
+        }
+
+        private static boolean[] matchingMaterials(List<String> dictionary, String fragment, TextMatchMode mode) {
+            Predicate<String> matches = mode == TextMatchMode.PREFIX ? value -> value.startsWith(fragment)
+                    : value -> value.contains(fragment);
+            boolean[] matching = new boolean[dictionary.size()];
+            for (int code = 0; code < matching.length; code++) {
+                matching[code] = matches.test(SearchTextNormalizer.normalize(dictionary.get(code)));
+            }
+            return matching;
+        }
+
+        private boolean test(Columns current, int row) {
+            int coinYear = current.year[row];
+            double coinPrice = current.price[row];
+            return coinYear >= minYear && coinYear <= maxYear
+                    && coinPrice >= minPrice && coinPrice <= maxPrice
+                    && matches(degrees, current.degree[row])
+                    && matches(obverses, current.conservationObverse[row])
+                    && (materials == null || current.material[row] >= 0 && materials[current.material[row]]);
+        }
+
+        private static boolean matches(int mask, byte ordinal) {
+            return mask == 0 || ordinal >= 0 && (mask & 1 << ordinal) != 0;
+        }
+    }
+
+    /**
+     * Partial result of {@link #overview}: summary, counts per year, rarity
+     * and material, and the most expensive rows.
+     */
+    private static final class Overview {
+        private final long[] byYear;
+        private final long[] byDegree;
+        private final long[] byMaterial;
+        private final TopPrices top;
+        private final int baseYear;
+        private long count;
+        private double totalPrice;
+        private int minYear = Integer.MAX_VALUE;
+        private int maxYear = Integer.MIN_VALUE;
+
+        private Overview(Columns current, int topSize) {
+            byYear = new long[current.cardinality(CoinDimension.YEAR)];
+            byDegree = new long[DEGREES.length];
+            byMaterial = new long[current.materials.size()];
+            top = new TopPrices(topSize);
+            baseYear = current.minYear;
+        }
+
+        private void add(Columns current, int row) {
+            int coinYear = current.year[row];
+            double coinPrice = current.price[row];
+            count++;
+            totalPrice += coinPrice;
+            minYear = Math.min(minYear, coinYear);
+            maxYear = Math.max(maxYear, coinYear);
+            byYear[coinYear - baseYear]++;
+            if (current.degree[row] >= 0) {
+                byDegree[current.degree[row]]++;
+            }
+            if (current.material[row] >= 0) {
+                byMaterial[current.material[row]]++;
+            }
+            top.offer(coinPrice, row);
+        }
+
+        private Overview merge(Overview other) {
+            count += other.count;
+            totalPrice += other.totalPrice;
+            minYear = Math.min(minYear, other.minYear);
+            maxYear = Math.max(maxYear, other.maxYear);
+            for (int i = 0; i < byYear.length; i++) {
+                byYear[i] += other.byYear[i];
+            }
+            for (int i = 0; i < byDegree.length; i++) {
+                byDegree[i] += other.byDegree[i];
+            }
+            for (int i = 0; i < byMaterial.length; i++) {
+                byMaterial[i] += other.byMaterial[i];
+            }
+            top.merge(other.top);
+            return this;
+        }
+
+        private CoinsSummaryStats summary() {
+            if (count == 0) {
+                return new CoinsSummaryStats(0L, 0.0, 0.0, null, null);
+            }
+            return new CoinsSummaryStats(count, totalPrice, totalPrice / count, minYear, maxYear);
+        }
+    }
+
+    /**
+     * Counts and price sums of the cells of a pivot.
+     */
+    private static final class Cells {
+        private final long[] counts;
+        private final double[] sums;
+
+        private Cells(int size) {
+            counts = new long[size];
+            sums = new double[size];
+        }
+
+        private void add(int cell, double coinPrice) {
+            counts[cell]++;
+            sums[cell] += coinPrice;
+        }
+
+        private Cells merge(Cells other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+                sums[i] += other.sums[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Bounded min-heap of the rows with the highest prices.
+     */
+    private static final class TopPrices {
+        private final double[] prices;
+        private final int[] rows;
+        private int size;
+
+        private TopPrices(int capacity) {
+            prices = new double[capacity];
+            rows = new int[capacity];
+        }
+
+        private void offer(double coinPrice, int row) {
+            if (size < prices.length) {
+                prices[size] = coinPrice;
+                rows[size] = row;
+                siftUp(size++);
+            } else if (size > 0 && coinPrice > prices[0]) {
+                prices[0] = coinPrice;
+                rows[0] = row;
+                siftDown(0);
+            }
+        }
+
+        private void merge(TopPrices other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.prices[i], other.rows[i]);
+            }
+        }
+
+        private int[] rowsByPriceDescending() {
+            int[] sorted = Arrays.copyOf(rows, size);
+            double[] keys = Arrays.copyOf(prices, size);
+            for (int i = 1; i < size; i++) {
+                for (int j = i; j > 0 && keys[j] > keys[j - 1]; j--) {
+                    swap(keys, sorted, j, j - 1);
+                }
+            }
+            return sorted;
+        }
+
+        private void siftUp(int index) {
+            int child = index;
+            while (child > 0 && prices[child] < prices[(child - 1) / 2]) {
+                swap(prices, rows, child, (child - 1) / 2);
+                child = (child - 1) / 2;
+            }
+        }
+
+        private void siftDown(int index) {
+            int parent = index;
+            while (true) {
+                int smallest = parent;
+                int left = 2 * parent + 1;
+                int right = left + 1;
+                if (left < size && prices[left] < prices[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && prices[right] < prices[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == parent) {
+                    return;
+                }
+                swap(prices, rows, parent, smallest);
+                parent = smallest;
+            }
+        }
+
+        private static void swap(double[] keys, int[] values, int i, int j) {
+            double key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
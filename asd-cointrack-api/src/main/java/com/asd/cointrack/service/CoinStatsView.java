@@ -0,0 +1,575 @@
+package com.asd.cointrack.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.bson.BsonTimestamp;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.asd.cointrack.config.StatsViewProperties;
+import com.asd.cointrack.dto.CoinsByDegreeStats;
+import com.asd.cointrack.dto.CoinsByMaterialStats;
+import com.asd.cointrack.dto.CoinsByYearStats;
+import com.asd.cointrack.dto.CoinsSummaryStats;
+import com.asd.cointrack.event.CoinChangedEvent;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.MongoException;
+import com.mongodb.client.ClientSession;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-memory materialized view of the coin statistics.
+ * <p>
+ * Per-year, per-degree and per-material counts and price sums are adjusted by
+ * deltas on every {@link CoinChangedEvent}, so reads cost O(groups) instead of
+ * O(coins). A scheduled full rebuild replaces the counters and corrects any
+ * drift (for instance writes that bypassed {@link CoinService}).
+ * <p>
+ * A rebuild streams the coins once, in {@code _id} order, and loads the
+ * counters, the {@link CoinPriceSketches} and the {@link CoinStatsColumns}
+ * snapshot from the same pass. Deltas that arrive meanwhile are recorded and
+ * replayed onto the loaded counters and sketches before they are swapped in,
+ * so a rebuild never has to be repeated:
+ * <ul>
+ * <li>a change of a coin the stream has already passed is replayed;</li>
+ * <li>a change of a coin still ahead is held until the stream reads the coin,
+ * then replayed only if the coin was read at an older {@code version};</li>
+ * <li>a coin never read was not in the collection when the stream passed it,
+ * so its last state is added unless it was deleted.</li>
+ * </ul>
+ * While a change stream feeds the view, the coins are read from a snapshot
+ * and the deltas committed after it are replayed instead, since the stream
+ * delivers them after the write; deltas committed before it are skipped even
+ * when they arrive after the swap. Without a snapshot the only case left is a
+ * write whose delta arrives after the stream has already read its result:
+ * the next rebuild corrects it. Writes that change an unknown set of coins
+ * (bulk updates) request a rebuild, which a background job runs after
+ * {@code cointrack.stats.view.rebuild-delay}, instead of running one on the
+ * request thread.
+ * <p>
+ * Until the first rebuild has completed the view reports itself as not ready
+ * and callers fall back to aggregation queries.
+ * <p>
+ * Deltas are forwarded to the {@link CoinStatsColumns} snapshot and to the
+ * {@link CoinPriceSketches}, which are maintained independently of
+ * {@code cointrack.stats.view.enabled}.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Injected Spring beans are not exposed outside the view")
+public class CoinStatsView {
+
+    private static final Logger log = LoggerFactory.getLogger(CoinStatsView.class);
+
+    private static final String[] FIELDS = { "year", "price", "weight", "diameter", "material", "degree",
+            "conservationObverse", "conservationReverse", "version" };
+    private static final int MAX_DRIFT_LOGGED = 20;
+    private static final double PRICE_TOLERANCE = 1e-9;
+
+    private final MongoTemplate mongoTemplate;
+    private final StatsViewProperties properties;
+    private final CoinStatsColumns columns;
+    private final CoinPriceSketches priceSketches;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    // Orders the deltas with the progress of a load and with the swap
+    private final Object deltaLock = new Object();
+
+    private volatile Counters counters;
+    private volatile Instant lastRebuild;
+    private volatile boolean changeStreamDriven;
+    private Load load;
+    private BsonTimestamp countersReadAt;
+
+    /**
+     * Returns whether the view has been built and can answer statistics queries.
+     *
+     * @return {@code true} if enabled and built at least once
+     */
+    public boolean isReady() {
+        return properties.enabled() && counters != null;
+    }
+
+    /**
+     * Returns the time of the last completed rebuild.
+     *
+     * @return rebuild instant or {@code null} if never built
+     */
+    public Instant getLastRebuild() {
+        return lastRebuild;
+    }
+
+    /**
+     * Returns whether the counters are maintained from the database change
+     * stream rather than from local {@link CoinChangedEvent}s.
+     *
+     * @return {@code true} while a change stream feeds the view
+     */
+    public boolean isChangeStreamDriven() {
+        return changeStreamDriven;
+    }
+
+    /**
+     * Switches the source of the deltas. A change stream delivers the writes of
+     * every instance, including this one: while it feeds the view, local events
+     * are ignored so that no change is counted twice.
+     *
+     * @param changeStreamDriven whether a change stream feeds the view
+     */
+    public void setChangeStreamDriven(boolean changeStreamDriven) {
+        this.changeStreamDriven = changeStreamDriven;
+    }
+
+    /**
+     * Applies the delta of a single coin change made through this instance,
+     * unless the view is fed by a change stream.
+     *
+     * @param event change event
+     */
+    @EventListener
+    public void onCoinChanged(CoinChangedEvent event) {
+        if (!changeStreamDriven) {
+            applyChange(event.before(), event.after());
+        }
+    }
+
+    /**
+     * Applies the delta of a single coin change to the counters, to the
+     * columnar snapshot and to the price sketches.
+     *
+     * @param before state before the change, {@code null} for a created coin
+     * @param after  state after the change, {@code null} for a deleted coin
+     */
+    public void applyChange(Coin before, Coin after) {
+        applyChange(before, after, null);
+    }
+
+    /**
+     * Applies the delta of a single coin change read from the change stream.
+     *
+     * @param before      state before the change, {@code null} for a created
+     *                    coin
+     * @param after       state after the change, {@code null} for a deleted
+     *                    coin
+     * @param clusterTime commit time of the change, {@code null} if unknown
+     */
+    public void applyChange(Coin before, Coin after, BsonTimestamp clusterTime) {
+        if (!columns.applyChange(before, after)) {
+            requestRebuild();
+        }
+        synchronized (deltaLock) {
+            if (load != null) {
+                load.record(new Change(before, after, clusterTime));
+            }
+            if (clusterTime != null && countersReadAt != null && clusterTime.compareTo(countersReadAt) <= 0) {
+                // Committed before the snapshot the counters were loaded from
+                return;
+            }
+            priceSketches.applyChange(before, after);
+            Counters current = counters;
+            if (current != null) {
+                current.apply(before, after);
+            }
+        }
+    }
+
+    /**
+     * Requests a full rebuild, run in the background after
+     * {@code cointrack.stats.view.rebuild-delay}. Requests made before the
+     * rebuild starts are served by the same rebuild.
+     */
+    public void requestRebuild() {
+        rebuildRequested.set(true);
+    }
+
+    /**
+     * Runs the requested rebuild, if any.
+     */
+    @Scheduled(fixedDelayString = "${cointrack.stats.view.rebuild-delay:PT5S}")
+    public void rebuildIfRequested() {
+        if (rebuildRequested.get()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reloads the counters, the price sketches and the columnar snapshot in a
+     * single pass, replays the deltas applied meanwhile and swaps them in,
+     * logging the drift found against the incrementally maintained counters.
+     * Waits for a rebuild already running on another thread.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${cointrack.stats.view.reconcile-interval:PT15M}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildRequested.set(false);
+            boolean snapshot = changeStreamDriven;
+            try {
+                reload(snapshot);
+            } catch (DataAccessException | MongoException e) {
+                if (!snapshot) {
+                    throw e;
+                }
+                log.warn("Could not read the coin statistics from a snapshot, reloading without one: {}",
+                        e.getMessage());
+                reload(false);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void reload(boolean snapshot) {
+        Counters loadedCounters = properties.enabled() ? new Counters() : null;
+        CoinPriceSketches.Sketches loadedSketches = priceSketches.emptySketches();
+        try (CoinStatsColumns.Reload loadedColumns = columns.startReload()) {
+            if (loadedCounters == null && loadedSketches == null && loadedColumns == null) {
+                return;
+            }
+            long start = System.nanoTime();
+            Load current = new Load(snapshot);
+            synchronized (deltaLock) {
+                load = current;
+            }
+            try {
+                Query query = new Query().with(Sort.by("_id"));
+                query.fields().include(FIELDS);
+                BsonTimestamp readAt = stream(query, snapshot, coin -> {
+                    synchronized (deltaLock) {
+                        current.read(coin);
+                    }
+                    if (loadedCounters != null) {
+                        loadedCounters.apply(null, coin);
+                    }
+                    if (loadedSketches != null) {
+                        loadedSketches.add(coin, 1);
+                    }
+                    if (loadedColumns != null) {
+                        loadedColumns.add(coin);
+                    }
+                });
+                if (loadedColumns != null) {
+                    loadedColumns.finish();
+                }
+                synchronized (deltaLock) {
+                    List<Change> replayed = current.replay(readAt);
+                    for (Change change : replayed) {
+                        if (loadedCounters != null) {
+                            loadedCounters.apply(change.before(), change.after());
+                        }
+                        if (loadedSketches != null) {
+                            if (change.before() != null) {
+                                loadedSketches.add(change.before(), -1);
+                            }
+                            if (change.after() != null) {
+                                loadedSketches.add(change.after(), 1);
+                            }
+                        }
+                    }
+                    if (loadedSketches != null) {
+                        priceSketches.swap(loadedSketches);
+                    }
+                    countersReadAt = readAt;
+                    if (loadedCounters != null) {
+                        logDrift(counters, loadedCounters);
+                        counters = loadedCounters;
+                        lastRebuild = Instant.now();
+                    }
+                    load = null;
+                    log.debug("Rebuilt the coin statistics in {} ms, replaying {} changes",
+                            (System.nanoTime() - start) / 1_000_000, replayed.size());
+                }
+            } finally {
+                synchronized (deltaLock) {
+                    load = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams the coins, from a snapshot if requested.
+     *
+     * @return the time of the snapshot, {@code null} without one
+     */
+    private BsonTimestamp stream(Query query, boolean snapshot, Consumer<Coin> consumer) {
+        if (!snapshot) {
+            try (Stream<Coin> coins = mongoTemplate.stream(query, Coin.class)) {
+                coins.forEach(consumer);
+            }
+            return null;
+        }
+        try (ClientSession session = mongoTemplate.getMongoDatabaseFactory()
+                .getSession(ClientSessionOptions.builder().snapshot(true).build())) {
+            try (Stream<Coin> coins = mongoTemplate.withSession(session).stream(query, Coin.class)) {
+                coins.forEach(consumer);
+            }
+            return session.getSnapshotTimestamp();
+        }
+    }
+
+    /**
+     * Logs the groups whose count or price sum differ between the maintained
+     * counters and the rebuilt ones, once the deltas have been replayed.
+     */
+    private static void logDrift(Counters previous, Counters rebuilt) {
+        if (previous == null) {
+            return;
+        }
+        List<String> drift = new ArrayList<>();
+        drift(drift, "year", previous.byYear, rebuilt.byYear);
+        drift(drift, "degree", previous.byDegree, rebuilt.byDegree);
+        drift(drift, "material", previous.byMaterial, rebuilt.byMaterial);
+        if (!drift.isEmpty()) {
+            log.warn("Coin statistics view drifted from the database in {} groups since the last rebuild: {}",
+                    drift.size(), String.join(", ", drift.subList(0, Math.min(drift.size(), MAX_DRIFT_LOGGED))));
+        }
+    }
+
+    /**
+     * Collects the groups whose count or price sum differ between the
+     * maintained and the rebuilt counters.
+     */
+    private static <K> void drift(List<String> drift, String dimension, Map<K, Bucket> maintained,
+            Map<K, Bucket> rebuilt) {
+        Set<K> keys = new HashSet<>(maintained.keySet());
+        keys.addAll(rebuilt.keySet());
+        for (K key : keys) {
+            Bucket before = maintained.get(key);
+            Bucket after = rebuilt.get(key);
+            long countDrift = count(after) - count(before);
+            double priceDrift = priceSum(after) - priceSum(before);
+            if (countDrift != 0 || Math.abs(priceDrift) > PRICE_TOLERANCE * Math.max(1.0, Math.abs(priceSum(after)))) {
+                drift.add(String.format(Locale.ROOT, "%s %s: count %+d, price sum %+.2f", dimension, key,
+                        countDrift, priceDrift));
+            }
+        }
+    }
+
+    private static long count(Bucket bucket) {
+        return bucket == null ? 0 : bucket.count.sum();
+    }
+
+    private static double priceSum(Bucket bucket) {
+        return bucket == null ? 0.0 : bucket.priceSum.sum();
+    }
+
+    public CoinsSummaryStats getSummaryStats() {
+        long totalCount = 0;
+        double totalPrice = 0.0;
+        Integer minYear = null;
+        Integer maxYear = null;
+        for (Map.Entry<Integer, Bucket> entry : counters.byYear.entrySet()) {
+            long count = entry.getValue().count.sum();
+            if (count <= 0) {
+                continue;
+            }
+            totalCount += count;
+            totalPrice += entry.getValue().priceSum.sum();
+            if (minYear == null) {
+                minYear = entry.getKey();
+            }
+            maxYear = entry.getKey();
+        }
+        if (totalCount == 0) {
+            return new CoinsSummaryStats(0L, 0.0, 0.0, null, null);
+        }
+        return new CoinsSummaryStats(totalCount, totalPrice, totalPrice / totalCount, minYear, maxYear);
+    }
+
+    public List<CoinsByYearStats> getStatsByYear() {
+        return nonEmpty(counters.byYear).stream()
+                .map(entry -> new CoinsByYearStats(entry.getKey(), entry.getValue().count.sum()))
+                .toList();
+    }
+
+    public List<CoinsByDegreeStats> getStatsByDegree() {
+        return nonEmpty(counters.byDegree).stream()
+                .map(entry -> new CoinsByDegreeStats(entry.getKey(), entry.getValue().count.sum()))
+                .toList();
+    }
+
+    public List<CoinsByMaterialStats> getStatsByMaterial() {
+        return nonEmpty(counters.byMaterial).stream()
+                .map(entry -> new CoinsByMaterialStats(entry.getKey(), entry.getValue().count.sum()))
+                .toList();
+    }
+
+    private static <K> List<Map.Entry<K, Bucket>> nonEmpty(ConcurrentNavigableMap<K, Bucket> groups) {
+        return groups.entrySet().stream()
+                .filter(entry -> entry.getValue().count.sum() > 0)
+                .toList();
+    }
+
+    private static long version(Coin coin) {
+        return coin.getVersion() == null ? Long.MIN_VALUE : coin.getVersion();
+    }
+
+    /**
+     * Orders ids as MongoDB sorts {@code _id}: strings before ObjectIds.
+     */
+    private static int compareIds(String left, String right) {
+        boolean leftObjectId = ObjectId.isValid(left);
+        boolean rightObjectId = ObjectId.isValid(right);
+        if (leftObjectId != rightObjectId) {
+            return leftObjectId ? 1 : -1;
+        }
+        return leftObjectId ? new ObjectId(left).compareTo(new ObjectId(right)) : left.compareTo(right);
+    }
+
+    /**
+     * A coin change, with its commit time when read from the change stream.
+     */
+    private record Change(Coin before, Coin after, BsonTimestamp clusterTime) {
+
+        private String id() {
+            return after != null ? after.getID() : before == null ? null : before.getID();
+        }
+
+        /**
+         * Whether the state read by the load already contains this change.
+         */
+        private boolean readIn(Coin read) {
+            return after != null && version(read) >= version(after);
+        }
+    }
+
+    /**
+     * Progress of a rebuild and the deltas applied meanwhile, sorted into
+     * those to replay onto the loaded counters and those waiting for the
+     * stream to reach their coin. Guarded by the delta lock.
+     */
+    private static final class Load {
+
+        private final boolean snapshot;
+        private final List<Change> replay = new ArrayList<>();
+        private final Map<String, List<Change>> waiting = new HashMap<>();
+        private String position;
+
+        private Load(boolean snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        private void record(Change change) {
+            String id = change.id();
+            if (snapshot && change.clusterTime() != null || id == null
+                    || position != null && compareIds(id, position) <= 0) {
+                replay.add(change);
+            } else {
+                waiting.computeIfAbsent(id, key -> new ArrayList<>()).add(change);
+            }
+        }
+
+        private void read(Coin coin) {
+            position = coin.getID();
+            List<Change> changes = waiting.remove(position);
+            if (changes != null) {
+                for (Change change : changes) {
+                    if (!change.readIn(coin)) {
+                        replay.add(change);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the changes to replay: those the stream did not see and, for
+         * every coin it never read, the last state unless it was deleted.
+         *
+         * @param readAt time of the snapshot, {@code null} without one
+         */
+        private List<Change> replay(BsonTimestamp readAt) {
+            List<Change> result = new ArrayList<>();
+            for (Change change : replay) {
+                if (readAt == null || change.clusterTime() == null || change.clusterTime().compareTo(readAt) > 0) {
+                    result.add(change);
+                }
+            }
+            for (List<Change> changes : waiting.values()) {
+                Coin last = null;
+                boolean deleted = false;
+                for (Change change : changes) {
+                    if (change.after() == null) {
+                        deleted = true;
+                    } else if (last == null || version(change.after()) > version(last)) {
+                        last = change.after();
+                    }
+                }
+                if (!deleted && last != null) {
+                    result.add(new Change(null, last, null));
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Count and price sum of a single group, updated lock-free.
+     */
+    private static final class Bucket {
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder priceSum = new DoubleAdder();
+
+        private void add(int sign, double price) {
+            count.add(sign);
+            priceSum.add(sign * price);
+        }
+    }
+
+    /**
+     * Complete set of counters, replaced as a whole on every rebuild. Sorted maps
+     * keep the output in the same order as the aggregation-based endpoints.
+     */
+    private static final class Counters {
+        private final ConcurrentNavigableMap<Integer, Bucket> byYear = new ConcurrentSkipListMap<>();
+        private final ConcurrentNavigableMap<NumismaticRarity, Bucket> byDegree = new ConcurrentSkipListMap<>();
+        private final ConcurrentNavigableMap<String, Bucket> byMaterial = new ConcurrentSkipListMap<>();
+
+        private void apply(Coin before, Coin after) {
+            if (before != null) {
+                apply(before, -1);
+            }
+            if (after != null) {
+                apply(after, 1);
+            }
+        }
+
+        private void apply(Coin coin, int sign) {
+            byYear.computeIfAbsent(coin.getYear(), key -> new Bucket()).add(sign, coin.getPrice());
+            if (coin.getDegree() != null) {
+                byDegree.computeIfAbsent(coin.getDegree(), key -> new Bucket()).add(sign, coin.getPrice());
+            }
+            if (coin.getMaterial() != null) {
+                byMaterial.computeIfAbsent(coin.getMaterial(), key -> new Bucket()).add(sign, coin.getPrice());
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.asd.cointrack.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.asd.cointrack.dto.DatasetVersion;
+import com.asd.cointrack.event.CoinChangedEvent;
+import com.asd.cointrack.model.Coin;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-memory {@link DatasetVersion} of each collection, the weak validator of
+ * the listings.
+ * <p>
+ * The fingerprint costs two queries, so it is read once and kept until a
+ * write of this instance, a bulk update or the {@link CoinChangeFeed}
+ * invalidates it: listing requests between two writes are answered without
+ * touching MongoDB. Each invalidation moves a change counter, and a
+ * fingerprint read while the counter moved is never served. Writes this
+ * instance does not see expire after {@value #MAX_AGE_SECONDS} seconds.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Injected Spring beans are not exposed outside the component")
+public class DatasetVersions {
+
+    static final long MAX_AGE_SECONDS = 60;
+
+    private static final Duration MAX_AGE = Duration.ofSeconds(MAX_AGE_SECONDS);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ConcurrentMap<Class<?>, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the fingerprint of a collection, read from MongoDB only if it
+     * changed since the last read.
+     *
+     * @param type mapped entity type
+     * @return collection fingerprint
+     */
+    public DatasetVersion current(Class<?> type) {
+        Fingerprint fingerprint = fingerprint(type);
+        long changes = fingerprint.changes.get();
+        Snapshot snapshot = fingerprint.snapshot;
+        Instant now = Instant.now();
+        if (snapshot != null && snapshot.changes() == changes && now.isBefore(snapshot.readAt().plus(MAX_AGE))) {
+            return snapshot.version();
+        }
+        DatasetVersion version = VersionQueries.version(mongoTemplate, type);
+        fingerprint.snapshot = new Snapshot(changes, now, version);
+        return version;
+    }
+
+    /**
+     * Drops the fingerprint of a collection after a write.
+     *
+     * @param type mapped entity type
+     */
+    public void invalidate(Class<?> type) {
+        fingerprint(type).changes.incrementAndGet();
+    }
+
+    /**
+     * Drops the coin fingerprint when a coin is created, updated or deleted.
+     *
+     * @param event change event
+     */
+    @EventListener
+    public void onCoinChanged(CoinChangedEvent event) {
+        invalidate(Coin.class);
+    }
+
+    private Fingerprint fingerprint(Class<?> type) {
+        return fingerprints.computeIfAbsent(type, key -> new Fingerprint());
+    }
+
+    private static final class Fingerprint {
+        private final AtomicLong changes = new AtomicLong();
+        private volatile Snapshot snapshot;
+    }
+
+    /**
+     * A fingerprint and the change counter read before it.
+     */
+    private record Snapshot(long changes, Instant readAt, DatasetVersion version) {
+    }
+}
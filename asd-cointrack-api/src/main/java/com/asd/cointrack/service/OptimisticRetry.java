@@ -0,0 +1,76 @@
+package com.asd.cointrack.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import com.asd.cointrack.config.OptimisticLockingProperties;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Retries server-side writes that lose an optimistic locking race.
+ * <p>
+ * Each retry waits a random delay below an exponentially growing bound (full
+ * jitter), so that writers competing for the same documents spread out instead
+ * of colliding again in lockstep.
+ */
+@Component
+@RequiredArgsConstructor
+public class OptimisticRetry {
+
+    private final OptimisticLockingProperties properties;
+
+    /**
+     * Runs an operation, repeating it while it fails with an optimistic locking
+     * conflict. The operation must re-read the state it modifies.
+     *
+     * @param operation write to attempt
+     * @param <T>       result type
+     * @return result of the first successful attempt
+     * @throws OptimisticLockingFailureException if every attempt conflicts or
+     *                                           the thread is interrupted
+     *                                           while waiting
+     */
+    public <T> T run(Supplier<T> operation) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return operation.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (!canRetry(attempt) || !backOff(attempt)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether another attempt is allowed after the given one.
+     *
+     * @param attempt number of attempts made so far
+     * @return {@code true} if the caller may retry
+     */
+    public boolean canRetry(int attempt) {
+        return attempt < properties.maxAttempts();
+    }
+
+    /**
+     * Waits before the attempt following the given one.
+     *
+     * @param attempt number of attempts made so far
+     * @return {@code false} if the thread has been interrupted meanwhile
+     */
+    public boolean backOff(int attempt) {
+        long bound = properties.initialBackoff().toMillis() << Math.min(attempt - 1, 20);
+        long delay = ThreadLocalRandom.current().nextLong(Math.min(bound, properties.maxBackoff().toMillis()) + 1);
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
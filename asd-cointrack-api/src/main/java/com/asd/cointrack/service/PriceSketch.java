@@ -0,0 +1,165 @@
+package com.asd.cointrack.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Quantile sketch of prices with a relative error bound, in the style of
+ * DDSketch.
+ * <p>
+ * Prices are counted in logarithmic buckets: bucket {@code i} holds the
+ * values in {@code (γ^(i-1), γ^i]} with {@code γ = (1 + α) / (1 - α)}, and
+ * reports them as {@code 2γ^i / (γ + 1)}, which is within a relative error
+ * {@code α} of every value of the bucket. Any quantile is therefore returned
+ * with a relative error of at most {@code α} on the price, whatever the
+ * number of coins. Prices below {@value #MIN_PRICE} are counted as zero and
+ * prices above {@value #MAX_PRICE} in the last bucket.
+ * <p>
+ * The buckets are a fixed array (about 1,600 counters for {@code α = 0.01}),
+ * updated lock-free. Counts are signed, so unlike t-digest or KLL the sketch
+ * supports removals and can be maintained from the deltas of updates and
+ * deletions.
+ */
+public final class PriceSketch {
+
+    /** Smallest price counted in a logarithmic bucket. */
+    public static final double MIN_PRICE = 0.01;
+
+    /** Largest price counted with the relative error bound. */
+    public static final double MAX_PRICE = 1e12;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final int minIndex;
+    private final AtomicLongArray counts;
+    private final AtomicLong zeroCount = new AtomicLong();
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param relativeAccuracy relative error bound {@code α} of the quantiles,
+     *                         between 0.0001 and 0.1
+     * @throws IllegalArgumentException if the accuracy is out of range
+     */
+    public PriceSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy >= 0.0001 && relativeAccuracy <= 0.1)) {
+            throw new IllegalArgumentException("relative accuracy must be between 0.0001 and 0.1");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.minIndex = rawIndex(MIN_PRICE);
+        this.counts = new AtomicLongArray(rawIndex(MAX_PRICE) - minIndex + 1);
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Adds or removes a price.
+     *
+     * @param price price, negative values are counted as zero
+     * @param delta {@code 1} to add the price, {@code -1} to remove it
+     */
+    public void add(double price, long delta) {
+        if (price < MIN_PRICE) {
+            zeroCount.addAndGet(delta);
+        } else {
+            counts.addAndGet(slot(price), delta);
+        }
+    }
+
+    /**
+     * Returns the number of prices in the sketch.
+     *
+     * @return count, never negative
+     */
+    public long count() {
+        long count = Math.max(zeroCount.get(), 0);
+        for (int i = 0; i < counts.length(); i++) {
+            count += Math.max(counts.get(i), 0);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the price at the given quantile (nearest-rank), within the
+     * relative error bound.
+     *
+     * @param quantile quantile between 0 and 1
+     * @return price, {@code NaN} if the sketch is empty
+     */
+    public double quantile(double quantile) {
+        long total = count();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.min(Math.max((long) Math.ceil(quantile * total), 1), total);
+        long cumulative = Math.max(zeroCount.get(), 0);
+        if (cumulative >= rank) {
+            return 0.0;
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                cumulative += count;
+                if (cumulative >= rank) {
+                    return value(i);
+                }
+            }
+        }
+        return highest();
+    }
+
+    /**
+     * Returns the highest price in the sketch, within the relative error bound.
+     *
+     * @return price, {@code 0} if the sketch holds only zero prices or is empty
+     */
+    public double highest() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) {
+                return value(i);
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * Returns the number of prices lower than a bound. Prices within the
+     * relative error bound of {@code bound} may be counted on either side.
+     *
+     * @param bound exclusive upper bound
+     * @return count, never negative
+     */
+    public long countBelow(double bound) {
+        if (bound <= 0) {
+            return 0;
+        }
+        long count = Math.max(zeroCount.get(), 0);
+        if (bound <= MIN_PRICE) {
+            return count;
+        }
+        int boundSlot = slot(bound);
+        for (int i = 0; i <= boundSlot; i++) {
+            if (i < boundSlot || value(i) < bound) {
+                count += Math.max(counts.get(i), 0);
+            }
+        }
+        return count;
+    }
+
+    private int rawIndex(double price) {
+        return (int) Math.ceil(Math.log(price) / logGamma);
+    }
+
+    private int slot(double price) {
+        return Math.min(rawIndex(Math.min(price, MAX_PRICE)) - minIndex, counts.length() - 1);
+    }
+
+    private double value(int slot) {
+        return 2 * Math.pow(gamma, slot + minIndex) / (gamma + 1);
+    }
+}
@@ -0,0 +1,102 @@
+package com.asd.cointrack.service;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.CoinSummary;
+import com.asd.cointrack.model.Coin;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read access to {@link Coin} data, backed by
+ * {@link ReactiveMongoTemplate}. Active only with the {@code reactive} profile.
+ * <p>
+ * Results are returned as {@link Flux} sequences fed by a MongoDB cursor: the
+ * driver requests the next batch only when the subscriber has demanded more
+ * elements, so a slow client slows down the read instead of filling memory.
+ * Queries are built with {@link CoinQueries}, exactly as in {@link CoinService}.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "ReactiveMongoTemplate is an injected Spring bean and is not exposed outside the service")
+public class ReactiveCoinService {
+
+    private static final int CURSOR_BATCH_SIZE = 1000;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Returns a page of all coins as a stream, without computing the total.
+     *
+     * @param <T>      result type
+     * @param pageable pagination and sorting information
+     * @param type     {@link Coin} or a projection of it such as
+     *                 {@link CoinSummary}
+     * @return coins of the requested page
+     */
+    public <T> Flux<T> getAllCoins(Pageable pageable, Class<T> type) {
+        return find(new Query().with(CoinQueries.sanitizePageable(pageable)), type);
+    }
+
+    /**
+     * Returns a coin by id.
+     *
+     * @param id coin identifier
+     * @return coin, or an empty {@link Mono} if not found
+     */
+    public Mono<Coin> getCoinById(String id) {
+        return mongoTemplate.findById(id, Coin.class);
+    }
+
+    /**
+     * Performs an advanced search, streaming the coins of the requested page
+     * without computing the total.
+     *
+     * @param <T>      result type
+     * @param filter   search filter
+     * @param pageable pagination and sorting information
+     * @param type     {@link Coin} or a projection of it
+     * @return coins of the requested page
+     * @throws IllegalArgumentException if a range of the filter is inverted
+     */
+    public <T> Flux<T> advancedSearch(CoinSearchFilter filter, Pageable pageable, Class<T> type) {
+        return find(CoinQueries.query(filter).with(CoinQueries.sanitizePageable(pageable)), type);
+    }
+
+    /**
+     * Streams every coin matching the filter in {@code _id} order, with no
+     * page limit. Passing the id of the last coin received resumes an
+     * interrupted export right after it.
+     *
+     * @param <T>     result type
+     * @param filter  search filter, same semantics as the advanced search
+     * @param afterId optional id of the last coin already received
+     * @param type    {@link Coin} or a projection of it
+     * @return matching coins
+     * @throws IllegalArgumentException if a range of the filter is inverted
+     */
+    public <T> Flux<T> export(CoinSearchFilter filter, String afterId, Class<T> type) {
+        Query query = CoinQueries.query(filter)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(CURSOR_BATCH_SIZE);
+        if (afterId != null && !afterId.isBlank()) {
+            query.addCriteria(Criteria.where("_id").gt(afterId));
+        }
+        return find(query, type);
+    }
+
+    private <T> Flux<T> find(Query query, Class<T> type) {
+        return mongoTemplate.query(Coin.class).as(type).matching(query).all();
+    }
+}
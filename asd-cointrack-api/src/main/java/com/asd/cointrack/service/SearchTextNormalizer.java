@@ -0,0 +1,45 @@
+package com.asd.cointrack.service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes free text for the indexed, case- and accent-insensitive search
+ * fields of {@link com.asd.cointrack.model.Coin}.
+ */
+public final class SearchTextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern REGEX_METACHARACTERS = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
+    private SearchTextNormalizer() {
+    }
+
+    /**
+     * Lower-cases the text and strips diacritics, so that for instance
+     * {@code "Lira Università"} becomes {@code "lira universita"}.
+     *
+     * @param text text to normalize, may be {@code null}
+     * @return normalized text or {@code null}
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Escapes regular expression metacharacters with backslashes. Unlike
+     * {@link Pattern#quote(String)} the result keeps a literal prefix that
+     * MongoDB can turn into index bounds when anchored with {@code ^}.
+     *
+     * @param literal literal text
+     * @return escaped text
+     */
+    public static String escapeRegex(String literal) {
+        return REGEX_METACHARACTERS.matcher(literal).replaceAll("\\\\$0");
+    }
+}
@@ -0,0 +1,60 @@
+package com.asd.cointrack.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.CoinCollection;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Sets the optimistic locking version of coins and collections written before
+ * it existed.
+ * <p>
+ * Runs once the application is ready, before the other backfills, with one
+ * {@code updateMulti} per collection, issued only if a read limited to one
+ * document finds a document without version: after the first start no write
+ * is sent. Until it completes, replacing such a document fails with a
+ * conflict, because a versioned entity without a version is saved as a new
+ * document.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "MongoTemplate is an injected Spring bean and is not exposed outside the component")
+public class VersionBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(VersionBackfill.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfill() {
+        backfill(Coin.class);
+        backfill(CoinCollection.class);
+    }
+
+    private void backfill(Class<?> type) {
+        Query unversioned = Query.query(Criteria.where("version").exists(false));
+        // Once the backfill has run, a read stopping at the first match is all a start costs
+        if (!mongoTemplate.exists(Query.of(unversioned).limit(1), type)) {
+            return;
+        }
+        long updated = mongoTemplate.updateMulti(unversioned, Update.update("version", 0L), type)
+                .getModifiedCount();
+        if (updated > 0) {
+            log.info("Initialized version of {} documents in {}", updated, mongoTemplate.getCollectionName(type));
+        }
+    }
+}
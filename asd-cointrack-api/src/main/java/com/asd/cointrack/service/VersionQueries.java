@@ -0,0 +1,69 @@
+package com.asd.cointrack.service;
+
+import java.util.Date;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.asd.cointrack.dto.DatasetVersion;
+import com.asd.cointrack.dto.DocumentVersion;
+
+/**
+ * Reads versions and modification times without loading documents, for HTTP
+ * conditional requests.
+ * <p>
+ * Only the {@code version} and {@code updatedAt} fields are fetched.
+ */
+final class VersionQueries {
+
+    private static final String VERSION = "version";
+    private static final String UPDATED_AT = "updatedAt";
+
+    private VersionQueries() {
+    }
+
+    /**
+     * Returns the version of a single document.
+     *
+     * @param operations MongoDB operations
+     * @param id         document identifier
+     * @param type       mapped entity type
+     * @return document version or {@code null} if the document does not exist
+     */
+    static DocumentVersion version(MongoOperations operations, String id, Class<?> type) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include(VERSION, UPDATED_AT);
+        Document document = operations.findOne(query, Document.class, operations.getCollectionName(type));
+        if (document == null) {
+            return null;
+        }
+        Number version = document.get(VERSION, Number.class);
+        Date updatedAt = document.getDate(UPDATED_AT);
+        return DocumentVersion.of(version == null ? null : version.longValue(),
+                updatedAt == null ? null : updatedAt.toInstant());
+    }
+
+    /**
+     * Returns the fingerprint of a whole collection: its estimated size, read
+     * from the collection metadata, and its latest {@code updatedAt}, read from
+     * the first entry of an index when there is one. {@code updatedAt} is set
+     * by the clock of the writing instance, see {@link DatasetVersion} for the
+     * changes this fingerprint can miss.
+     *
+     * @param operations MongoDB operations
+     * @param type       mapped entity type
+     * @return collection fingerprint
+     */
+    static DatasetVersion version(MongoOperations operations, Class<?> type) {
+        String collection = operations.getCollectionName(type);
+        Query latest = new Query().with(Sort.by(Sort.Direction.DESC, UPDATED_AT)).limit(1);
+        latest.fields().include(UPDATED_AT);
+        Document document = operations.findOne(latest, Document.class, collection);
+        Date updatedAt = document == null ? null : document.getDate(UPDATED_AT);
+        long count = operations.getCollection(collection).estimatedDocumentCount();
+        return new DatasetVersion(count, updatedAt == null ? null : updatedAt.toInstant());
+    }
+}
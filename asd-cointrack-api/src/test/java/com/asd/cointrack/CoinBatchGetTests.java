@@ -0,0 +1,98 @@
+package com.asd.cointrack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.asd.cointrack.dto.CoinBatchResult;
+import com.asd.cointrack.dto.CoinSummary;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+import com.asd.cointrack.service.CoinService;
+
+/**
+ * Checks that a batch lookup returns the coins in request order, each once
+ * however many times it is requested, and lists the ids not found in request
+ * order too.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class CoinBatchGetTests {
+
+	private static final String MISSING = "000000000000000000000000";
+
+	@Autowired
+	private CoinService coinService;
+
+	@Test
+	void coinsFollowTheRequestOrder() {
+		String first = create("Marengo");
+		String second = create("Scudo");
+		String third = create("Lira");
+
+		CoinBatchResult result = coinService.getCoinsByIds(List.of(third, first, second), Coin.class);
+
+		assertEquals(List.of(third, first, second), ids(result));
+		assertEquals(List.of(), result.missing());
+	}
+
+	@Test
+	void duplicatesAreReturnedOnce() {
+		String first = create("Marengo");
+		String second = create("Scudo");
+
+		CoinBatchResult result = coinService.getCoinsByIds(List.of(second, first, second, first, second),
+				Coin.class);
+
+		assertEquals(List.of(second, first), ids(result));
+	}
+
+	@Test
+	void missingIdsAreListedInRequestOrder() {
+		String found = create("Marengo");
+
+		CoinBatchResult result = coinService.getCoinsByIds(List.of("not-an-object-id", found, MISSING,
+				"not-an-object-id"), Coin.class);
+
+		assertEquals(List.of(found), ids(result));
+		assertEquals(List.of("not-an-object-id", MISSING), result.missing());
+	}
+
+	@Test
+	void summariesFollowTheRequestOrder() {
+		String first = create("Marengo");
+		String second = create("Scudo");
+
+		CoinBatchResult result = coinService.getCoinsByIds(List.of(second, MISSING, first), CoinSummary.class);
+
+		assertEquals(List.of(second, first), result.coins().stream().map(coin -> ((CoinSummary) coin).id())
+				.toList());
+		assertEquals("Scudo", ((CoinSummary) result.coins().get(0)).name());
+		assertEquals(List.of(MISSING), result.missing());
+	}
+
+	private String create(String name) {
+		return coinService.createCoin(Coin.builder()
+				.name(name)
+				.year(1801)
+				.material("Oro")
+				.weight(6.45)
+				.diameter(21)
+				.height(1.5)
+				.price(100)
+				.conservationObverse(OptionConservation.SPL)
+				.conservationReverse(OptionConservation.BB)
+				.degree(NumismaticRarity.R2)
+				.build()).getID();
+	}
+
+	private static List<String> ids(CoinBatchResult result) {
+		return result.coins().stream().map(coin -> ((Coin) coin).getID()).toList();
+	}
+}
@@ -0,0 +1,135 @@
+package com.asd.cointrack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.asd.cointrack.dto.CoinBulkUpdateRequest;
+import com.asd.cointrack.dto.CoinBulkUpdateResult;
+import com.asd.cointrack.dto.CoinPatch;
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+import com.asd.cointrack.repository.CoinRepository;
+import com.asd.cointrack.service.CoinService;
+
+/**
+ * Checks that a filter-based bulk update never rewrites the whole catalogue
+ * unless asked to, and that both bulk updates bump the version of every coin
+ * they match, so that a concurrent replacement fails instead of undoing them.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class CoinBulkUpdateTests {
+
+	private static final CoinPatch NOTE = new CoinPatch(null, null, null, null, null, null, null, null, null, null,
+			"bulk", null, null);
+
+	@Autowired
+	private CoinService coinService;
+
+	@Autowired
+	private CoinRepository coinRepository;
+
+	@Test
+	void emptyFilterRequiresAll() {
+		assertThrows(IllegalArgumentException.class,
+				() -> coinService.bulkUpdate(new CoinBulkUpdateRequest(CoinSearchFilter.none(), NOTE, null, false)));
+		assertThrows(IllegalArgumentException.class,
+				() -> coinService.bulkUpdate(new CoinBulkUpdateRequest(byName("Marengo"), NOTE, null, true)));
+	}
+
+	@Test
+	void allIncrementsTheVersionOfEveryCoin() {
+		String name = uniqueName();
+		createCoins(name, 3);
+		Map<String, Long> before = versions();
+
+		CoinBulkUpdateResult result = coinService
+				.bulkUpdate(new CoinBulkUpdateRequest(CoinSearchFilter.none(), NOTE, null, true));
+
+		assertEquals(before.size(), result.matched());
+		Map<String, Long> after = versions();
+		before.forEach((id, version) -> assertEquals(version + 1, after.get(id), "version of " + id));
+	}
+
+	@Test
+	void filterIncrementsTheVersionOfMatchedCoinsOnly() {
+		String name = uniqueName();
+		List<Coin> matched = createCoins(name, 3);
+		Coin other = createCoins(uniqueName(), 1).get(0);
+
+		CoinBulkUpdateResult result = coinService
+				.bulkUpdate(new CoinBulkUpdateRequest(byName(name), null, 1.1, false));
+
+		assertEquals(new CoinBulkUpdateResult(3, 3), result);
+		for (Coin coin : matched) {
+			Coin updated = coinRepository.findById(coin.getID()).orElseThrow();
+			assertEquals(coin.getVersion() + 1, updated.getVersion());
+			assertEquals(coin.getPrice() * 1.1, updated.getPrice(), 1e-9);
+		}
+		assertEquals(other.getVersion(), coinRepository.findById(other.getID()).orElseThrow().getVersion());
+	}
+
+	@Test
+	void byIdsIncrementsTheVersionOfEveryExistingCoin() {
+		List<Coin> coins = createCoins(uniqueName(), 2);
+		Map<String, CoinPatch> patches = new LinkedHashMap<>();
+		coins.forEach(coin -> patches.put(coin.getID(), NOTE));
+		patches.put("000000000000000000000000", NOTE);
+
+		CoinBulkUpdateResult result = coinService.bulkUpdateByIds(patches);
+
+		assertEquals(new CoinBulkUpdateResult(2, 2), result);
+		for (Coin coin : coins) {
+			Coin updated = coinRepository.findById(coin.getID()).orElseThrow();
+			assertEquals(coin.getVersion() + 1, updated.getVersion());
+			assertEquals("bulk", updated.getNote());
+		}
+	}
+
+	private Map<String, Long> versions() {
+		return coinRepository.findAll().stream().collect(Collectors.toMap(Coin::getID, Coin::getVersion));
+	}
+
+	private List<Coin> createCoins(String name, int count) {
+		return IntStream.range(0, count)
+				.mapToObj(i -> coinService.createCoin(newCoin(name, 100 + i)))
+				.toList();
+	}
+
+	private static CoinSearchFilter byName(String name) {
+		return new CoinSearchFilter(name, null, null, null, null, null, null, null, null, null);
+	}
+
+	private static String uniqueName() {
+		return "bulk " + UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	private static Coin newCoin(String name, double price) {
+		return Coin.builder()
+				.name(name)
+				.year(1861)
+				.material("Argento")
+				.weight(5)
+				.diameter(23)
+				.height(1.5)
+				.price(price)
+				.conservationObverse(OptionConservation.BB)
+				.conservationReverse(OptionConservation.BB)
+				.degree(NumismaticRarity.C)
+				.build();
+	}
+}
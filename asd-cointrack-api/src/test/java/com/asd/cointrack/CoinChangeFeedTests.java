@@ -0,0 +1,172 @@
+package com.asd.cointrack;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.testcontainers.containers.MongoDBContainer;
+
+import com.asd.cointrack.config.CacheConfig;
+import com.asd.cointrack.config.ChangeFeedProperties;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+import com.asd.cointrack.service.CoinActivityStats;
+import com.asd.cointrack.service.CoinChangeFeed;
+import com.asd.cointrack.service.CoinService;
+import com.asd.cointrack.service.CoinStatsView;
+import com.asd.cointrack.service.DatasetVersions;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Writes coins through a second client, as another API instance would, and
+ * checks that the change stream evicts them from the local cache, also after
+ * a restart resuming from the stored token. The test container is a
+ * single-node replica set, so change streams are available.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest(properties = {
+		"cointrack.change-feed.mode=change-stream",
+		"cointrack.change-feed.node-id=change-feed-tests",
+		"cointrack.change-feed.checkpoint-interval=PT0S" })
+class CoinChangeFeedTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	@Autowired
+	private CoinService coinService;
+
+	@Autowired
+	private CoinChangeFeed changeFeed;
+
+	@Autowired
+	private CoinStatsView statsView;
+
+	@Autowired
+	private CoinActivityStats activityStats;
+
+	@Autowired
+	private DatasetVersions datasetVersions;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private ChangeFeedProperties properties;
+
+	@Autowired
+	private MongoDBContainer mongo;
+
+	private MongoClient otherClient;
+	private MongoTemplate otherInstance;
+
+	@BeforeEach
+	void connectOtherInstance() {
+		otherClient = MongoClients.create(mongo.getReplicaSetUrl());
+		otherInstance = new MongoTemplate(otherClient, mongoTemplate.getDb().getName());
+	}
+
+	@AfterEach
+	void closeOtherInstance() {
+		otherClient.close();
+	}
+
+	@Test
+	void writesOfAnotherInstanceEvictTheCachedCoin() {
+		awaitUntil(statsView::isChangeStreamDriven, "change stream opened");
+		String id = coinService.createCoin(newCoin()).getID();
+		coinService.getCoinById(id);
+		assertNotNull(coins().get(id), "coin cached");
+
+		raisePrice(id);
+
+		awaitUntil(() -> coins().get(id) == null, "cached coin evicted");
+		assertTrue(coinService.getCoinById(id).getPrice() > 100, "new price read");
+	}
+
+	@Test
+	void restartResumesFromTheStoredToken() {
+		awaitUntil(statsView::isChangeStreamDriven, "change stream opened");
+		String id = coinService.createCoin(newCoin()).getID();
+		awaitUntil(() -> checkpoint() != null, "resume token stored");
+
+		changeFeed.stop();
+		coinService.getCoinById(id);
+		raisePrice(id);
+		assertNotNull(coins().get(id), "no feed running, the coin stays cached");
+
+		CoinChangeFeed restarted = new CoinChangeFeed(mongoTemplate, cacheManager, statsView, activityStats,
+				datasetVersions, properties);
+		restarted.start();
+		try {
+			awaitUntil(() -> coins().get(id) == null, "write missed while stopped evicted on resume");
+		} finally {
+			restarted.stop();
+			changeFeed.start();
+		}
+	}
+
+	private void raisePrice(String id) {
+		otherInstance.updateFirst(Query.query(Criteria.where("_id").is(new ObjectId(id))),
+				new Update().inc("price", 500), mongoTemplate.getCollectionName(Coin.class));
+	}
+
+	private Document checkpoint() {
+		return mongoTemplate.getCollection(CoinChangeFeed.CHECKPOINTS)
+				.find(new Document("_id", properties.nodeId())).first();
+	}
+
+	private Cache coins() {
+		return cacheManager.getCache(CacheConfig.COINS);
+	}
+
+	private static void awaitUntil(BooleanSupplier condition, String description) {
+		long deadline = System.nanoTime() + TIMEOUT.toNanos();
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("timed out waiting for: " + description);
+			}
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AssertionError("interrupted waiting for: " + description, e);
+			}
+		}
+	}
+
+	private static Coin newCoin() {
+		return Coin.builder()
+				.name("Marengo")
+				.year(1801)
+				.material("Oro")
+				.weight(6.45)
+				.diameter(21)
+				.height(1.5)
+				.price(100)
+				.conservationObverse(OptionConservation.SPL)
+				.conservationReverse(OptionConservation.BB)
+				.degree(NumismaticRarity.R2)
+				.build();
+	}
+}
@@ -0,0 +1,173 @@
+package com.asd.cointrack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveCallback;
+
+import com.asd.cointrack.dto.CoinPatch;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+import com.asd.cointrack.repository.CoinRepository;
+import com.asd.cointrack.service.CoinService;
+
+/**
+ * Hammers a single coin with concurrent read-modify-write updates and checks
+ * that optimistic locking loses none of them, and that an unconditional
+ * update does not overwrite a patch landing between its read and its save.
+ */
+@Import({ TestcontainersConfiguration.class, CoinConcurrencyTests.InterleavedPatch.class })
+@SpringBootTest
+class CoinConcurrencyTests {
+
+	private static final int THREADS = 16;
+	private static final int INCREMENTS_PER_THREAD = 25;
+
+	@Autowired
+	private CoinService coinService;
+
+	@Autowired
+	private CoinRepository coinRepository;
+
+	@Autowired
+	private InterleavedPatch interleavedPatch;
+
+	@Test
+	void concurrentConditionalUpdatesLoseNoIncrement() throws Exception {
+		String id = coinService.createCoin(newCoin()).getID();
+
+		runConcurrently(() -> {
+			for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+				while (true) {
+					Coin current = coinRepository.findById(id).orElseThrow();
+					Coin updated = current.toBuilder().price(current.getPrice() + 1).build();
+					try {
+						coinService.updateCoin(id, updated, current.getVersion());
+						break;
+					} catch (OptimisticLockingFailureException e) {
+						// Lost the race: read the new state and try again
+					}
+				}
+			}
+			return null;
+		});
+
+		Coin result = coinRepository.findById(id).orElseThrow();
+		assertEquals(THREADS * INCREMENTS_PER_THREAD, result.getPrice(), 0.0, "lost updates");
+		assertEquals((long) THREADS * INCREMENTS_PER_THREAD, result.getVersion().longValue(),
+				"one version per successful update");
+	}
+
+	@Test
+	void staleVersionIsRejected() {
+		Coin created = coinService.createCoin(newCoin());
+		coinService.updateCoin(created.getID(), created.toBuilder().price(5).build());
+
+		assertThrows(OptimisticLockingFailureException.class,
+				() -> coinService.updateCoin(created.getID(), created.toBuilder().price(7).build(),
+						created.getVersion()));
+		assertEquals(5, coinRepository.findById(created.getID()).orElseThrow().getPrice(), 0.0);
+	}
+
+	@Test
+	void unconditionalUpdateDoesNotOverwriteAConcurrentPatch() {
+		Coin created = coinService.createCoin(newCoin());
+		interleavedPatch.arm(created.getID(), new CoinPatch(null, null, null, null, null, null, null, null, null,
+				null, "patched", null, null));
+
+		assertThrows(OptimisticLockingFailureException.class,
+				() -> coinService.updateCoin(created.getID(), created.toBuilder().price(9).build()));
+
+		Coin result = coinRepository.findById(created.getID()).orElseThrow();
+		assertEquals("patched", result.getNote(), "patch kept");
+		assertEquals(0, result.getPrice(), 0.0, "stale payload not applied");
+		assertEquals(1L, result.getVersion().longValue(), "only the patch was written");
+		assertNull(interleavedPatch.pending.get(), "patch ran between read and save");
+	}
+
+	private static void runConcurrently(Callable<Void> task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return task.call();
+				}));
+			}
+			start.countDown();
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static Coin newCoin() {
+		return Coin.builder()
+				.name("Marengo")
+				.year(1801)
+				.material("Oro")
+				.weight(6.45)
+				.diameter(21)
+				.height(1.5)
+				.price(0)
+				.conservationObverse(OptionConservation.SPL)
+				.conservationReverse(OptionConservation.BB)
+				.degree(NumismaticRarity.R2)
+				.build();
+	}
+
+	/**
+	 * Runs a patch through the service right before the next save of a coin
+	 * reaches MongoDB, after the update has read the coin: the interleaving of
+	 * a concurrent {@code PATCH} with an unconditional {@code PUT}.
+	 */
+	@TestConfiguration(proxyBeanMethods = false)
+	static class InterleavedPatch implements BeforeSaveCallback<Coin> {
+
+		private final ObjectProvider<CoinService> coinService;
+		private final AtomicReference<Pending> pending = new AtomicReference<>();
+
+		InterleavedPatch(ObjectProvider<CoinService> coinService) {
+			this.coinService = coinService;
+		}
+
+		void arm(String id, CoinPatch patch) {
+			pending.set(new Pending(id, patch));
+		}
+
+		@Override
+		public Coin onBeforeSave(Coin coin, Document document, String collection) {
+			Pending next = pending.get();
+			if (next != null && next.id().equals(coin.getID()) && pending.compareAndSet(next, null)) {
+				coinService.getObject().patchCoin(next.id(), next.patch());
+			}
+			return coin;
+		}
+
+		private record Pending(String id, CoinPatch patch) {
+		}
+	}
+}
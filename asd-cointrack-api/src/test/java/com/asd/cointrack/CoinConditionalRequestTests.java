@@ -0,0 +1,152 @@
+package com.asd.cointrack;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+import com.asd.cointrack.service.CoinService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Sends conditional requests through the HTTP layer and checks that a current
+ * validator gets {@code 304} on reads, that a stale one gets {@code 412} on
+ * writes, and that every write returns the validators of the new version.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+class CoinConditionalRequestTests {
+
+	private static final String COIN = "/api/coins/{id}";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CoinService coinService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void currentETagGetsNotModified() throws Exception {
+		String id = coinService.createCoin(newCoin()).getID();
+		String etag = eTag(id);
+
+		mockMvc.perform(get(COIN, id).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+	}
+
+	@Test
+	void staleETagGetsTheNewVersion() throws Exception {
+		String id = coinService.createCoin(newCoin()).getID();
+		String etag = eTag(id);
+
+		mockMvc.perform(patch(COIN, id).contentType(MediaType.APPLICATION_JSON).content("{\"price\": 150.0}"))
+				.andExpect(status().isOk());
+
+		String current = mockMvc.perform(get(COIN, id).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, current);
+	}
+
+	@Test
+	void lastModifiedGetsNotModified() throws Exception {
+		String id = coinService.createCoin(newCoin()).getID();
+		String lastModified = mockMvc.perform(get(COIN, id))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+		mockMvc.perform(get(COIN, id).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void currentListingETagGetsNotModified() throws Exception {
+		coinService.createCoin(newCoin());
+		String etag = mockMvc.perform(get("/api/coins"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/coins").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		coinService.createCoin(newCoin());
+		mockMvc.perform(get("/api/coins").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void putWithStaleETagFails() throws Exception {
+		Coin coin = coinService.createCoin(newCoin());
+		String etag = eTag(coin.getID());
+		String body = objectMapper.writeValueAsString(coin.toBuilder().price(200).build());
+
+		String current = mockMvc.perform(put(COIN, coin.getID()).header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, current);
+
+		mockMvc.perform(put(COIN, coin.getID()).header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isPreconditionFailed());
+		mockMvc.perform(get(COIN, coin.getID()))
+				.andExpect(header().string(HttpHeaders.ETAG, current));
+	}
+
+	@Test
+	void patchWithStaleETagFails() throws Exception {
+		String id = coinService.createCoin(newCoin()).getID();
+		String etag = eTag(id);
+
+		String current = mockMvc.perform(patch(COIN, id).header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"price\": 150.0}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, current);
+
+		mockMvc.perform(patch(COIN, id).header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"price\": 175.0}"))
+				.andExpect(status().isPreconditionFailed());
+		mockMvc.perform(get(COIN, id))
+				.andExpect(header().string(HttpHeaders.ETAG, current));
+	}
+
+	private String eTag(String id) throws Exception {
+		return mockMvc.perform(get(COIN, id))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+
+	private static Coin newCoin() {
+		return Coin.builder()
+				.name("Marengo")
+				.year(1801)
+				.material("Oro")
+				.weight(6.45)
+				.diameter(21)
+				.height(1.5)
+				.price(100)
+				.conservationObverse(OptionConservation.SPL)
+				.conservationReverse(OptionConservation.BB)
+				.degree(NumismaticRarity.R2)
+				.build();
+	}
+}
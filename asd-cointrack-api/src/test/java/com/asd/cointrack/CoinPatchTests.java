@@ -0,0 +1,133 @@
+package com.asd.cointrack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.asd.cointrack.dto.CoinPatch;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+import com.asd.cointrack.repository.CoinRepository;
+import com.asd.cointrack.service.CoinService;
+
+/**
+ * Checks that a patch changes only the supplied fields, that {@code null}
+ * leaves a field unchanged, that every patch bumps the version and that the
+ * returned coin is the stored one.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class CoinPatchTests {
+
+	@Autowired
+	private CoinService coinService;
+
+	@Autowired
+	private CoinRepository coinRepository;
+
+	@Test
+	void onlySuppliedFieldsAreChanged() {
+		// Read back, so that the audit times have the stored precision
+		Coin coin = coinRepository.findById(coinService.createCoin(newCoin()).getID()).orElseThrow();
+
+		Coin patched = coinService.patchCoin(coin.getID(), new CoinPatch("Lira Umberto", null, "Argento", null, null,
+				null, 250.0, null, null, null, null, null, null));
+
+		Coin expected = coin.toBuilder()
+				.name("Lira Umberto")
+				.material("Argento")
+				.price(250.0)
+				.searchName("lira umberto")
+				.searchMaterial("argento")
+				.version(coin.getVersion() + 1)
+				.updatedAt(patched.getUpdatedAt())
+				.updatedBy(patched.getUpdatedBy())
+				.build();
+		assertEquals(expected, patched);
+		assertEquals(patched, coinRepository.findById(coin.getID()).orElseThrow());
+	}
+
+	@Test
+	void nullLeavesTheFieldUnchanged() {
+		Coin coin = coinService.createCoin(newCoin());
+
+		Coin patched = coinService.patchCoin(coin.getID(), new CoinPatch(null, null, null, null, null, null, null,
+				null, null, null, null, null, "rovescio.jpg"));
+
+		assertEquals("nota", patched.getNote());
+		assertEquals("dritto.jpg", patched.getPhotoPathObverse());
+		assertEquals("rovescio.jpg", patched.getPhotoPathReverse());
+	}
+
+	@Test
+	void everyPatchBumpsTheVersion() {
+		Coin coin = coinService.createCoin(newCoin());
+		CoinPatch price = new CoinPatch(null, null, null, null, null, null, 120.0, null, null, null, null, null,
+				null);
+
+		Coin first = coinService.patchCoin(coin.getID(), price);
+		Coin second = coinService.patchCoin(coin.getID(), price);
+
+		assertEquals(coin.getVersion() + 1, first.getVersion());
+		assertEquals(coin.getVersion() + 2, second.getVersion());
+		assertFalse(second.getUpdatedAt().isBefore(first.getUpdatedAt()));
+		assertEquals(second.getVersion(), coinRepository.findById(coin.getID()).orElseThrow().getVersion());
+	}
+
+	@Test
+	void expectedVersionMustBeCurrent() {
+		Coin coin = coinService.createCoin(newCoin());
+		CoinPatch note = new CoinPatch(null, null, null, null, null, null, null, null, null, null, "nuova", null,
+				null);
+
+		assertEquals(coin.getVersion() + 1, coinService.patchCoin(coin.getID(), note, coin.getVersion())
+				.getVersion());
+		assertThrows(OptimisticLockingFailureException.class,
+				() -> coinService.patchCoin(coin.getID(), note, coin.getVersion()));
+		assertNull(coinService.patchCoin("000000000000000000000000", note, 0));
+	}
+
+	@Test
+	void emptyPatchIsRejected() {
+		Coin coin = coinService.createCoin(newCoin());
+
+		assertThrows(IllegalArgumentException.class, () -> coinService.patchCoin(coin.getID(),
+				new CoinPatch(null, null, null, null, null, null, null, null, null, null, null, null, null)));
+		assertEquals(coin.getVersion(), coinRepository.findById(coin.getID()).orElseThrow().getVersion());
+	}
+
+	@Test
+	void missingCoinIsNotCreated() {
+		String id = "000000000000000000000001";
+
+		assertNull(coinService.patchCoin(id, new CoinPatch("Marengo", null, null, null, null, null, null, null,
+				null, null, null, null, null)));
+		assertTrue(coinRepository.findById(id).isEmpty());
+	}
+
+	private static Coin newCoin() {
+		return Coin.builder()
+				.name("Marengo")
+				.year(1801)
+				.material("Oro")
+				.weight(6.45)
+				.diameter(21)
+				.height(1.5)
+				.price(100)
+				.conservationObverse(OptionConservation.SPL)
+				.conservationReverse(OptionConservation.BB)
+				.degree(NumismaticRarity.R2)
+				.note("nota")
+				.photoPathObverse("dritto.jpg")
+				.build();
+	}
+}
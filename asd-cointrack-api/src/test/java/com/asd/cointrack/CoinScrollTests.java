@@ -0,0 +1,107 @@
+package com.asd.cointrack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.CursorPage;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+import com.asd.cointrack.service.CoinService;
+
+/**
+ * Scrolls through coins whose sort values tie, with slices smaller than the
+ * ties, and checks that the id tie-breaker returns every coin exactly once
+ * and in a stable order.
+ */
+@Import(TestcontainersConfiguration.class)
+@SpringBootTest
+class CoinScrollTests {
+
+	@Autowired
+	private CoinService coinService;
+
+	@Test
+	void equalNamesAreOrderedById() {
+		String name = uniqueName();
+		List<Coin> coins = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			coins.add(coinService.createCoin(newCoin(name, 100)));
+		}
+
+		List<String> scrolled = scroll(after -> coinService.scrollSearchCoins(name, null, after,
+				PageRequest.of(0, 2, Sort.by("name"))));
+
+		assertEquals(ids(coins, Comparator.comparing(coin -> new ObjectId(coin.getID()))), scrolled);
+	}
+
+	@Test
+	void equalPricesAreOrderedById() {
+		String name = uniqueName();
+		List<Coin> coins = new ArrayList<>();
+		for (double price : new double[] { 200, 100, 200, 100, 100, 300 }) {
+			coins.add(coinService.createCoin(newCoin(name, price)));
+		}
+		CoinSearchFilter filter = new CoinSearchFilter(name, null, null, null, null, null, null, null, null, null);
+		Pageable byPrice = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "price"));
+
+		List<String> scrolled = scroll(after -> coinService.scrollAdvancedSearch(filter, after, byPrice));
+
+		assertEquals(ids(coins, Comparator.<Coin>comparingDouble(Coin::getPrice).reversed()
+				.thenComparing(coin -> new ObjectId(coin.getID()))), scrolled);
+	}
+
+	private static List<String> scroll(Function<String, CursorPage<Coin>> slice) {
+		List<String> ids = new ArrayList<>();
+		String after = null;
+		CursorPage<Coin> page;
+		do {
+			page = slice.apply(after);
+			page.content().forEach(coin -> ids.add(coin.getID()));
+			after = page.next();
+		} while (page.hasNext());
+		assertFalse(page.hasNext());
+		assertNull(page.next());
+		return ids;
+	}
+
+	private static List<String> ids(List<Coin> coins, Comparator<Coin> order) {
+		return coins.stream().sorted(order).map(Coin::getID).toList();
+	}
+
+	private static String uniqueName() {
+		return "scroll " + UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	private static Coin newCoin(String name, double price) {
+		return Coin.builder()
+				.name(name)
+				.year(1861)
+				.material("Argento")
+				.weight(5)
+				.diameter(23)
+				.height(1.5)
+				.price(price)
+				.conservationObverse(OptionConservation.BB)
+				.conservationReverse(OptionConservation.BB)
+				.degree(NumismaticRarity.C)
+				.build();
+	}
+}
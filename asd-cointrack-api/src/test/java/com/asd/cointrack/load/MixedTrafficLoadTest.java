@@ -0,0 +1,467 @@
+package com.asd.cointrack.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.web.servlet.HandlerMapping;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import com.asd.cointrack.AsdCointrackApiApplication;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.CoinCollection;
+import com.asd.cointrack.service.CoinStatsView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * End-to-end load test: seeds a catalogue of synthetic coins spread across
+ * collections, then drives a closed-loop mix of reads, searches, statistics
+ * and writes against the REST API and reports, per endpoint, throughput,
+ * p50/p99/p99.9 latency, errors and server-side allocation.
+ * <p>
+ * Excluded from the regular build; run with {@code ./mvnw -Pload-test test}
+ * and tune it with system properties:
+ * <ul>
+ * <li>{@code load.mongo.uri}: database to use instead of a Testcontainers
+ * instance; an already seeded database is reused as is</li>
+ * <li>{@code load.coins} (default 1000000) and {@code load.collections}
+ * (default 500): dataset size</li>
+ * <li>{@code load.concurrency} (default 64): concurrent clients</li>
+ * <li>{@code load.warmup} (default PT30S) and {@code load.duration} (default
+ * PT2M): ISO-8601 durations of the two phases</li>
+ * <li>{@code load.max-error-rate} (default 0.001): fraction of failed
+ * requests above which the test fails</li>
+ * </ul>
+ * Allocation is reported twice. Per endpoint, it is measured on the request
+ * thread only, so work handed to other threads (async counts, streaming
+ * exports, the MongoDB driver, the change feed) is not included; it is not
+ * available on virtual threads. The total is sampled across all the live
+ * threads of the JVM except the load clients, so it includes that work but
+ * not the allocation of threads that terminated during the run.
+ */
+@Tag("load")
+class MixedTrafficLoadTest {
+
+	private static final String MONGO_URI = System.getProperty("load.mongo.uri", "");
+	private static final int COINS = Integer.getInteger("load.coins", 1_000_000);
+	private static final int COLLECTIONS = Integer.getInteger("load.collections", 500);
+	private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+	private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT30S"));
+	private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT2M"));
+	private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.001"));
+
+	private static final int SEED_BATCH = 10_000;
+	private static final int SAMPLED_IDS = 20_000;
+	private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	private static MongoDBContainer mongo;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(10))
+			.build();
+	private final AllocationProbe allocations = new AllocationProbe();
+
+	@BeforeAll
+	static void startMongo() {
+		if (MONGO_URI.isBlank()) {
+			mongo = new MongoDBContainer(DockerImageName.parse("mongo:latest"));
+			mongo.start();
+		}
+	}
+
+	@AfterAll
+	static void stopMongo() {
+		if (mongo != null) {
+			mongo.stop();
+		}
+	}
+
+	@Test
+	void mixedTraffic() throws Exception {
+		FilterRegistrationBean<AllocationProbe> probe = new FilterRegistrationBean<>(allocations);
+		probe.addUrlPatterns("/api/*");
+		SpringApplicationBuilder builder = new SpringApplicationBuilder(AsdCointrackApiApplication.class)
+				.initializers(context -> context.getBeanFactory().registerSingleton("allocationProbe", probe))
+				.properties(
+						"server.port=0",
+						"spring.data.mongodb.uri=" + (MONGO_URI.isBlank() ? mongo.getReplicaSetUrl("loadtest") : MONGO_URI),
+						"spring.docker.compose.enabled=false",
+						"spring.devtools.restart.enabled=false",
+						"cointrack.indexes.check-query-shapes=false");
+		try (ConfigurableApplicationContext context = builder.run()) {
+			String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+			Dataset dataset = seed(mongoTemplate);
+			context.getBean(CoinStatsView.class).rebuild();
+
+			Traffic traffic = new Traffic(baseUrl, dataset, context.getBean(ObjectMapper.class));
+			traffic.run(WARMUP);
+			traffic.reset();
+			allocations.reset();
+			traffic.run(DURATION);
+
+			long requests = traffic.report(DURATION, allocations);
+			allocations.reportJvmWide(DURATION, requests);
+			long errors = traffic.errors();
+			assertTrue(requests > 0, "no request completed");
+			assertTrue(errors <= requests * MAX_ERROR_RATE,
+					String.format(Locale.ROOT, "%d errors out of %d requests", errors, requests));
+		}
+	}
+
+	/**
+	 * Inserts the synthetic dataset unless the database already contains
+	 * coins, and samples the ids the traffic is going to hit.
+	 */
+	private Dataset seed(MongoTemplate mongoTemplate) {
+		if (mongoTemplate.estimatedCount(Coin.class) == 0) {
+			List<String> collectionIds = mongoTemplate
+					.insert(SyntheticCoins.collections(COLLECTIONS), CoinCollection.class).stream()
+					.map(CoinCollection::getId)
+					.toList();
+			SyntheticCoins generator = new SyntheticCoins(SyntheticCoins.SEED, collectionIds);
+			long start = System.nanoTime();
+			for (int inserted = 0; inserted < COINS; inserted += SEED_BATCH) {
+				List<Coin> batch = new ArrayList<>(SEED_BATCH);
+				for (int i = 0; i < Math.min(SEED_BATCH, COINS - inserted); i++) {
+					batch.add(generator.next());
+				}
+				mongoTemplate.insert(batch, Coin.class);
+			}
+			System.out.printf(Locale.ROOT, "Seeded %d coins in %d collections in %d s%n", COINS, COLLECTIONS,
+					TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+		}
+		List<String> coinIds = mongoTemplate.aggregate(
+				Aggregation.newAggregation(Aggregation.sample(SAMPLED_IDS), Aggregation.project("_id")),
+				Coin.class, Document.class).getMappedResults().stream()
+				.map(document -> String.valueOf(document.get("_id")))
+				.toList();
+		List<String> collectionIds = mongoTemplate.findAll(CoinCollection.class).stream()
+				.map(CoinCollection::getId)
+				.toList();
+		return new Dataset(coinIds, collectionIds);
+	}
+
+	private record Dataset(List<String> coinIds, List<String> collectionIds) {
+
+		String coinId(Random random) {
+			return coinIds.get(random.nextInt(coinIds.size()));
+		}
+
+		String collectionId(Random random) {
+			return collectionIds.get(random.nextInt(collectionIds.size()));
+		}
+	}
+
+	/**
+	 * Weighted mix of requests issued by closed-loop clients: each client
+	 * sends its next request as soon as the previous one completes.
+	 */
+	private final class Traffic {
+
+		private static final String[] DEGREES = { "R5,R4,R3", "R2,R", "NC", "C" };
+		private static final String[] MATERIALS = { "Oro", "Argento", "Rame", "Bronzo" };
+		private static final String[] NAMES = { "marengo", "lira", "scudo", "ducato", "tallero", "fiorino" };
+
+		private final List<Operation> operations = new ArrayList<>();
+		private final int totalWeight;
+
+		Traffic(String baseUrl, Dataset dataset, ObjectMapper objectMapper) {
+			add(30, "GET /api/coins/{id}", (random, coins) -> get(baseUrl + "/api/coins/" + dataset.coinId(random)));
+			add(6, "GET /api/coins", (random, coins) -> get(baseUrl + "/api/coins?page=" + random.nextInt(50)
+					+ "&size=20&view=SUMMARY"));
+			add(8, "GET /api/coins/search", (random, coins) -> get(baseUrl + "/api/coins/search?name="
+					+ NAMES[random.nextInt(NAMES.length)] + "&size=20&view=SUMMARY"));
+			add(10, "GET /api/coins/advanced-search", (random, coins) -> {
+				int minYear = 1700 + random.nextInt(300);
+				return get(baseUrl + "/api/coins/advanced-search?degreeIn=" + DEGREES[random.nextInt(DEGREES.length)]
+						+ "&material=" + MATERIALS[random.nextInt(MATERIALS.length)] + "&minYear=" + minYear
+						+ "&maxYear=" + (minYear + 25) + "&count=ESTIMATED&size=20&view=SUMMARY");
+			});
+			add(3, "GET /api/coins/stats/by-year", (random, coins) -> get(baseUrl + "/api/coins/stats/by-year"));
+			add(3, "GET /api/coins/stats/by-degree", (random, coins) -> get(baseUrl + "/api/coins/stats/by-degree"));
+			add(3, "GET /api/coins/stats/by-material", (random, coins) -> get(baseUrl + "/api/coins/stats/by-material"));
+			add(2, "GET /api/coins/stats/overview", (random, coins) -> get(baseUrl + "/api/coins/stats/overview"));
+			add(4, "GET /api/collections", (random, coins) -> get(baseUrl + "/api/collections"));
+			add(8, "GET /api/collections/{id}/coins", (random, coins) -> get(baseUrl + "/api/collections/"
+					+ dataset.collectionId(random) + "/coins?size=20"));
+			add(12, "PATCH /api/coins/{id}", (random, coins) -> HttpRequest
+					.newBuilder(URI.create(baseUrl + "/api/coins/" + dataset.coinId(random)))
+					.header("Content-Type", "application/json")
+					.method("PATCH", HttpRequest.BodyPublishers.ofString(String.format(Locale.ROOT,
+							"{\"price\":%.2f}", random.nextDouble() * 5_000)))
+					.build());
+			add(6, "PUT /api/coins/{id}", (random, coins) -> HttpRequest
+					.newBuilder(URI.create(baseUrl + "/api/coins/" + dataset.coinId(random)))
+					.header("Content-Type", "application/json")
+					.PUT(HttpRequest.BodyPublishers.ofString(json(objectMapper, coins.next())))
+					.build());
+			add(5, "POST /api/coins", (random, coins) -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/coins"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(json(objectMapper, coins.next())))
+					.build());
+			totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+		}
+
+		private void add(int weight, String label, BiFunction<Random, SyntheticCoins, HttpRequest> request) {
+			operations.add(new Operation(weight, label, request, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3),
+					new LongAdder()));
+		}
+
+		void run(Duration duration) throws InterruptedException {
+			long deadline = System.nanoTime() + duration.toNanos();
+			List<Thread> clients = new ArrayList<>(CONCURRENCY);
+			for (int i = 0; i < CONCURRENCY; i++) {
+				long seed = SyntheticCoins.SEED + i;
+				Thread clientThread = new Thread(() -> {
+					Random random = new Random(seed);
+					SyntheticCoins coins = new SyntheticCoins(seed, List.of());
+					while (System.nanoTime() < deadline) {
+						send(pick(random), random, coins);
+					}
+				}, "load-client-" + i);
+				clientThread.start();
+				clients.add(clientThread);
+			}
+			for (Thread clientThread : clients) {
+				clientThread.join();
+			}
+		}
+
+		private Operation pick(Random random) {
+			int ticket = random.nextInt(totalWeight);
+			for (Operation operation : operations) {
+				ticket -= operation.weight();
+				if (ticket < 0) {
+					return operation;
+				}
+			}
+			throw new IllegalStateException("weights out of range");
+		}
+
+		private void send(Operation operation, Random random, SyntheticCoins coins) {
+			HttpRequest request = operation.request().apply(random, coins);
+			long sent = System.nanoTime();
+			boolean failed;
+			try {
+				HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+				failed = response.statusCode() >= 300;
+			} catch (IOException e) {
+				failed = true;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent);
+			operation.latencies().recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+			if (failed) {
+				operation.errors().increment();
+			}
+		}
+
+		void reset() {
+			for (Operation operation : operations) {
+				operation.latencies().reset();
+				operation.errors().reset();
+			}
+		}
+
+		long errors() {
+			return operations.stream().mapToLong(operation -> operation.errors().sum()).sum();
+		}
+
+		/**
+		 * Prints one line per endpoint and returns the number of requests.
+		 */
+		long report(Duration duration, AllocationProbe probe) {
+			double seconds = duration.toNanos() / 1e9;
+			long total = 0;
+			// KB/req and MB/s: request thread only, see reportJvmWide for the total
+			System.out.printf(Locale.ROOT, "%n%-34s %9s %9s %9s %9s %9s %7s %9s %9s%n", "endpoint", "requests",
+					"req/s", "p50 ms", "p99 ms", "p999 ms", "errors", "KB/req", "MB/s");
+			for (Operation operation : operations) {
+				Histogram latencies = operation.latencies().copy();
+				long count = latencies.getTotalCount();
+				AllocationProbe.Allocation allocated = probe.get(operation.label());
+				System.out.printf(Locale.ROOT, "%-34s %9d %9.1f %9.2f %9.2f %9.2f %7d %9.1f %9.1f%n",
+						operation.label(), count, count / seconds,
+						latencies.getValueAtPercentile(50) / 1e3,
+						latencies.getValueAtPercentile(99) / 1e3,
+						latencies.getValueAtPercentile(99.9) / 1e3,
+						operation.errors().sum(),
+						allocated.bytesPerRequest() / 1024,
+						allocated.bytes() / seconds / (1024 * 1024));
+				total += count;
+			}
+			System.out.printf(Locale.ROOT, "%-34s %9d %9.1f%n", "total", total, total / seconds);
+			return total;
+		}
+	}
+
+	private static String json(ObjectMapper objectMapper, Coin coin) {
+		coin.setID(null);
+		coin.setCollectionId(null);
+		try {
+			return objectMapper.writeValueAsString(coin);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static HttpRequest get(String uri) {
+		return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+	}
+
+	private record Operation(int weight, String label, BiFunction<Random, SyntheticCoins, HttpRequest> request,
+			ConcurrentHistogram latencies, LongAdder errors) {
+	}
+
+	/**
+	 * Servlet filter measuring the bytes allocated by the request thread while
+	 * serving each request, keyed like the operations by method and matched
+	 * handler pattern, and sampling the allocation of every server thread
+	 * between {@link #reset()} and {@link #reportJvmWide(Duration, long)}.
+	 * <p>
+	 * Requests served by virtual threads are not measured: the JVM does not
+	 * report their allocation.
+	 */
+	static final class AllocationProbe implements Filter {
+
+		/** Threads of the load generator, sharing the JVM with the server. */
+		private static final List<String> CLIENT_THREADS = List.of("load-client-", "HttpClient-");
+
+		private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		private final Map<String, Allocation> allocations = new ConcurrentHashMap<>();
+		private final LongAdder unmeasured = new LongAdder();
+		private Map<Long, Long> startingAllocation = Map.of();
+
+		@Override
+		public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+				throws IOException, ServletException {
+			long before = threads.getCurrentThreadAllocatedBytes();
+			try {
+				chain.doFilter(request, response);
+			} finally {
+				long after = threads.getCurrentThreadAllocatedBytes();
+				if (before < 0 || after < 0) {
+					unmeasured.increment();
+				} else {
+					record((HttpServletRequest) request, after - before);
+				}
+			}
+		}
+
+		private void record(HttpServletRequest request, long allocated) {
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			Allocation allocation = allocations.computeIfAbsent(request.getMethod() + " " + pattern,
+					key -> new Allocation(new LongAdder(), new LongAdder()));
+			allocation.requests().increment();
+			allocation.allocated().add(allocated);
+		}
+
+		Allocation get(String key) {
+			return allocations.getOrDefault(key, new Allocation(new LongAdder(), new LongAdder()));
+		}
+
+		void reset() {
+			allocations.clear();
+			unmeasured.reset();
+			startingAllocation = serverThreadAllocation();
+		}
+
+		/**
+		 * Prints the allocation of the server threads, see
+		 * {@link #serverThreadBytes()}.
+		 */
+		void reportJvmWide(Duration duration, long requests) {
+			long allocated = serverThreadBytes();
+			System.out.printf(Locale.ROOT, "%-34s %9.1f KB/req %9.1f MB/s%n", "all server threads",
+					requests == 0 ? 0 : allocated / 1024.0 / requests,
+					allocated / (duration.toNanos() / 1e9) / (1024 * 1024));
+			if (unmeasured.sum() > 0) {
+				System.out.printf(Locale.ROOT, "%d requests served by threads without allocation data "
+						+ "(virtual threads) are missing from the per-endpoint figures%n", unmeasured.sum());
+			}
+		}
+
+		/**
+		 * Returns the bytes allocated since {@link #reset()} by the live
+		 * threads of the JVM, except those of the load generator.
+		 */
+		long serverThreadBytes() {
+			long allocated = 0;
+			for (Map.Entry<Long, Long> thread : serverThreadAllocation().entrySet()) {
+				allocated += thread.getValue() - startingAllocation.getOrDefault(thread.getKey(), 0L);
+			}
+			return allocated;
+		}
+
+		private Map<Long, Long> serverThreadAllocation() {
+			long[] ids = threads.getAllThreadIds();
+			ThreadInfo[] infos = threads.getThreadInfo(ids);
+			long[] allocated = threads.getThreadAllocatedBytes(ids);
+			Map<Long, Long> result = new HashMap<>();
+			for (int i = 0; i < ids.length; i++) {
+				if (infos[i] != null && allocated[i] >= 0 && !isClientThread(infos[i].getThreadName())) {
+					result.put(ids[i], allocated[i]);
+				}
+			}
+			return result;
+		}
+
+		private static boolean isClientThread(String name) {
+			return CLIENT_THREADS.stream().anyMatch(name::startsWith);
+		}
+
+		record Allocation(LongAdder requests, LongAdder allocated) {
+
+			double bytes() {
+				return allocated.sum();
+			}
+
+			double bytesPerRequest() {
+				long count = requests.sum();
+				return count == 0 ? 0 : bytes() / count;
+			}
+		}
+	}
+}
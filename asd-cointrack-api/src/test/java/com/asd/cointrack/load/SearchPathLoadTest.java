@@ -0,0 +1,189 @@
+package com.asd.cointrack.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import com.asd.cointrack.AsdCointrackApiApplication;
+import com.asd.cointrack.model.Coin;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+
+/**
+ * Compares the text filters of the advanced search before and after the
+ * normalized search fields, on a large synthetic catalogue: the unanchored
+ * case-insensitive regex on {@code name} and {@code material} used before,
+ * and the case-sensitive {@code CONTAINS} and {@code PREFIX} patterns on
+ * {@code searchName} and {@code searchMaterial} used now.
+ * <p>
+ * Each filter is run as the search runs it, a first page of 20 coins plus
+ * the total count, and reported with its p50/p99 latency and the
+ * {@code executionStats} of the full match: index keys and documents
+ * examined for the coins returned. The test fails if an anchored prefix is
+ * not answered from a bounded index range.
+ * <p>
+ * Excluded from the regular build; run with
+ * {@code ./mvnw -Pload-test test -Dtest=SearchPathLoadTest} and tune it with
+ * system properties:
+ * <ul>
+ * <li>{@code load.mongo.uri}: database to use instead of a Testcontainers
+ * instance; an already seeded database is reused as is</li>
+ * <li>{@code load.coins} (default 1000000): dataset size</li>
+ * <li>{@code load.search-requests} (default 50): measured searches per
+ * filter</li>
+ * </ul>
+ */
+@Tag("load")
+class SearchPathLoadTest {
+
+	private static final String MONGO_URI = System.getProperty("load.mongo.uri", "");
+	private static final int COINS = Integer.getInteger("load.coins", 1_000_000);
+	private static final int REQUESTS = Integer.getInteger("load.search-requests", 50);
+
+	private static final int WARMUP_REQUESTS = 5;
+	private static final int PAGE_SIZE = 20;
+	private static final int SEED_BATCH = 10_000;
+	private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	private static MongoDBContainer mongo;
+
+	@BeforeAll
+	static void startMongo() {
+		if (MONGO_URI.isBlank()) {
+			mongo = new MongoDBContainer(DockerImageName.parse("mongo:latest"));
+			mongo.start();
+		}
+	}
+
+	@AfterAll
+	static void stopMongo() {
+		if (mongo != null) {
+			mongo.stop();
+		}
+	}
+
+	@Test
+	void compareSearchPaths() {
+		SpringApplicationBuilder builder = new SpringApplicationBuilder(AsdCointrackApiApplication.class)
+				.properties(
+						"server.port=0",
+						"spring.data.mongodb.uri="
+								+ (MONGO_URI.isBlank() ? mongo.getReplicaSetUrl("searchpaths") : MONGO_URI),
+						"spring.docker.compose.enabled=false",
+						"spring.devtools.restart.enabled=false",
+						"cointrack.indexes.check-query-shapes=false");
+		try (ConfigurableApplicationContext context = builder.run()) {
+			MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+			seed(mongoTemplate);
+			MongoCollection<Document> coins = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Coin.class));
+
+			List<SearchPath> paths = List.of(
+					new SearchPath("name, regex /i (before)", caseInsensitive("name", "lira")),
+					new SearchPath("name, CONTAINS", regex("searchName", "lira")),
+					new SearchPath("name, PREFIX", regex("searchName", "^lira")),
+					new SearchPath("material, regex /i (before)", caseInsensitive("material", "argento")),
+					new SearchPath("material, CONTAINS", regex("searchMaterial", "argento")),
+					new SearchPath("material, PREFIX", regex("searchMaterial", "^argento")));
+
+			System.out.printf(Locale.ROOT, "%n%d coins%n%-30s %9s %9s %9s %12s %12s%n", coins.estimatedDocumentCount(),
+					"filter", "p50 ms", "p99 ms", "matched", "keys exam.", "docs exam.");
+			for (SearchPath path : paths) {
+				Histogram latencies = measure(coins, path.filter());
+				Document stats = executionStats(mongoTemplate, path.filter());
+				System.out.printf(Locale.ROOT, "%-30s %9.2f %9.2f %9s %12s %12s%n", path.label(),
+						latencies.getValueAtPercentile(50) / 1e3, latencies.getValueAtPercentile(99) / 1e3,
+						stat(stats, "nReturned"), stat(stats, "totalKeysExamined"), stat(stats, "totalDocsExamined"));
+				if (stats != null && path.label().endsWith("PREFIX")) {
+					assertEquals(stats.get("nReturned", Number.class).longValue(),
+							stats.get("totalDocsExamined", Number.class).longValue(),
+							path.label() + " fetches only the matching coins");
+				}
+			}
+		}
+	}
+
+	private static void seed(MongoTemplate mongoTemplate) {
+		if (mongoTemplate.estimatedCount(Coin.class) > 0) {
+			return;
+		}
+		SyntheticCoins generator = new SyntheticCoins(SyntheticCoins.SEED, List.of());
+		long start = System.nanoTime();
+		for (int inserted = 0; inserted < COINS; inserted += SEED_BATCH) {
+			List<Coin> batch = new ArrayList<>(SEED_BATCH);
+			for (int i = 0; i < Math.min(SEED_BATCH, COINS - inserted); i++) {
+				batch.add(generator.next());
+			}
+			// Inserted through the template, so the search fields are filled as on every write
+			mongoTemplate.insert(batch, Coin.class);
+		}
+		System.out.printf(Locale.ROOT, "Seeded %d coins in %d s%n", COINS,
+				TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+	}
+
+	/**
+	 * Times the first page and the total count of a filter, as one search.
+	 */
+	private static Histogram measure(MongoCollection<Document> coins, Document filter) {
+		Histogram latencies = new Histogram(MAX_LATENCY_MICROS, 3);
+		for (int i = 0; i < WARMUP_REQUESTS + REQUESTS; i++) {
+			long start = System.nanoTime();
+			coins.find(filter).limit(PAGE_SIZE).into(new ArrayList<>());
+			coins.countDocuments(filter);
+			if (i >= WARMUP_REQUESTS) {
+				latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start),
+						MAX_LATENCY_MICROS));
+			}
+		}
+		return latencies;
+	}
+
+	/**
+	 * Returns the execution statistics of the full match of a filter, or
+	 * {@code null} if the server cannot explain it.
+	 */
+	private static Document executionStats(MongoTemplate mongoTemplate, Document filter) {
+		Document find = new Document("find", mongoTemplate.getCollectionName(Coin.class)).append("filter", filter);
+		try {
+			return mongoTemplate.getDb()
+					.runCommand(new Document("explain", find).append("verbosity", "executionStats"))
+					.get("executionStats", Document.class);
+		} catch (MongoException e) {
+			return null;
+		}
+	}
+
+	private static String stat(Document stats, String name) {
+		Object value = stats == null ? null : stats.get(name);
+		return value == null ? "-" : value.toString();
+	}
+
+	/**
+	 * The filter used before: unanchored and case-insensitive, as
+	 * {@code Pattern.quote} with {@code CASE_INSENSITIVE}.
+	 */
+	private static Document caseInsensitive(String field, String fragment) {
+		return new Document(field, new Document("$regex", fragment).append("$options", "i"));
+	}
+
+	private static Document regex(String field, String pattern) {
+		return new Document(field, new Document("$regex", pattern));
+	}
+
+	private record SearchPath(String label, Document filter) {
+	}
+}
@@ -0,0 +1,239 @@
+package com.asd.cointrack.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import com.asd.cointrack.AsdCointrackApiApplication;
+import com.asd.cointrack.model.Coin;
+
+/**
+ * Measures how the aggregation-based statistics endpoints scale with the size
+ * of the catalogue: the collection is grown step by step and, at each size,
+ * the summary, per-year, per-degree and per-material statistics are requested
+ * sequentially, reporting latency and server-side allocation per request.
+ * <p>
+ * The statistics view and the columnar snapshot are disabled, so every
+ * request runs its {@code $group} pipeline. For comparison, each step also
+ * loads every coin as the statistics did before the pipelines
+ * ({@code findAll} and a summary computed on the heap), up to
+ * {@code load.stats-baseline-max} coins. The test fails if the allocation of a
+ * statistics request grows with the catalogue. Latency is only reported: the
+ * pipelines still scan the collection inside MongoDB, so it grows with the
+ * number of coins, while the heap of the application stays flat.
+ * <p>
+ * Excluded from the regular build; run with
+ * {@code ./mvnw -Pload-test test -Dtest=StatsScalingLoadTest} and tune it
+ * with system properties:
+ * <ul>
+ * <li>{@code load.mongo.uri}: empty database to use instead of a Testcontainers
+ * instance; the coins are added at every step</li>
+ * <li>{@code load.stats-sizes} (default 100000,250000,500000,1000000):
+ * catalogue sizes measured</li>
+ * <li>{@code load.stats-requests} (default 50): measured requests per endpoint
+ * and size</li>
+ * <li>{@code load.stats-baseline-max} (default 250000): largest catalogue
+ * loaded by the {@code findAll} comparison</li>
+ * </ul>
+ */
+@Tag("load")
+class StatsScalingLoadTest {
+
+	private static final String MONGO_URI = System.getProperty("load.mongo.uri", "");
+	private static final int[] SIZES = Arrays.stream(
+			System.getProperty("load.stats-sizes", "100000,250000,500000,1000000").split(","))
+			.map(String::trim)
+			.mapToInt(Integer::parseInt)
+			.sorted()
+			.toArray();
+	private static final int REQUESTS = Integer.getInteger("load.stats-requests", 50);
+	private static final int BASELINE_MAX = Integer.getInteger("load.stats-baseline-max", 250_000);
+
+	private static final List<String> ENDPOINTS = List.of("/api/coins/stats/summary", "/api/coins/stats/by-year",
+			"/api/coins/stats/by-degree", "/api/coins/stats/by-material");
+	private static final int WARMUP_REQUESTS = 5;
+	private static final int BASELINE_RUNS = 3;
+	private static final int SEED_BATCH = 10_000;
+	// Allowed growth of the allocation per request between the smallest and the largest catalogue
+	private static final double MAX_ALLOCATION_GROWTH = 2.0;
+	private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	private static MongoDBContainer mongo;
+
+	private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	@BeforeAll
+	static void startMongo() {
+		if (MONGO_URI.isBlank()) {
+			mongo = new MongoDBContainer(DockerImageName.parse("mongo:latest"));
+			mongo.start();
+		}
+	}
+
+	@AfterAll
+	static void stopMongo() {
+		if (mongo != null) {
+			mongo.stop();
+		}
+	}
+
+	@Test
+	void statisticsAllocationDoesNotGrowWithTheCatalogue() throws Exception {
+		MixedTrafficLoadTest.AllocationProbe allocations = new MixedTrafficLoadTest.AllocationProbe();
+		FilterRegistrationBean<MixedTrafficLoadTest.AllocationProbe> probe = new FilterRegistrationBean<>(
+				allocations);
+		probe.addUrlPatterns("/api/*");
+		SpringApplicationBuilder builder = new SpringApplicationBuilder(AsdCointrackApiApplication.class)
+				.initializers(context -> context.getBeanFactory().registerSingleton("allocationProbe", probe))
+				.properties(
+						"server.port=0",
+						"spring.data.mongodb.uri="
+								+ (MONGO_URI.isBlank() ? mongo.getReplicaSetUrl("statsscaling") : MONGO_URI),
+						"spring.docker.compose.enabled=false",
+						"spring.devtools.restart.enabled=false",
+						"cointrack.indexes.check-query-shapes=false",
+						"cointrack.stats.view.enabled=false",
+						"cointrack.stats.columns.enabled=false");
+		try (ConfigurableApplicationContext context = builder.run()) {
+			String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+			SyntheticCoins generator = new SyntheticCoins(SyntheticCoins.SEED, List.of());
+
+			Map<Integer, Map<String, Step>> results = new LinkedHashMap<>();
+			for (int size : SIZES) {
+				grow(mongoTemplate, generator, size);
+				Map<String, Step> steps = new LinkedHashMap<>();
+				for (String endpoint : ENDPOINTS) {
+					steps.put(endpoint, measure(baseUrl, endpoint, allocations));
+				}
+				results.put(size, steps);
+				report(size, steps, size <= BASELINE_MAX ? baseline(mongoTemplate) : null);
+			}
+
+			Map<String, Step> smallest = results.get(SIZES[0]);
+			Map<String, Step> largest = results.get(SIZES[SIZES.length - 1]);
+			for (String endpoint : ENDPOINTS) {
+				double before = smallest.get(endpoint).bytesPerRequest();
+				double after = largest.get(endpoint).bytesPerRequest();
+				assertTrue(after <= before * MAX_ALLOCATION_GROWTH, String.format(Locale.ROOT,
+						"%s allocates %.1f KB per request with %d coins, %.1f KB with %d", endpoint,
+						after / 1024, SIZES[SIZES.length - 1], before / 1024, SIZES[0]));
+			}
+		}
+	}
+
+	/**
+	 * Inserts synthetic coins until the catalogue holds {@code size} coins.
+	 */
+	private static void grow(MongoTemplate mongoTemplate, SyntheticCoins generator, int size) {
+		long existing = mongoTemplate.estimatedCount(Coin.class);
+		for (long inserted = existing; inserted < size; inserted += SEED_BATCH) {
+			List<Coin> batch = new ArrayList<>(SEED_BATCH);
+			for (int i = 0; i < Math.min(SEED_BATCH, size - inserted); i++) {
+				batch.add(generator.next());
+			}
+			mongoTemplate.insert(batch, Coin.class);
+		}
+		assertEquals(size, mongoTemplate.count(new Query(), Coin.class),
+				"the database must be empty or hold fewer coins than the first size");
+	}
+
+	private Step measure(String baseUrl, String endpoint, MixedTrafficLoadTest.AllocationProbe allocations)
+			throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint)).GET().build();
+		for (int i = 0; i < WARMUP_REQUESTS; i++) {
+			send(request);
+		}
+		allocations.reset();
+		Histogram latencies = new Histogram(MAX_LATENCY_MICROS, 3);
+		for (int i = 0; i < REQUESTS; i++) {
+			long sent = System.nanoTime();
+			send(request);
+			latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent),
+					MAX_LATENCY_MICROS));
+		}
+		return new Step(latencies, allocations.get("GET " + endpoint).bytesPerRequest(),
+				(double) allocations.serverThreadBytes() / REQUESTS);
+	}
+
+	private void send(HttpRequest request) throws IOException, InterruptedException {
+		HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+		assertEquals(200, response.statusCode(), request.uri().toString());
+	}
+
+	/**
+	 * Loads every coin and computes the summary statistics on the heap, as
+	 * the endpoints did before the aggregation pipelines.
+	 */
+	private Baseline baseline(MongoTemplate mongoTemplate) {
+		long[] nanos = new long[BASELINE_RUNS];
+		long[] bytes = new long[BASELINE_RUNS];
+		for (int i = 0; i < BASELINE_RUNS; i++) {
+			long allocated = threads.getCurrentThreadAllocatedBytes();
+			long start = System.nanoTime();
+			DoubleSummaryStatistics summary = mongoTemplate.findAll(Coin.class).stream()
+					.mapToDouble(Coin::getPrice)
+					.summaryStatistics();
+			nanos[i] = System.nanoTime() - start;
+			bytes[i] = threads.getCurrentThreadAllocatedBytes() - allocated;
+			assertTrue(summary.getCount() > 0);
+		}
+		Arrays.sort(nanos);
+		Arrays.sort(bytes);
+		return new Baseline(nanos[BASELINE_RUNS / 2] / 1e6, bytes[BASELINE_RUNS / 2]);
+	}
+
+	private static void report(int size, Map<String, Step> steps, Baseline baseline) {
+		System.out.printf(Locale.ROOT, "%n%d coins%n%-30s %9s %9s %12s %12s%n", size, "endpoint", "p50 ms", "p99 ms",
+				"thread KB/req", "JVM KB/req");
+		steps.forEach((endpoint, step) -> System.out.printf(Locale.ROOT, "%-30s %9.2f %9.2f %12.1f %12.1f%n",
+				endpoint, step.latencies().getValueAtPercentile(50) / 1e3,
+				step.latencies().getValueAtPercentile(99) / 1e3, step.bytesPerRequest() / 1024,
+				step.serverBytesPerRequest() / 1024));
+		if (baseline == null) {
+			System.out.printf(Locale.ROOT, "%-30s skipped above %d coins%n", "findAll (before)", BASELINE_MAX);
+		} else {
+			System.out.printf(Locale.ROOT, "%-30s %9.2f %9s %12.1f%n", "findAll (before)", baseline.millis(), "-",
+					baseline.bytes() / 1024.0);
+		}
+	}
+
+	/**
+	 * Latencies and allocation per request of one endpoint at one catalogue
+	 * size: on the request thread, and across the server threads.
+	 */
+	private record Step(Histogram latencies, double bytesPerRequest, double serverBytesPerRequest) {
+	}
+
+	private record Baseline(double millis, long bytes) {
+	}
+}
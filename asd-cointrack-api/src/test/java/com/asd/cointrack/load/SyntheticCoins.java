@@ -0,0 +1,162 @@
+package com.asd.cointrack.load;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.CoinCollection;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+import com.asd.cointrack.service.SearchTextNormalizer;
+
+/**
+ * Deterministic generator of catalogue-like coins for benchmarks and load
+ * tests: the same seed always produces the same sequence, so runs are
+ * comparable.
+ * <p>
+ * Distributions roughly follow a real catalogue: a few hundred minting years,
+ * a handful of materials, prices skewed towards cheap coins, rarities skewed
+ * towards common ones, conservation grades centred on {@code BB}, and
+ * collection sizes following a Zipf law (a few large collections, a long tail
+ * of small ones, some coins in none).
+ */
+public final class SyntheticCoins {
+
+	public static final long SEED = 42;
+
+	private static final String[] NAMES = { "Marengo", "Lira", "Scudo", "Ducato", "Tallero", "Fiorino", "Carlino",
+			"Soldo", "Grosso", "Zecchino", "Centesimi", "Euro" };
+	private static final String[] MATERIALS = { "Oro", "Argento", "Rame", "Bronzo", "Nichel", "Bimetallica",
+			"Acmonital" };
+	// Weights in declaration order: R5, R4, R3, R2, R, NC, C
+	private static final Weighted<NumismaticRarity> RARITIES = new Weighted<>(NumismaticRarity.values(),
+			0.1, 0.5, 2, 5, 12, 25, 55.4);
+	// Weights in declaration order: FDC, qFDC, SPL, qSPL, BB, qBB, MB, B, D, ILLEGIBILE
+	private static final Weighted<OptionConservation> CONSERVATIONS = new Weighted<>(OptionConservation.values(),
+			3, 5, 12, 15, 22, 16, 14, 8, 4, 1);
+	private static final double WITHOUT_COLLECTION = 0.2;
+	private static final Instant CREATED = Instant.parse("2024-01-01T00:00:00Z");
+
+	private final Random random;
+	private final Weighted<String> collectionIds;
+	private final byte[] id = new byte[12];
+	private long index;
+
+	/**
+	 * Creates a generator.
+	 *
+	 * @param seed          random seed
+	 * @param collectionIds ids of the collections coins are spread across,
+	 *                      the first ones receiving the most coins; empty for
+	 *                      coins without collection
+	 */
+	public SyntheticCoins(long seed, List<String> collectionIds) {
+		this.random = new Random(seed);
+		double[] zipf = new double[collectionIds.size()];
+		for (int i = 0; i < zipf.length; i++) {
+			zipf[i] = 1.0 / (i + 1);
+		}
+		this.collectionIds = collectionIds.isEmpty() ? null
+				: new Weighted<>(collectionIds.toArray(String[]::new), zipf);
+	}
+
+	/**
+	 * Generates a dataset of coins without collection.
+	 *
+	 * @param size number of coins
+	 * @param seed random seed
+	 * @return coins
+	 */
+	public static List<Coin> generate(int size, long seed) {
+		SyntheticCoins generator = new SyntheticCoins(seed, List.of());
+		List<Coin> coins = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			coins.add(generator.next());
+		}
+		return coins;
+	}
+
+	/**
+	 * Generates collections with distinct names and no id.
+	 *
+	 * @param count number of collections
+	 * @return collections
+	 */
+	public static List<CoinCollection> collections(int count) {
+		List<CoinCollection> collections = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			collections.add(CoinCollection.builder()
+					.name(String.format("Collezione %04d", i))
+					.description("Collezione sintetica per i test di carico")
+					.build());
+		}
+		return collections;
+	}
+
+	/**
+	 * Generates the next coin, with an id, version 0, audit and normalized
+	 * search fields set as they would be stored.
+	 *
+	 * @return coin
+	 */
+	public Coin next() {
+		random.nextBytes(id);
+		String name = NAMES[random.nextInt(NAMES.length)] + " " + (index++ % 500);
+		String material = MATERIALS[random.nextInt(MATERIALS.length)];
+		return Coin.builder()
+				.ID(HexFormat.of().formatHex(id))
+				.name(name)
+				.year(1700 + random.nextInt(325))
+				.material(material)
+				.weight(1 + random.nextDouble() * 30)
+				.diameter(10 + random.nextDouble() * 30)
+				.height(1 + random.nextDouble() * 3)
+				.price(Math.round(Math.exp(random.nextDouble() * 9) * 100) / 100.0)
+				.conservationObverse(CONSERVATIONS.pick(random))
+				.conservationReverse(CONSERVATIONS.pick(random))
+				.degree(RARITIES.pick(random))
+				.note(random.nextInt(4) == 0 ? "Esemplare con patina originale, bordo rigato" : null)
+				.collectionId(collectionIds == null || random.nextDouble() < WITHOUT_COLLECTION ? null
+						: collectionIds.pick(random))
+				.searchName(SearchTextNormalizer.normalize(name))
+				.searchMaterial(SearchTextNormalizer.normalize(material))
+				.version(0L)
+				.createdAt(CREATED)
+				.updatedAt(CREATED.plus(random.nextInt(500_000), ChronoUnit.MINUTES))
+				.createdBy("system")
+				.updatedBy("system")
+				.build();
+	}
+
+	/**
+	 * Values drawn with fixed relative weights.
+	 */
+	private static final class Weighted<T> {
+
+		private final T[] values;
+		private final double[] cumulative;
+
+		private Weighted(T[] values, double... weights) {
+			if (values.length != weights.length) {
+				throw new IllegalArgumentException("one weight per value expected");
+			}
+			this.values = values;
+			this.cumulative = new double[weights.length];
+			double sum = 0;
+			for (int i = 0; i < weights.length; i++) {
+				sum += weights[i];
+				cumulative[i] = sum;
+			}
+		}
+
+		private T pick(Random random) {
+			int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+			return values[index >= 0 ? index : Math.min(-index - 1, values.length - 1)];
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package com.asd.cointrack.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import com.asd.cointrack.AsdCointrackApiApplication;
+import com.asd.cointrack.model.Coin;
+
+/**
+ * Compares throughput and tail latency of the default platform thread pool
+ * mode with the {@code virtual-threads} profile under high concurrency. The
+ * searches skip the total count, which runs on its own bounded pool, so the
+ * request threads are the only pool being compared.
+ * <p>
+ * A second scenario measures searches with the exact count while streaming
+ * exports whose clients stopped reading hold every thread of the application
+ * task executor: the counts must not queue behind them.
+ * <p>
+ * Excluded from the regular build; run with
+ * {@code ./mvnw -Pload-test test} on a Java 21+ JDK. The results are printed
+ * to standard output.
+ */
+@Tag("load")
+class ThreadingModeLoadTest {
+
+	private static final int COINS = 20_000;
+	private static final int CONCURRENCY = 800;
+	private static final int WARMUP_REQUESTS = 2_000;
+	private static final int REQUESTS = 20_000;
+	// Without the parallel count, so that only the request threads are compared
+	private static final String PATH = "/api/coins/advanced-search?degreeIn=R3,R4&minYear=1800&maxYear=1950&size=20"
+			+ "&count=NONE";
+	private static final String EXACT_COUNT_PATH = "/api/coins/advanced-search?degreeIn=R3,R4&minYear=1800"
+			+ "&maxYear=1950&size=20";
+	private static final int EXACT_COUNT_REQUESTS = 5_000;
+	// More than the threads of the application task executor running MVC async requests
+	private static final int STALLED_EXPORTS = 16;
+	private static final long TIMEOUT_MINUTES = 10;
+
+	private static final MongoDBContainer MONGO = new MongoDBContainer(DockerImageName.parse("mongo:latest"));
+
+	private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+	@BeforeAll
+	static void startMongo() {
+		assumeTrue(Runtime.version().feature() >= 21, "virtual threads require Java 21+");
+		MONGO.start();
+	}
+
+	@AfterAll
+	static void stopMongo() {
+		if (MONGO.isRunning()) {
+			MONGO.stop();
+		}
+	}
+
+	@Test
+	void compareThreadingModes() throws Exception {
+		LoadResult platform = runWithProfile(null, true);
+		LoadResult virtual = runWithProfile("virtual-threads", false);
+
+		System.out.printf(Locale.ROOT, "%n%-16s %12s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "errors");
+		System.out.println(platform);
+		System.out.println(virtual);
+
+		assertEquals(0, platform.errors(), "platform mode errors");
+		assertEquals(0, virtual.errors(), "virtual-threads mode errors");
+	}
+
+	@Test
+	void exactCountsDoNotWaitForExports() throws Exception {
+		try (ConfigurableApplicationContext context = start(null)) {
+			String baseUrl = baseUrl(context);
+			seed(context, baseUrl);
+			load(baseUrl, EXACT_COUNT_PATH, WARMUP_REQUESTS);
+			LoadResult idle = load(baseUrl, EXACT_COUNT_PATH, EXACT_COUNT_REQUESTS).withMode("exact");
+
+			// Exports that are never read block on the socket once its buffers are full
+			HttpRequest export = HttpRequest.newBuilder(URI.create(baseUrl + "/api/coins/export")).GET().build();
+			List<CompletableFuture<HttpResponse<InputStream>>> exports = new ArrayList<>();
+			for (int i = 0; i < STALLED_EXPORTS; i++) {
+				exports.add(client.sendAsync(export, HttpResponse.BodyHandlers.ofInputStream()));
+			}
+			exports.get(0).get(1, TimeUnit.MINUTES);
+			LoadResult duringExports = load(baseUrl, EXACT_COUNT_PATH, EXACT_COUNT_REQUESTS)
+					.withMode("exact+exports");
+
+			System.out.printf(Locale.ROOT, "%n%-16s %12s %10s %10s %8s%n", "searches", "req/s", "p50 ms", "p99 ms",
+					"errors");
+			System.out.println(idle);
+			System.out.println(duringExports);
+
+			assertEquals(0, idle.errors(), "errors without exports");
+			assertEquals(0, duringExports.errors(), "errors during exports");
+		}
+	}
+
+	private LoadResult runWithProfile(String profile, boolean seed) throws Exception {
+		try (ConfigurableApplicationContext context = start(profile)) {
+			String baseUrl = baseUrl(context);
+			if (seed) {
+				seed(context, baseUrl);
+			}
+			load(baseUrl, PATH, WARMUP_REQUESTS);
+			LoadResult result = load(baseUrl, PATH, REQUESTS);
+			return result.withMode(profile == null ? "platform" : profile);
+		}
+	}
+
+	private static ConfigurableApplicationContext start(String profile) {
+		SpringApplicationBuilder builder = new SpringApplicationBuilder(AsdCointrackApiApplication.class)
+				.properties(
+						"server.port=0",
+						"spring.data.mongodb.uri=" + MONGO.getReplicaSetUrl("loadtest"),
+						"spring.docker.compose.enabled=false",
+						"spring.devtools.restart.enabled=false",
+						"cointrack.indexes.check-query-shapes=false");
+		if (profile != null) {
+			builder.profiles(profile);
+		}
+		return builder.run();
+	}
+
+	private static String baseUrl(ConfigurableApplicationContext context) {
+		return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+	}
+
+	private void seed(ConfigurableApplicationContext context, String baseUrl) throws Exception {
+		// Both tests share the database
+		if (context.getBean(MongoTemplate.class).estimatedCount(Coin.class) > 0) {
+			return;
+		}
+		Random random = new Random(42);
+		String[] degrees = { "R5", "R4", "R3", "R2", "R", "NC", "C" };
+		StringBuilder body = new StringBuilder(COINS * 220);
+		for (int i = 0; i < COINS; i++) {
+			body.append(String.format(Locale.ROOT,
+					"{\"name\":\"Coin %d\",\"year\":%d,\"material\":\"%s\",\"weight\":%.2f,\"diameter\":%.2f,"
+							+ "\"height\":1.5,\"price\":%.2f,\"conservationObverse\":\"SPL\","
+							+ "\"conservationReverse\":\"BB\",\"degree\":\"%s\"}%n",
+					i, 1700 + random.nextInt(320), random.nextBoolean() ? "Argento" : "Oro",
+					1 + random.nextDouble() * 30, 10 + random.nextDouble() * 30, random.nextDouble() * 5_000,
+					degrees[random.nextInt(degrees.length)]));
+		}
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/coins/import"))
+				.header("Content-Type", "application/x-ndjson")
+				.POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+				.build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		assertEquals(200, response.statusCode(), response.body());
+	}
+
+	private LoadResult load(String baseUrl, String path, int requests) throws InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+		Semaphore inFlight = new Semaphore(CONCURRENCY);
+		CountDownLatch done = new CountDownLatch(requests);
+		AtomicInteger errors = new AtomicInteger();
+		long[] latencies = new long[requests];
+
+		long start = System.nanoTime();
+		for (int i = 0; i < requests; i++) {
+			int index = i;
+			inFlight.acquire();
+			long sent = System.nanoTime();
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+				latencies[index] = System.nanoTime() - sent;
+				if (failure != null || response.statusCode() != 200) {
+					errors.incrementAndGet();
+				}
+				inFlight.release();
+				done.countDown();
+			});
+		}
+		assertTrue(done.await(TIMEOUT_MINUTES, TimeUnit.MINUTES),
+				done.getCount() + " of " + requests + " requests still pending after " + TIMEOUT_MINUTES + " minutes");
+		long elapsed = System.nanoTime() - start;
+
+		Arrays.sort(latencies);
+		return new LoadResult(null, requests * 1e9 / elapsed, percentileMillis(latencies, 0.50),
+				percentileMillis(latencies, 0.99), errors.get());
+	}
+
+	private static double percentileMillis(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile * sorted.length) - 1;
+		return sorted[Math.max(index, 0)] / 1e6;
+	}
+
+	private record LoadResult(String mode, double throughput, double p50, double p99, int errors) {
+
+		LoadResult withMode(String newMode) {
+			return new LoadResult(newMode, throughput, p50, p99, errors);
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%-16s %12.1f %10.2f %10.2f %8d", mode, throughput, p50, p99, errors);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.asd.cointrack.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import com.asd.cointrack.dto.CursorPage;
+
+/**
+ * Checks that a cursor handed out by {@link CoinCursors#page(Window)} decodes
+ * to the keyset of the last coin of the slice, value types included, and that
+ * cursors which do not match the request are rejected.
+ */
+class CoinCursorsTests {
+
+	private static final Sort BY_PRICE = Sort.by(Sort.Direction.DESC, "price");
+
+	@Test
+	void cursorRoundTripsTheKeysetOfTheLastCoin() {
+		ObjectId id = new ObjectId();
+		Map<String, Object> last = Map.of("price", 12.5, "ID", id);
+		Window<String> window = Window.from(List.of("first", "last"),
+				index -> ScrollPosition.forward(index == 0 ? Map.of("price", 20.0, "ID", new ObjectId()) : last), true);
+
+		CursorPage<String> page = CoinCursors.page(window);
+		KeysetScrollPosition position = CoinCursors.position(page.next(), BY_PRICE);
+
+		assertEquals(List.of("first", "last"), page.content());
+		assertEquals(2, page.size());
+		assertTrue(page.hasNext());
+		assertEquals(last, position.getKeys());
+		assertTrue(position.scrollsForward());
+	}
+
+	@Test
+	void tieBreakerIsPartOfTheCursor() {
+		Window<String> window = Window.from(List.of("coin"),
+				index -> ScrollPosition.forward(Map.of("price", 10.0, "ID", new ObjectId())), true);
+		String next = CoinCursors.page(window).next();
+
+		assertTrue(CoinCursors.position(next, BY_PRICE).getKeys().containsKey("ID"));
+		String withoutId = encode("{\"price\": 10.0}");
+		assertThrows(IllegalArgumentException.class, () -> CoinCursors.position(withoutId, BY_PRICE));
+	}
+
+	@Test
+	void lastSliceHasNoCursor() {
+		Window<String> window = Window.from(List.of("coin"),
+				index -> ScrollPosition.forward(Map.of("price", 10.0, "ID", new ObjectId())), false);
+
+		CursorPage<String> page = CoinCursors.page(window);
+
+		assertFalse(page.hasNext());
+		assertNull(page.next());
+	}
+
+	@Test
+	void missingCursorStartsFromTheBeginning() {
+		assertTrue(CoinCursors.position(null, BY_PRICE).isInitial());
+		assertTrue(CoinCursors.position(" ", BY_PRICE).isInitial());
+	}
+
+	@Test
+	void malformedCursorIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> CoinCursors.position("not a cursor!", BY_PRICE));
+		assertThrows(IllegalArgumentException.class, () -> CoinCursors.position(encode("{price"), BY_PRICE));
+	}
+
+	@Test
+	void cursorOfAnotherSortIsRejected() {
+		Window<String> window = Window.from(List.of("coin"),
+				index -> ScrollPosition.forward(Map.of("name", "Marengo", "ID", new ObjectId())), true);
+		String byName = CoinCursors.page(window).next();
+
+		assertThrows(IllegalArgumentException.class, () -> CoinCursors.position(byName, BY_PRICE));
+	}
+
+	@Test
+	void sortAndLimitAreValidated() {
+		assertEquals(Sort.by("name"), CoinCursors.sort(PageRequest.of(0, 10)));
+		assertThrows(IllegalArgumentException.class, () -> CoinCursors.sort(PageRequest.of(0, 10, Sort.by("weight"))));
+		assertEquals(100, CoinCursors.limit(PageRequest.of(0, 500)).max());
+		assertEquals(10, CoinCursors.limit(PageRequest.of(0, 10)).max());
+	}
+
+	private static String encode(String json) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,106 @@
+package com.asd.cointrack.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.asd.cointrack.config.ImportProperties;
+import com.asd.cointrack.dto.CoinImportReport;
+import com.asd.cointrack.event.CoinChangedEvent;
+import com.asd.cointrack.model.Coin;
+import com.mongodb.bulk.BulkWriteResult;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Checks that imported coins are announced with the id they are stored under,
+ * since the derived statistics key their rows by id.
+ */
+class CoinImportServiceTests {
+
+	private static final String COIN = "{\"name\":\"Coin %d\",\"year\":1900,\"material\":\"Oro\",\"weight\":1,"
+			+ "\"diameter\":1,\"height\":1,\"price\":%d,\"conservationObverse\":\"SPL\","
+			+ "\"conservationReverse\":\"BB\",\"degree\":\"C\"%s}";
+
+	private final List<Object> events = new ArrayList<>();
+	private final List<List<Coin>> batches = new ArrayList<>();
+
+	@Test
+	void importedCoinsCarryTheirGeneratedIds() throws Exception {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < 5; i++) {
+			body.append(COIN.formatted(i, i, "")).append('\n');
+		}
+
+		CoinImportReport report = importNdjson(body.toString(), 2);
+
+		assertEquals(5, report.inserted());
+		assertEquals(5, events.size());
+		HashSet<String> ids = new HashSet<>();
+		for (Object event : events) {
+			CoinChangedEvent change = (CoinChangedEvent) event;
+			assertNull(change.before());
+			String id = change.after().getID();
+			assertNotNull(id, "created event without id");
+			assertTrue(ObjectId.isValid(id), id);
+			ids.add(id);
+		}
+		assertEquals(5, ids.size(), "ids must be distinct");
+		assertEquals(3, batches.size());
+		assertTrue(batches.stream().flatMap(List::stream).allMatch(coin -> ids.contains(coin.getID())),
+				"events must carry the ids sent to the database");
+	}
+
+	@Test
+	void clientIdsArePreserved() throws Exception {
+		String body = COIN.formatted(1, 1, ",\"id\":\"custom-1\"") + "\n" + COIN.formatted(2, 2, "");
+
+		importNdjson(body, 10);
+
+		assertEquals("custom-1", ((CoinChangedEvent) events.get(0)).after().getID());
+		assertTrue(ObjectId.isValid(((CoinChangedEvent) events.get(1)).after().getID()));
+	}
+
+	private CoinImportReport importNdjson(String body, int batchSize) throws Exception {
+		MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+		BulkOperations bulk = mock(BulkOperations.class);
+		when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Coin.class))).thenReturn(bulk);
+		when(bulk.insert(anyList())).thenAnswer(invocation -> {
+			batches.add(List.copyOf(invocation.<List<Coin>>getArgument(0)));
+			return bulk;
+		});
+		when(bulk.execute()).thenAnswer(invocation -> {
+			BulkWriteResult result = mock(BulkWriteResult.class);
+			when(result.getInsertedCount()).thenReturn(batches.get(batches.size() - 1).size());
+			return result;
+		});
+		ApplicationEventPublisher publisher = events::add;
+
+		try (ValidatorFactory validation = Validation.buildDefaultValidatorFactory()) {
+			CoinImportService service = new CoinImportService(mongoTemplate,
+					Jackson2ObjectMapperBuilder.json().build(), validation.getValidator(), publisher,
+					new ImportProperties(batchSize));
+			return service.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+		}
+	}
+}
@@ -0,0 +1,370 @@
+package com.asd.cointrack.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.asd.cointrack.config.StatsColumnsProperties;
+import com.asd.cointrack.dto.CoinDimension;
+import com.asd.cointrack.dto.CoinMeasure;
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.CoinsByDegreeStats;
+import com.asd.cointrack.dto.CoinsByMaterialStats;
+import com.asd.cointrack.dto.CoinsByYearStats;
+import com.asd.cointrack.dto.CoinsHistogramBucket;
+import com.asd.cointrack.dto.CoinsPercentiles;
+import com.asd.cointrack.dto.CoinsPivotCell;
+import com.asd.cointrack.dto.CoinsStatsOverview;
+import com.asd.cointrack.dto.TextMatchMode;
+import com.asd.cointrack.load.SyntheticCoins;
+import com.asd.cointrack.model.Coin;
+import com.asd.cointrack.model.NumismaticRarity;
+import com.asd.cointrack.model.OptionConservation;
+
+/**
+ * Checks the columnar snapshot against brute-force computations over the same
+ * coins. The chunk size is small so that every scan is split across many
+ * parallel chunks.
+ */
+class CoinStatsColumnsTests {
+
+	private static final int COINS = 3000;
+	private static final int CHUNK_SIZE = 64;
+	private static final List<Double> PERCENTILES = List.of(0.0, 1.0, 25.0, 50.0, 90.0, 99.9, 100.0);
+
+	private static final List<CoinSearchFilter> FILTERS = List.of(
+			CoinSearchFilter.none(),
+			new CoinSearchFilter(null, "arg", null, List.of(NumismaticRarity.R, NumismaticRarity.NC,
+					NumismaticRarity.C), null, 1800, 1950, 10.0, null, null),
+			new CoinSearchFilter(null, "B", NumismaticRarity.C, null,
+					List.of(OptionConservation.BB, OptionConservation.SPL), null, null, null, 500.0,
+					TextMatchMode.PREFIX),
+			new CoinSearchFilter(null, "platino", null, null, null, null, null, null, null, null));
+
+	private final Map<String, Coin> database = new LinkedHashMap<>();
+	private MongoTemplate mongoTemplate;
+	private CoinStatsColumns columns;
+
+	@BeforeEach
+	void setUp() {
+		SyntheticCoins.generate(COINS, SyntheticCoins.SEED).forEach(coin -> database.put(coin.getID(), coin));
+		mongoTemplate = mock(MongoTemplate.class);
+		when(mongoTemplate.getCollectionName(Coin.class)).thenReturn("coins");
+		when(mongoTemplate.estimatedCount(Coin.class)).thenAnswer(invocation -> (long) database.size());
+		when(mongoTemplate.stream(any(Query.class), eq(Document.class), anyString()))
+				.thenAnswer(invocation -> List.copyOf(database.values()).stream().map(CoinStatsColumnsTests::document));
+		when(mongoTemplate.find(any(Query.class), eq(Coin.class))).thenAnswer(invocation -> {
+			Document in = (Document) invocation.<Query>getArgument(0).getQueryObject().get("_id");
+			return in.getList("$in", String.class).stream().map(database::get).toList();
+		});
+		columns = new CoinStatsColumns(mongoTemplate, new StatsColumnsProperties(true, CHUNK_SIZE));
+		columns.rebuild();
+	}
+
+	@Test
+	void overviewMatchesBruteForce() {
+		for (CoinSearchFilter filter : FILTERS) {
+			assertOverview(filter);
+		}
+	}
+
+	@Test
+	void pivotMatchesBruteForce() {
+		for (CoinSearchFilter filter : FILTERS) {
+			assertPivot(CoinDimension.DEGREE, CoinDimension.MATERIAL, filter);
+			assertPivot(CoinDimension.YEAR, null, filter);
+			assertPivot(CoinDimension.CONSERVATION_REVERSE, CoinDimension.DEGREE, filter);
+		}
+	}
+
+	@Test
+	void percentilesMatchBruteForce() {
+		for (CoinSearchFilter filter : FILTERS) {
+			assertPercentiles(CoinMeasure.PRICE, null, filter);
+			assertPercentiles(CoinMeasure.WEIGHT, CoinDimension.DEGREE, filter);
+			assertPercentiles(CoinMeasure.DIAMETER, CoinDimension.MATERIAL, filter);
+		}
+	}
+
+	@Test
+	void histogramMatchesBruteForce() {
+		for (CoinSearchFilter filter : FILTERS) {
+			for (int buckets : new int[] { 1, 7, 50 }) {
+				assertHistogram(CoinMeasure.PRICE, buckets, filter);
+				assertHistogram(CoinMeasure.DIAMETER, buckets, filter);
+			}
+		}
+	}
+
+	@Test
+	void histogramOfEqualValuesHasOneFullBucket() {
+		database.clear();
+		SyntheticCoins.generate(10, SyntheticCoins.SEED)
+				.forEach(coin -> database.put(coin.getID(), coin.toBuilder().price(42.0).build()));
+		columns.rebuild();
+
+		List<CoinsHistogramBucket> histogram = columns.histogram(CoinMeasure.PRICE, 4, CoinSearchFilter.none());
+
+		assertEquals(new CoinsHistogramBucket(42.0, 42.0, 10), histogram.get(0));
+		assertEquals(List.of(0L, 0L, 0L), histogram.subList(1, 4).stream().map(CoinsHistogramBucket::count).toList());
+	}
+
+	@Test
+	void changesAreApplied() {
+		List<Coin> coins = new ArrayList<>(database.values());
+		Coin updated = coins.get(0).toBuilder().year(1650).price(123_456.0).material("Platino").build();
+		Coin created = coins.get(1).toBuilder().ID("new-coin").degree(NumismaticRarity.R5).build();
+		Coin deleted = coins.get(2);
+
+		assertTrue(columns.applyChange(coins.get(0), updated));
+		assertTrue(columns.applyChange(null, created));
+		assertTrue(columns.applyChange(deleted, null));
+		database.put(updated.getID(), updated);
+		database.put(created.getID(), created);
+		database.remove(deleted.getID());
+
+		for (CoinSearchFilter filter : FILTERS) {
+			assertOverview(filter);
+			assertPivot(CoinDimension.MATERIAL, CoinDimension.DEGREE, filter);
+			assertPercentiles(CoinMeasure.PRICE, CoinDimension.YEAR, filter);
+		}
+	}
+
+	@Test
+	void changesWithoutIdAreRejected() {
+		Coin withoutId = database.values().iterator().next().toBuilder().ID(null).build();
+
+		assertFalse(columns.applyChange(null, withoutId));
+		assertFalse(columns.applyChange(withoutId, null));
+
+		assertOverview(CoinSearchFilter.none());
+	}
+
+	@Test
+	void changesDuringRebuildAreReplayed() {
+		List<Coin> coins = new ArrayList<>(database.values());
+		Coin alreadyLoaded = coins.get(0);
+		Coin notYetLoaded = coins.get(coins.size() - 1);
+		Coin updatedLoaded = alreadyLoaded.toBuilder().price(1.0).build();
+		Coin updatedNotLoaded = notYetLoaded.toBuilder().price(2.0).year(1999).build();
+		Coin created = alreadyLoaded.toBuilder().ID("created-while-loading").build();
+		Coin deleted = coins.get(1);
+
+		// Writes land in the database while the load streams: the first one
+		// after the load read the coin, the second one before
+		AtomicBoolean written = new AtomicBoolean();
+		when(mongoTemplate.stream(any(Query.class), eq(Document.class), anyString()))
+				.thenAnswer(invocation -> List.copyOf(database.values()).stream().map(coin -> {
+					if (written.compareAndSet(false, true)) {
+						database.put(updatedLoaded.getID(), updatedLoaded);
+						database.put(updatedNotLoaded.getID(), updatedNotLoaded);
+						database.put(created.getID(), created);
+						database.remove(deleted.getID());
+						columns.applyChange(alreadyLoaded, updatedLoaded);
+						columns.applyChange(notYetLoaded, updatedNotLoaded);
+						columns.applyChange(null, created);
+						columns.applyChange(deleted, null);
+					}
+					return coin.getID().equals(notYetLoaded.getID()) ? updatedNotLoaded : coin;
+				}).map(CoinStatsColumnsTests::document));
+
+		columns.rebuild();
+
+		for (CoinSearchFilter filter : FILTERS) {
+			assertOverview(filter);
+			assertPercentiles(CoinMeasure.PRICE, CoinDimension.YEAR, filter);
+		}
+	}
+
+	private void assertOverview(CoinSearchFilter filter) {
+		List<Coin> matching = matching(filter);
+		CoinsStatsOverview overview = columns.overview(filter, 5);
+
+		assertEquals(matching.size(), overview.summary().totalCount(), "count");
+		assertClose(matching.stream().mapToDouble(Coin::getPrice).sum(), overview.summary().totalPrice());
+		assertEquals(matching.stream().map(Coin::getYear).min(Integer::compare).orElse(null),
+				overview.summary().minYear());
+		assertEquals(matching.stream().map(Coin::getYear).max(Integer::compare).orElse(null),
+				overview.summary().maxYear());
+		assertEquals(counts(matching, Coin::getYear).entrySet().stream()
+				.map(entry -> new CoinsByYearStats(entry.getKey(), entry.getValue())).toList(), overview.byYear());
+		assertEquals(counts(matching, Coin::getDegree).entrySet().stream()
+				.map(entry -> new CoinsByDegreeStats(entry.getKey(), entry.getValue())).toList(), overview.byDegree());
+		assertEquals(counts(matching, Coin::getMaterial).entrySet().stream()
+				.map(entry -> new CoinsByMaterialStats(entry.getKey(), entry.getValue())).toList(),
+				overview.byMaterial());
+		assertEquals(matching.stream().map(Coin::getPrice).sorted(Comparator.reverseOrder()).limit(5).toList(),
+				overview.topExpensive().stream().map(Coin::getPrice).toList(), "top prices");
+	}
+
+	private void assertPivot(CoinDimension rows, CoinDimension columnsDimension, CoinSearchFilter filter) {
+		Map<String, List<Coin>> cells = new TreeMap<>();
+		for (Coin coin : matching(filter)) {
+			String column = columnsDimension == null ? "" : label(columnsDimension, coin);
+			cells.computeIfAbsent(sortKey(rows, coin) + "|" + sortKey(columnsDimension, coin) + "|" + label(rows, coin)
+					+ "|" + column, key -> new ArrayList<>()).add(coin);
+		}
+		List<CoinsPivotCell> pivot = columns.pivot(rows, columnsDimension, filter);
+
+		assertEquals(cells.size(), pivot.size(), "cells");
+		int i = 0;
+		for (Map.Entry<String, List<Coin>> cell : cells.entrySet()) {
+			CoinsPivotCell actual = pivot.get(i++);
+			Coin sample = cell.getValue().get(0);
+			assertEquals(label(rows, sample), actual.row());
+			assertEquals(columnsDimension == null ? null : label(columnsDimension, sample), actual.column());
+			assertEquals(cell.getValue().size(), actual.count(), cell.getKey());
+			assertClose(cell.getValue().stream().mapToDouble(Coin::getPrice).sum(), actual.totalPrice());
+		}
+	}
+
+	private void assertPercentiles(CoinMeasure measure, CoinDimension by, CoinSearchFilter filter) {
+		ToDoubleFunction<Coin> value = value(measure);
+		Map<String, List<Double>> groups = new TreeMap<>();
+		Map<String, String> labels = new TreeMap<>();
+		for (Coin coin : matching(filter)) {
+			String key = by == null ? "" : sortKey(by, coin);
+			groups.computeIfAbsent(key, k -> new ArrayList<>()).add(value.applyAsDouble(coin));
+			labels.put(key, by == null ? null : label(by, coin));
+		}
+		List<CoinsPercentiles> actual = columns.percentiles(measure, by, PERCENTILES, filter);
+
+		assertEquals(groups.size(), actual.size(), "groups");
+		int i = 0;
+		for (Map.Entry<String, List<Double>> group : groups.entrySet()) {
+			List<Double> sorted = group.getValue().stream().sorted().toList();
+			CoinsPercentiles percentiles = actual.get(i++);
+			assertEquals(labels.get(group.getKey()), percentiles.group());
+			assertEquals(sorted.size(), percentiles.count());
+			for (int p = 0; p < PERCENTILES.size(); p++) {
+				int rank = (int) Math.ceil(PERCENTILES.get(p) / 100 * sorted.size());
+				double expected = sorted.get(Math.max(rank, 1) - 1);
+				assertEquals(expected, percentiles.percentiles().get(p).value(), 0.0,
+						measure + " p" + PERCENTILES.get(p) + " of " + group.getKey());
+			}
+		}
+	}
+
+	private void assertHistogram(CoinMeasure measure, int buckets, CoinSearchFilter filter) {
+		ToDoubleFunction<Coin> value = value(measure);
+		List<Double> values = matching(filter).stream().map(value::applyAsDouble).toList();
+		List<CoinsHistogramBucket> histogram = columns.histogram(measure, buckets, filter);
+
+		if (values.isEmpty()) {
+			assertTrue(histogram.isEmpty());
+			return;
+		}
+		assertEquals(buckets, histogram.size());
+		assertEquals(values.stream().min(Double::compare).orElseThrow(), histogram.get(0).from(), 0.0);
+		assertEquals(values.stream().max(Double::compare).orElseThrow(), histogram.get(buckets - 1).to(), 0.0);
+		assertEquals(values.size(), histogram.stream().mapToLong(CoinsHistogramBucket::count).sum());
+		for (int i = 0; i < buckets; i++) {
+			CoinsHistogramBucket bucket = histogram.get(i);
+			boolean last = i == buckets - 1;
+			long expected = values.stream()
+					.filter(v -> v >= bucket.from() && (last ? v <= bucket.to() : v < bucket.to()))
+					.count();
+			assertEquals(expected, bucket.count(), measure + " bucket " + i + " of " + buckets);
+		}
+	}
+
+	private List<Coin> matching(CoinSearchFilter filter) {
+		return database.values().stream().filter(matches(filter)).toList();
+	}
+
+	private static Predicate<Coin> matches(CoinSearchFilter filter) {
+		return coin -> (filter.minYear() == null || coin.getYear() >= filter.minYear())
+				&& (filter.maxYear() == null || coin.getYear() <= filter.maxYear())
+				&& (filter.minPrice() == null || coin.getPrice() >= filter.minPrice())
+				&& (filter.maxPrice() == null || coin.getPrice() <= filter.maxPrice())
+				&& (filter.degree() == null || filter.degree() == coin.getDegree())
+				&& (filter.degreeIn().isEmpty() || filter.degreeIn().contains(coin.getDegree()))
+				&& (filter.conservationObverseIn().isEmpty()
+						|| filter.conservationObverseIn().contains(coin.getConservationObverse()))
+				&& (filter.material() == null || matchesText(coin.getMaterial(), filter));
+	}
+
+	private static boolean matchesText(String material, CoinSearchFilter filter) {
+		String value = SearchTextNormalizer.normalize(material);
+		String fragment = SearchTextNormalizer.normalize(filter.material());
+		return filter.textMatch() == TextMatchMode.PREFIX ? value.startsWith(fragment) : value.contains(fragment);
+	}
+
+	private static <K extends Comparable<K>> Map<K, Long> counts(List<Coin> coins, Function<Coin, K> key) {
+		return coins.stream().collect(Collectors.groupingBy(key, TreeMap::new, Collectors.counting()));
+	}
+
+	private static ToDoubleFunction<Coin> value(CoinMeasure measure) {
+		return switch (measure) {
+			case PRICE -> Coin::getPrice;
+			case WEIGHT -> Coin::getWeight;
+			case DIAMETER -> Coin::getDiameter;
+		};
+	}
+
+	private static String label(CoinDimension dimension, Coin coin) {
+		return switch (dimension) {
+			case YEAR -> String.valueOf(coin.getYear());
+			case DEGREE -> coin.getDegree().name();
+			case MATERIAL -> coin.getMaterial();
+			case CONSERVATION_OBVERSE -> coin.getConservationObverse().name();
+			case CONSERVATION_REVERSE -> coin.getConservationReverse().name();
+		};
+	}
+
+	/**
+	 * Key sorting groups in output order: years ascending, enums in
+	 * declaration order and materials alphabetically.
+	 */
+	private static String sortKey(CoinDimension dimension, Coin coin) {
+		if (dimension == null) {
+			return "";
+		}
+		return switch (dimension) {
+			case YEAR -> String.format("%05d", coin.getYear());
+			case DEGREE -> String.format("%02d", coin.getDegree().ordinal());
+			case MATERIAL -> coin.getMaterial();
+			case CONSERVATION_OBVERSE -> String.format("%02d", coin.getConservationObverse().ordinal());
+			case CONSERVATION_REVERSE -> String.format("%02d", coin.getConservationReverse().ordinal());
+		};
+	}
+
+	private static void assertClose(double expected, double actual) {
+		assertEquals(expected, actual, 1e-9 * Math.max(1.0, Math.abs(expected)));
+	}
+
+	private static Document document(Coin coin) {
+		return new Document("_id", coin.getID())
+				.append("year", coin.getYear())
+				.append("price", coin.getPrice())
+				.append("weight", coin.getWeight())
+				.append("diameter", coin.getDiameter())
+				.append("material", coin.getMaterial())
+				.append("degree", coin.getDegree().name())
+				.append("conservationObverse", coin.getConservationObverse().name())
+				.append("conservationReverse", coin.getConservationReverse().name());
+	}
+}
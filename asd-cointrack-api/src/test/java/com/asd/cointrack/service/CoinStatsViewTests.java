@@ -0,0 +1,146 @@
+package com.asd.cointrack.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.asd.cointrack.config.StatsColumnsProperties;
+import com.asd.cointrack.config.StatsSketchProperties;
+import com.asd.cointrack.config.StatsViewProperties;
+import com.asd.cointrack.dto.CoinSearchFilter;
+import com.asd.cointrack.dto.CoinsByMaterialStats;
+import com.asd.cointrack.dto.CoinsByYearStats;
+import com.asd.cointrack.dto.CoinsSummaryStats;
+import com.asd.cointrack.load.SyntheticCoins;
+import com.asd.cointrack.model.Coin;
+
+/**
+ * Checks that the deltas applied while the view reloads are replayed exactly
+ * once onto the reloaded counters and sketches, wherever the stream is when
+ * they arrive, and that no further rebuild is needed.
+ */
+class CoinStatsViewTests {
+
+	private static final int COINS = 500;
+
+	// Sorted as MongoDB sorts the synthetic ObjectId hex ids
+	private final Map<String, Coin> database = new TreeMap<>();
+	private MongoTemplate mongoTemplate;
+	private CoinPriceSketches priceSketches;
+	private CoinStatsView view;
+
+	@BeforeEach
+	void setUp() {
+		SyntheticCoins.generate(COINS, SyntheticCoins.SEED).forEach(coin -> database.put(coin.getID(), coin));
+		mongoTemplate = mock(MongoTemplate.class);
+		when(mongoTemplate.stream(any(Query.class), eq(Coin.class)))
+				.thenAnswer(invocation -> List.copyOf(database.values()).stream());
+		priceSketches = new CoinPriceSketches(mongoTemplate, new StatsSketchProperties(true, 0.01));
+		view = new CoinStatsView(mongoTemplate,
+				new StatsViewProperties(true, Duration.ofMinutes(15), Duration.ofSeconds(5)),
+				new CoinStatsColumns(mongoTemplate, new StatsColumnsProperties(false, 16384)), priceSketches);
+		view.rebuild();
+		assertMatchesDatabase();
+	}
+
+	@Test
+	void changesDuringRebuildAreReplayedOnce() {
+		List<Coin> coins = new ArrayList<>(database.values());
+		int middle = COINS / 2;
+		Coin read = coins.get(0);
+		Coin deletedRead = coins.get(1);
+		Coin ahead = coins.get(COINS - 1);
+		Coin deletedAhead = coins.get(COINS - 2);
+		Coin createdBefore = read.toBuilder().ID("created-while-loading").build();
+		Coin createdAfter = read.toBuilder().ID("ffffffffffffffffffffffff").build();
+
+		// The stream reads each coin when it reaches it; halfway through, the
+		// writes land in the database and then their deltas are applied
+		AtomicInteger position = new AtomicInteger();
+		when(mongoTemplate.stream(any(Query.class), eq(Coin.class)))
+				.thenAnswer(invocation -> List.copyOf(database.keySet()).stream().map(id -> {
+					if (position.getAndIncrement() == middle) {
+						write(read, updated(read));
+						write(ahead, updated(ahead));
+						write(deletedRead, null);
+						write(deletedAhead, null);
+						write(null, createdBefore);
+						write(null, createdAfter);
+					}
+					return database.get(id);
+				}).filter(Objects::nonNull));
+
+		view.rebuild();
+		assertMatchesDatabase();
+
+		view.rebuildIfRequested();
+		verify(mongoTemplate, times(2)).stream(any(Query.class), eq(Coin.class));
+	}
+
+	@Test
+	void changesAfterRebuildAreApplied() {
+		Coin coin = database.values().iterator().next();
+		write(coin, updated(coin));
+		write(database.values().stream().skip(1).findFirst().orElseThrow(), null);
+
+		assertMatchesDatabase();
+	}
+
+	private void write(Coin before, Coin after) {
+		if (after != null) {
+			database.put(after.getID(), after);
+		} else {
+			database.remove(before.getID());
+		}
+		view.applyChange(before, after);
+	}
+
+	private static Coin updated(Coin coin) {
+		return coin.toBuilder()
+				.year(coin.getYear() + 1)
+				.price(coin.getPrice() + 1000)
+				.material("Platino")
+				.version(coin.getVersion() + 1)
+				.build();
+	}
+
+	private void assertMatchesDatabase() {
+		List<CoinsByYearStats> byYear = database.values().stream()
+				.collect(Collectors.groupingBy(Coin::getYear, TreeMap::new, Collectors.counting()))
+				.entrySet().stream()
+				.map(entry -> new CoinsByYearStats(entry.getKey(), entry.getValue()))
+				.toList();
+		List<CoinsByMaterialStats> byMaterial = database.values().stream()
+				.collect(Collectors.groupingBy(Coin::getMaterial, TreeMap::new, Collectors.counting()))
+				.entrySet().stream()
+				.map(entry -> new CoinsByMaterialStats(entry.getKey(), entry.getValue()))
+				.toList();
+		double totalPrice = database.values().stream().mapToDouble(Coin::getPrice).sum();
+
+		assertEquals(byYear, view.getStatsByYear());
+		assertEquals(byMaterial, view.getStatsByMaterial());
+		CoinsSummaryStats summary = view.getSummaryStats();
+		assertEquals(database.size(), summary.totalCount());
+		assertEquals(totalPrice, summary.totalPrice(), 1e-6);
+		assertEquals(database.size(), priceSketches.distribution(null, List.of(50.0), List.of(0.0),
+				CoinSearchFilter.none()).get(0).count());
+	}
+}
@@ -0,0 +1,137 @@
+package com.asd.cointrack.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the quantiles, counts and bounds of {@link PriceSketch} against the
+ * exact values of the same prices.
+ */
+class PriceSketchTests {
+
+	private static final double[] QUANTILES = { 0, 0.001, 0.01, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999, 1 };
+	private static final double[] BOUNDS = { 0.005, 0.01, 0.5, 1, 10, 99.99, 100, 1000, 25_000, 1e9 };
+
+	@Test
+	void quantilesAreWithinTheRelativeAccuracy() {
+		for (double accuracy : new double[] { 0.1, 0.01, 0.001 }) {
+			List<Double> prices = prices(50_000, 1);
+			PriceSketch sketch = new PriceSketch(accuracy);
+			prices.forEach(price -> sketch.add(price, 1));
+
+			assertEquals(prices.size(), sketch.count());
+			assertQuantiles(prices, sketch);
+		}
+	}
+
+	@Test
+	void removalsAreSubtracted() {
+		List<Double> prices = prices(20_000, 2);
+		PriceSketch sketch = new PriceSketch(0.01);
+		prices.forEach(price -> sketch.add(price, 1));
+		List<Double> remaining = new ArrayList<>();
+		for (int i = 0; i < prices.size(); i++) {
+			if (i % 3 == 0) {
+				sketch.add(prices.get(i), -1);
+			} else {
+				remaining.add(prices.get(i));
+			}
+		}
+
+		assertEquals(remaining.size(), sketch.count());
+		assertQuantiles(remaining, sketch);
+	}
+
+	@Test
+	void countBelowIsExactOutsideTheErrorBand() {
+		double accuracy = 0.01;
+		List<Double> prices = prices(20_000, 3);
+		PriceSketch sketch = new PriceSketch(accuracy);
+		prices.forEach(price -> sketch.add(price, 1));
+
+		for (double bound : BOUNDS) {
+			long below = sketch.countBelow(bound);
+			long surelyBelow = prices.stream().filter(price -> price < bound * (1 - 2 * accuracy)).count();
+			long possiblyBelow = prices.stream().filter(price -> price < bound * (1 + 2 * accuracy)).count();
+			assertTrue(below >= surelyBelow && below <= possiblyBelow,
+					"countBelow(" + bound + ") = " + below + ", expected between " + surelyBelow + " and "
+							+ possiblyBelow);
+		}
+		assertEquals(0, sketch.countBelow(0));
+		assertEquals(prices.size(), sketch.countBelow(PriceSketch.MAX_PRICE * 2));
+	}
+
+	@Test
+	void zeroNegativeAndHugePricesAreClamped() {
+		PriceSketch sketch = new PriceSketch(0.01);
+		sketch.add(0.0, 1);
+		sketch.add(-5.0, 1);
+		sketch.add(0.001, 1);
+		sketch.add(1e15, 1);
+
+		assertEquals(4, sketch.count());
+		assertEquals(0.0, sketch.quantile(0.75));
+		assertEquals(PriceSketch.MAX_PRICE, sketch.quantile(1), PriceSketch.MAX_PRICE * 0.01);
+		assertEquals(PriceSketch.MAX_PRICE, sketch.highest(), PriceSketch.MAX_PRICE * 0.01);
+		assertEquals(3, sketch.countBelow(PriceSketch.MIN_PRICE));
+	}
+
+	@Test
+	void emptySketch() {
+		PriceSketch sketch = new PriceSketch(0.01);
+		sketch.add(12.5, 1);
+		sketch.add(12.5, -1);
+
+		assertEquals(0, sketch.count());
+		assertTrue(Double.isNaN(sketch.quantile(0.5)));
+		assertEquals(0.0, sketch.highest());
+		assertEquals(0, sketch.countBelow(100));
+	}
+
+	@Test
+	void accuracyOutOfRangeIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new PriceSketch(0.5));
+		assertThrows(IllegalArgumentException.class, () -> new PriceSketch(0.00001));
+		assertThrows(IllegalArgumentException.class, () -> new PriceSketch(Double.NaN));
+	}
+
+	/**
+	 * Nearest-rank quantiles fall in the same bucket as the exact value, so
+	 * they differ from it by at most the relative accuracy.
+	 */
+	private static void assertQuantiles(List<Double> prices, PriceSketch sketch) {
+		List<Double> sorted = prices.stream().sorted().toList();
+		for (double quantile : QUANTILES) {
+			int rank = (int) Math.min(Math.max((long) Math.ceil(quantile * sorted.size()), 1), sorted.size());
+			double exact = sorted.get(rank - 1);
+			double estimate = sketch.quantile(quantile);
+			if (exact < PriceSketch.MIN_PRICE) {
+				assertEquals(0.0, estimate, "q" + quantile);
+			} else {
+				double tolerance = exact * sketch.getRelativeAccuracy() * (1 + 1e-9);
+				assertEquals(exact, estimate, tolerance, "q" + quantile + " at accuracy "
+						+ sketch.getRelativeAccuracy());
+			}
+		}
+	}
+
+	/**
+	 * Log-normal prices rounded to cents, plus a few free coins.
+	 */
+	private static List<Double> prices(int size, long seed) {
+		Random random = new Random(seed);
+		List<Double> prices = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			prices.add(random.nextInt(100) == 0 ? 0.0
+					: Math.max(0.01, Math.round(Math.exp(random.nextGaussian() * 2 + 4) * 100) / 100.0));
+		}
+		return prices;
+	}
+}